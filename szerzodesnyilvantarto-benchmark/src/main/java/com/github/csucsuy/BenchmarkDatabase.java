@@ -0,0 +1,100 @@
+package com.github.csucsuy;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * Ideiglenes SQLite adatbázis a mérésekhez.
+ * A DatabaseManager statikus (JVM-enként egyetlen adatbázis), ezért a
+ * beállításokat még az első használata előtt, rendszer tulajdonságon
+ * keresztül kell átirányítani. A JMH minden mérést külön JVM-ben (fork) futtat,
+ * így minden mérés saját, friss adatbázist kap.
+ */
+final class BenchmarkDatabase {
+
+    private static Path directory;
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Létrehoz egy üres adatbázist egy ideiglenes könyvtárban, és
+     * ráirányítja a DatabaseManager-t. Forkonként csak egyszer hívható.
+     */
+    static synchronized void create() throws IOException {
+        if (directory != null) {
+            throw new IllegalStateException("Az adatbázis már létrejött: " + directory);
+        }
+        directory = Files.createTempDirectory("szerzodes-jmh");
+        Path config = directory.resolve("adatbazis.properties");
+        try (Writer out = Files.newBufferedWriter(config, StandardCharsets.UTF_8)) {
+            // Az éles beállításokat örököljük, csak a fájl helye más
+            out.write("db.url=jdbc:sqlite:" + directory.resolve("benchmark.db").toAbsolutePath() + "\n");
+        }
+        System.setProperty(DatabaseConfig.CONFIG_FILE_PROPERTY, config.toString());
+        DatabaseManager.initializeDatabase();
+    }
+
+    /**
+     * Feltölti az adatbázist a megadott számú generált szerződéssel (kötegelt mentéssel).
+     */
+    static void fill(int rows) {
+        long written = new ContractDAO().addContracts(() -> generate(rows), 10000, null);
+        if (written != rows) {
+            throw new IllegalStateException("Csak " + written + " sor került mentésre a " + rows + "-ből");
+        }
+    }
+
+    /**
+     * Lezárja a kapcsolatokat és törli az ideiglenes könyvtárat.
+     */
+    static synchronized void delete() throws IOException {
+        DatabaseManager.getPool().close();
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * Determinisztikus minta szerződés (a sorszámból képezve).
+     */
+    static Contract sample(int i) {
+        LocalDate start = LocalDate.of(2010, 1, 1).plusDays(i % 5000);
+        return new Contract("Szerződés " + i, start, start.plusDays(365 + i % 1000),
+                BigDecimal.valueOf(i % 100000000L, 2), "Partner " + (i % 2000) + " Kft.",
+                i % 3 == 0 ? null : "Második fél " + (i % 500), "/dokumentumok/" + i + ".pdf");
+    }
+
+    private static Iterator<Contract> generate(int rows) {
+        return new Iterator<Contract>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < rows;
+            }
+
+            @Override
+            public Contract next() {
+                if (next >= rows) {
+                    throw new NoSuchElementException();
+                }
+                return sample(next++);
+            }
+        };
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.csucsuy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Törlés (ContractDAO.deleteContract). Minden iteráció előtt BATCH új sort
+ * mentünk, az iteráció ezeket törli egyenként; az eredmény egy BATCH
+ * méretű köteg törlési ideje (ms), az egy törlésre jutó idő ennek ezredrésze.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = ContractDeleteBenchmark.BATCH)
+@Measurement(iterations = 10, batchSize = ContractDeleteBenchmark.BATCH)
+@Fork(1)
+public class ContractDeleteBenchmark {
+
+    static final int BATCH = 1000;
+    private static final int ROWS = 10000;
+
+    private ContractDAO dao;
+    private final List<Contract> pending = new ArrayList<>(BATCH);
+    private int next;
+    private int created;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkDatabase.create();
+        BenchmarkDatabase.fill(ROWS);
+        dao = new ContractDAO();
+    }
+
+    @Setup(Level.Iteration)
+    public void insertBatch() {
+        pending.clear();
+        for (int i = 0; i < BATCH; i++) {
+            pending.add(BenchmarkDatabase.sample(ROWS + created++));
+        }
+        dao.addContracts(pending); // Kiosztja az azonosítókat
+        next = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkDatabase.delete();
+    }
+
+    @Benchmark
+    public boolean deleteContract() {
+        return dao.deleteContract(pending.get(next++).getId());
+    }
+}
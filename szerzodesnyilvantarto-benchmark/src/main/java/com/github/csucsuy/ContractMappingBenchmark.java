@@ -0,0 +1,70 @@
+package com.github.csucsuy;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * A ResultSet sor -&gt; Contract leképezés (ContractDAO.mapContract) soronkénti költsége.
+ * A scanOnly a puszta lépkedés a sorokon (alapvonal); a kettő különbsége a leképezés ára.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContractMappingBenchmark {
+
+    private static final int ROWS = 10000;
+    private static final String SQL = "SELECT * FROM contracts";
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkDatabase.create();
+        BenchmarkDatabase.fill(ROWS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkDatabase.delete();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void scanOnly(Blackhole bh) throws SQLException {
+        try (PooledConnection conn = DatabaseManager.reader();
+             ResultSet rs = conn.prepare(SQL).executeQuery()) {
+            while (rs.next()) {
+                bh.consume(rs.getInt(1));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void scanAndMap(Blackhole bh) throws SQLException {
+        try (PooledConnection conn = DatabaseManager.reader();
+             ResultSet rs = conn.prepare(SQL).executeQuery()) {
+            while (rs.next()) {
+                bh.consume(ContractDAO.mapContract(conn, rs));
+            }
+        }
+    }
+}
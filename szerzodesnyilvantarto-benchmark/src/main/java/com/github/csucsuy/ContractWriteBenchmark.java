@@ -0,0 +1,60 @@
+package com.github.csucsuy;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Egyedi mentés és módosítás (ContractDAO.addContract, updateContract)
+ * egy előre feltöltött, 10 000 soros táblán. Minden hívás külön tranzakció.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContractWriteBenchmark {
+
+    private static final int ROWS = 10000;
+
+    private ContractDAO dao;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkDatabase.create();
+        BenchmarkDatabase.fill(ROWS);
+        dao = new ContractDAO();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkDatabase.delete();
+    }
+
+    @Benchmark
+    public Contract addContract() {
+        return dao.addContract(BenchmarkDatabase.sample(ROWS + next++));
+    }
+
+    @Benchmark
+    public Contract updateContract() {
+        // A kitöltött sorokat körbe-körbe módosítjuk, mindig más tartalommal
+        Contract contract = BenchmarkDatabase.sample(next++);
+        contract.setId(1 + next % ROWS);
+        return dao.updateContract(contract);
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.csucsuy;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A kimutatásokat a memóriabeli oszlopos pillanatképből (ContractColumns) számolja
+ * az SQL lekérdezések helyett. Minden kimutatás előtt a pillanatkép növekményesen
+ * frissül a változásfolyamból, így az eredmény ugyanaz, mint az SQL-es változaté;
+ * változás nélkül a frissítés egyetlen kis lekérdezés.
+ *
+ * Mivel ContractReportDAO leszármazott, a felület változtatás nélkül használhatja.
+ * Ha a pillanatkép nem tölthető be, vagy a kimutatás túl sok csoportot adna,
+ * az SQL-es megvalósításra vált.
+ */
+public class ColumnarReportDAO extends ContractReportDAO {
+
+    private ContractColumns columns; // Az utoljára betöltött pillanatkép
+
+    public ColumnarReportDAO() {
+        this(null);
+    }
+
+    /**
+     * @param pool Ebből a készletből olvas (a tesztekhez); null esetén a DatabaseManager-éből.
+     */
+    ColumnarReportDAO(ConnectionPool pool) {
+        super(pool);
+    }
+
+    /**
+     * A friss pillanatkép: az első híváskor teljes betöltés, utána csak a változások.
+     * Egyszerre csak egy frissítés fut; a visszaadott pillanatkép nem változik.
+     */
+    public synchronized ContractColumns snapshot() throws SQLException {
+        DaoMetrics.Sample sample = ContractDAO.startSample(columns == null ? "columnsLoad" : "columnsRefresh");
+        try (PooledConnection conn = sample.acquired(reader())) {
+            columns = columns == null ? ContractColumns.load(conn) : columns.refresh(conn);
+            sample.success(columns.size());
+            return columns;
+        } catch (SQLException e) {
+            sample.failure();
+            throw e;
+        }
+    }
+
+    @Override
+    public List<ContractSummary> summarize(Grouping grouping, LocalDate from, LocalDate to) {
+        try {
+            List<ContractSummary> result = snapshot().summarize(grouping, from, to);
+            if (result != null) {
+                return result;
+            }
+        } catch (SQLException e) {
+            System.err.println("Hiba az oszlopos pillanatkép frissítésekor: " + e.getMessage());
+        }
+        return super.summarize(grouping, from, to);
+    }
+
+    @Override
+    public List<ContractSummary> activeAt(LocalDate date, boolean byParty) {
+        try {
+            List<ContractSummary> result = snapshot().activeAt(date, byParty);
+            if (result != null) {
+                return result;
+            }
+        } catch (SQLException e) {
+            System.err.println("Hiba az oszlopos pillanatkép frissítésekor: " + e.getMessage());
+        }
+        return super.activeAt(date, byParty);
+    }
+}
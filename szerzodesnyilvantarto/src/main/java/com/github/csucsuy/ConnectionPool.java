@@ -0,0 +1,273 @@
+package com.github.csucsuy;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.sqlite.SQLiteConfig;
+
+/**
+ * Korlátos méretű kapcsolatkészlet az SQLite adatbázishoz.
+ * Egyetlen író kapcsolatot (az SQLite egyszerre csak egy írót enged)
+ * és több, csak olvasható kapcsolatot tart nyitva, így a DAO műveleteknek
+ * nem kell minden hívásnál újra megnyitniuk az adatbázis fájlt.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private static final long BORROW_TIMEOUT_SECONDS = 30;
+    private static final String JOURNAL_MODE = "journal_mode";
+
+    private final String url;
+    private final int maxReaders;
+    private final int statementCacheSize;
+    private final Map<String, String> pragmas;
+
+    // Szabad kapcsolatok (az író "készlet" mérete mindig 1)
+    private final BlockingQueue<PooledConnection> idleWriter = new ArrayBlockingQueue<>(1);
+    private final BlockingQueue<PooledConnection> idleReaders;
+    private final AtomicInteger createdWriters = new AtomicInteger();
+    private final AtomicInteger createdReaders = new AtomicInteger();
+    private final List<PooledConnection> allConnections = new ArrayList<>();
+    private final PartyDictionary parties = new PartyDictionary();
+    private volatile boolean closed;
+
+    // --- Metrikák ---
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+
+    /**
+     * @param url A JDBC URL (pl. jdbc:sqlite:szerzodesek.db).
+     * @param maxReaders Az olvasó kapcsolatok maximális száma.
+     * @param statementCacheSize Kapcsolatonként gyorsítótárazott statement-ek száma.
+     */
+    public ConnectionPool(String url, int maxReaders, int statementCacheSize) {
+        this(url, maxReaders, statementCacheSize, Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * @param url A JDBC URL (pl. jdbc:sqlite:szerzodesek.db).
+     * @param maxReaders Az olvasó kapcsolatok maximális száma.
+     * @param statementCacheSize Kapcsolatonként gyorsítótárazott statement-ek száma.
+     * @param pragmas Minden új kapcsolaton lefuttatandó PRAGMA-k (név, érték).
+     */
+    public ConnectionPool(String url, int maxReaders, int statementCacheSize, Map<String, String> pragmas) {
+        if (maxReaders < 1) {
+            throw new IllegalArgumentException("Legalább egy olvasó kapcsolat szükséges: " + maxReaders);
+        }
+        this.url = url;
+        this.maxReaders = maxReaders;
+        this.statementCacheSize = statementCacheSize;
+        this.pragmas = pragmas;
+        this.idleReaders = new ArrayBlockingQueue<>(maxReaders);
+    }
+
+    /**
+     * Kikölcsönzi az (egyetlen) író kapcsolatot. Ha épp használatban van, vár rá.
+     */
+    public PooledConnection borrowWriter() throws SQLException {
+        return borrow(idleWriter, createdWriters, 1, false);
+    }
+
+    /**
+     * Kikölcsönöz egy csak olvasható kapcsolatot.
+     */
+    public PooledConnection borrowReader() throws SQLException {
+        return borrow(idleReaders, createdReaders, maxReaders, true);
+    }
+
+    private PooledConnection borrow(BlockingQueue<PooledConnection> idle, AtomicInteger created,
+                                    int max, boolean readOnly) throws SQLException {
+        if (closed) {
+            throw new SQLException("A kapcsolatkészlet már le van zárva.");
+        }
+        long start = System.nanoTime();
+
+        PooledConnection pc = idle.poll();
+        if (pc == null) {
+            pc = tryCreate(created, max, readOnly);
+        }
+        if (pc == null) {
+            try {
+                pc = idle.poll(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Megszakítva kapcsolatra várakozás közben.", e);
+            }
+            if (pc == null) {
+                throw new SQLException("Nem sikerült kapcsolatot szerezni " + BORROW_TIMEOUT_SECONDS + " mp alatt.");
+            }
+        }
+
+        long waited = System.nanoTime() - start;
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        activeConnections.incrementAndGet();
+        return pc;
+    }
+
+    private PooledConnection tryCreate(AtomicInteger created, int max, boolean readOnly) throws SQLException {
+        int current;
+        do {
+            current = created.get();
+            if (current >= max) {
+                return null;
+            }
+        } while (!created.compareAndSet(current, current + 1));
+
+        try {
+            PooledConnection pc = new PooledConnection(this, open(readOnly), readOnly, statementCacheSize);
+            synchronized (allConnections) {
+                allConnections.add(pc);
+            }
+            return pc;
+        } catch (SQLException e) {
+            created.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private Connection open(boolean readOnly) throws SQLException {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(readOnly);
+        Connection conn = DriverManager.getConnection(url, config.toProperties());
+
+        try (Statement stmt = conn.createStatement()) {
+            for (Map.Entry<String, String> pragma : pragmas.entrySet()) {
+                // A naplózási mód az adatbázis fájlban tárolódik, azt csak az író állítja
+                if (readOnly && JOURNAL_MODE.equals(pragma.getKey())) {
+                    continue;
+                }
+                stmt.execute("PRAGMA " + pragma.getKey() + " = " + pragma.getValue());
+            }
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        return conn;
+    }
+
+    /**
+     * Visszaveszi a kapcsolatot. Egy félbehagyott tranzakciót visszagörget,
+     * hogy a következő kölcsönző tiszta állapotot kapjon.
+     */
+    void release(PooledConnection pc) {
+        activeConnections.decrementAndGet();
+        BlockingQueue<PooledConnection> idle = pc.isReadOnly() ? idleReaders : idleWriter;
+        AtomicInteger created = pc.isReadOnly() ? createdReaders : createdWriters;
+
+        if (!closed) {
+            try {
+                Connection conn = pc.getConnection();
+                if (!conn.getAutoCommit()) {
+                    conn.rollback();
+                    conn.setAutoCommit(true);
+                    pc.uncommittedParties().clear(); // A visszagörgetett felek nem kerülnek a szótárba
+                }
+                if (idle.offer(pc)) {
+                    return;
+                }
+            } catch (SQLException e) {
+                System.err.println("Hibás kapcsolat eldobva: " + e.getMessage());
+            }
+        }
+
+        // Lezárt készlet vagy hibás kapcsolat: fizikailag lezárjuk
+        synchronized (allConnections) {
+            allConnections.remove(pc);
+        }
+        created.decrementAndGet();
+        pc.closePhysically();
+    }
+
+    /**
+     * Lezárja az összes szabad kapcsolatot. A kint lévő kapcsolatok
+     * a visszaadásukkor záródnak le.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        List<PooledConnection> toClose = new ArrayList<>();
+        idleWriter.drainTo(toClose);
+        idleReaders.drainTo(toClose);
+        for (PooledConnection pc : toClose) {
+            synchronized (allConnections) {
+                allConnections.remove(pc);
+            }
+            (pc.isReadOnly() ? createdReaders : createdWriters).decrementAndGet();
+            pc.closePhysically();
+        }
+    }
+
+    // --- Metrikák ---
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    public long getTotalWaitNanos() {
+        return totalWaitNanos.get();
+    }
+
+    public long getMaxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    /**
+     * A jelenleg nyitott fizikai kapcsolatok száma (szabad + használatban lévő).
+     */
+    public int getOpenConnections() {
+        synchronized (allConnections) {
+            return allConnections.size();
+        }
+    }
+
+    /**
+     * Az adatbázis szerződő feleinek szótára (a készlet összes kapcsolatán közös).
+     */
+    public PartyDictionary getParties() {
+        return parties;
+    }
+
+    /**
+     * A nyitott kapcsolatokon eddig lefordított statement-ek száma. Bemelegedés után
+     * nem nő tovább, ha a DAO parancsai újrahasznosulnak.
+     */
+    public long getPreparedStatementCount() {
+        long total = 0;
+        synchronized (allConnections) {
+            for (PooledConnection pc : allConnections) {
+                total += pc.preparedStatementCount();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Olvasható összefoglaló a készlet metrikáiról.
+     */
+    public String metricsSummary() {
+        long borrows = getBorrowCount();
+        double avgWaitMicros = borrows == 0 ? 0 : getTotalWaitNanos() / 1000.0 / borrows;
+        return String.format("Kölcsönzések: %d, átlagos várakozás: %.1f µs, max várakozás: %.1f µs, "
+                + "aktív: %d, nyitott: %d (olvasó max: %d), lefordított statement-ek: %d",
+                borrows, avgWaitMicros, getMaxWaitNanos() / 1000.0,
+                getActiveConnections(), getOpenConnections(), maxReaders, getPreparedStatementCount());
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.csucsuy;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 
 // Adatmodell osztály egy szerződés reprezentálására.
@@ -9,18 +10,18 @@ public class Contract {
     private String szerzodesNeve; // Kötelező
     private LocalDate letrejotte; // Szerződés létrejöttének a dátuma
     private LocalDate vege; // Szerződés lejáratának a dátuma
-    private double osszeg; // Szerződés keretösszege
+    private long osszegFiller; // Szerződés keretösszege fillérben (1 Ft = 100 fillér), pontos egész
     private String szerzodoFel1; // **Kötelező** szerződő fél1
     private String szerzodoFel2; // **Kötelező** szerződő fél2
     private String dokumentumPath; // A fájl elérési útja
 
     public Contract(String szerzodesNeve, LocalDate letrejotte, LocalDate vege, 
-                    double osszeg, String szerzodoFel1, String szerzodoFel2, 
+                    BigDecimal osszeg, String szerzodoFel1, String szerzodoFel2, 
                     String dokumentumPath) {
         this.szerzodesNeve = szerzodesNeve;
         this.letrejotte = letrejotte;
         this.vege = vege;
-        this.osszeg = osszeg;
+        setOsszeg(osszeg);
         this.szerzodoFel1 = szerzodoFel1;
         this.szerzodoFel2 = szerzodoFel2;
         this.dokumentumPath = dokumentumPath;
@@ -63,12 +64,33 @@ public class Contract {
         this.vege = vege;
     }
 
-    public double getOsszeg() {
-        return osszeg;
+    /**
+     * A keretösszeg forintban, pontosan 2 tizedesjeggyel.
+     */
+    public BigDecimal getOsszeg() {
+        return BigDecimal.valueOf(osszegFiller, 2);
     }
 
-    public void setOsszeg(double osszeg) {
-        this.osszeg = osszeg;
+    /**
+     * A keretösszeg beállítása forintban.
+     * @param osszeg Legfeljebb 2 tizedesjegyű összeg (null = 0).
+     * @throws ArithmeticException ha 2-nél több tizedesjegyet tartalmaz,
+     *         vagy nem fér el 64 biten.
+     */
+    public void setOsszeg(BigDecimal osszeg) {
+        this.osszegFiller = (osszeg == null) ? 0 : osszeg.movePointRight(2).longValueExact();
+    }
+
+    /**
+     * A keretösszeg fillérben. Összegzéshez ezt érdemes használni:
+     * long-ként pontos és nem foglal objektumot.
+     */
+    public long getOsszegFiller() {
+        return osszegFiller;
+    }
+
+    public void setOsszegFiller(long osszegFiller) {
+        this.osszegFiller = osszegFiller;
     }
 
     public String getSzerzodoFel1() {
@@ -0,0 +1,242 @@
+package com.github.csucsuy;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Memóriabeli, ID szerinti gyorsítótár a ContractDAO előtt.
+ * A getContractById() először a gyorsítótárban keres (read-through),
+ * a módosító műveletek az adatbázis után a gyorsítótárat is frissítik
+ * (write-through). A listázó lekérdezések eredményei is bekerülnek, így a
+ * később ugyanarra az ID-ra irányuló kérések nem érik el az SQLite-ot.
+ * A mérete korlátos, a legrégebben használt elem esik ki először (LRU).
+ *
+ * Egy olvasás eredménye csak akkor kerül be, ha az olvasás kezdete óta nem volt
+ * írás (writeVersion): egy olvasó kapcsolaton még a módosítás előtt indult
+ * lekérdezés különben a frissebb, write-through bejegyzést írná felül a régi sorral.
+ *
+ * Mivel ContractDAO leszármazott, a felület változtatás nélkül használhatja.
+ * Szálbiztos: a háttérszálakról (SwingWorker) is hívható.
+ */
+public class ContractCache extends ContractDAO {
+
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    private final int capacity;
+    private final ContractDAO dao; // A tényleges műveleteket végző DAO
+    private final Map<Integer, Contract> entries;
+    private long writeVersion; // Az eddigi írások száma; az entries zárja védi
+
+    // --- Metrikák ---
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ContractCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity A gyorsítótárban tartott szerződések maximális száma.
+     */
+    public ContractCache(final int capacity) {
+        this(capacity, new ContractDAO());
+    }
+
+    /**
+     * @param capacity A gyorsítótárban tartott szerződések maximális száma.
+     * @param dao Az adatbázis műveleteket végző DAO (a tesztekhez cserélhető).
+     */
+    ContractCache(final int capacity, ContractDAO dao) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("A gyorsítótár mérete legalább 1 kell legyen: " + capacity);
+        }
+        this.capacity = capacity;
+        this.dao = dao;
+        // Hozzáférési sorrendű LinkedHashMap: a legrégebben használt elem esik ki
+        this.entries = new LinkedHashMap<Integer, Contract>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Contract> eldest) {
+                if (size() > capacity) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // --- Olvasás ---
+
+    @Override
+    public Contract getContractById(int id) {
+        long version;
+        synchronized (entries) {
+            Contract cached = entries.get(id);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+            version = writeVersion;
+        }
+        misses.incrementAndGet();
+        Contract loaded = dao.getContractById(id);
+        if (loaded != null) {
+            putAll(version, Collections.singletonList(loaded));
+        }
+        return loaded;
+    }
+
+    @Override
+    public List<Contract> getContractsPage(String afterName, int afterId, int limit) {
+        long version = readStarted();
+        return putAll(version, dao.getContractsPage(afterName, afterId, limit));
+    }
+
+    @Override
+    public List<Contract> search(String query, int limit) {
+        long version = readStarted();
+        return putAll(version, dao.search(query, limit));
+    }
+
+    @Override
+    public List<Contract> findExpiringBetween(LocalDate from, LocalDate to) {
+        long version = readStarted();
+        return putAll(version, dao.findExpiringBetween(from, to));
+    }
+
+    // A getAllContracts() és a kötegelt mentés szándékosan nem kerül a
+    // gyorsítótárba: az egész táblát végigfuttatná rajta, kiszorítva a hasznos elemeket.
+
+    @Override
+    public List<Contract> getAllContracts() {
+        return dao.getAllContracts();
+    }
+
+    @Override
+    public long forEachContract(Consumer<Contract> action) {
+        return dao.forEachContract(action);
+    }
+
+    @Override
+    public List<Contract> findByParty(String nev) {
+        return dao.findByParty(nev);
+    }
+
+    // --- Írás (write-through) ---
+
+    @Override
+    public Contract addContract(Contract contract) {
+        long version = readStarted();
+        Contract saved = dao.addContract(contract);
+        if (saved != null) {
+            written(saved.getId(), saved, version);
+        }
+        return saved;
+    }
+
+    @Override
+    public long addContracts(Iterable<Contract> contracts, int batchSize, ProgressListener listener) {
+        return dao.addContracts(contracts, batchSize, listener); // Csak új azonosítók, nincs mit frissíteni
+    }
+
+    @Override
+    public Contract updateContract(Contract contract) {
+        long version = readStarted();
+        Contract saved = dao.updateContract(contract);
+        // Sikertelen frissítésnél nem tudjuk, mi van az adatbázisban
+        written(contract.getId(), saved, version);
+        return saved;
+    }
+
+    @Override
+    public boolean deleteContract(int id) {
+        boolean deleted = dao.deleteContract(id);
+        invalidate(id);
+        return deleted;
+    }
+
+    // --- Gyorsítótár kezelés ---
+
+    /**
+     * Eltávolít egy elemet (pl. ha az adatbázist más is módosította).
+     * Írásnak számít: a már futó olvasások eredménye nem kerül be.
+     */
+    public void invalidate(int id) {
+        written(id, null, -1);
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    // Egy írás után: a bejegyzés a mentett példány lesz, és a közben futó olvasások
+    // eredményét eldobjuk. Ha az írás kezdete (version) óta más írás is befejeződött,
+    // a kettő sorrendje nem ismert, ezért ilyenkor (és null esetén) a bejegyzés kikerül.
+    private void written(int id, Contract saved, long version) {
+        synchronized (entries) {
+            boolean ordered = version == writeVersion++;
+            if (saved != null && ordered) {
+                entries.put(id, saved);
+            } else {
+                entries.remove(id);
+            }
+        }
+    }
+
+    private long readStarted() {
+        synchronized (entries) {
+            return writeVersion;
+        }
+    }
+
+    // Az olvasás eredménye csak akkor kerül be, ha a kezdete óta nem volt írás
+    private List<Contract> putAll(long version, List<Contract> contracts) {
+        synchronized (entries) {
+            if (version == writeVersion) {
+                for (Contract contract : contracts) {
+                    entries.put(contract.getId(), contract);
+                }
+            }
+        }
+        return contracts;
+    }
+
+    // --- Metrikák ---
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Olvasható összefoglaló a gyorsítótár metrikáiról.
+     */
+    public String metricsSummary() {
+        long h = getHits();
+        long m = getMisses();
+        double hitRatio = (h + m == 0) ? 0 : 100.0 * h / (h + m);
+        return String.format("Gyorsítótár: %d/%d elem, találat: %d, hiány: %d (%.1f%% találati arány), "
+                + "kiszorítva: %d", size(), capacity, h, m, hitRatio, getEvictions());
+    }
+}
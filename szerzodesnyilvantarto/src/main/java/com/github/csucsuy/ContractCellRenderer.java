@@ -0,0 +1,42 @@
+package com.github.csucsuy;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * A szerződés lista cellái: a hiányzó dokumentumú szerződések pirossal,
+ * dőlten és "(!)" jellel jelennek meg.
+ *
+ * Rajzoláskor csak a DocumentScanner memóriabeli állapotát kérdezi le,
+ * fájlrendszer hívás nincs benne (az Event Dispatch Thread-en fut).
+ */
+public class ContractCellRenderer extends DefaultListCellRenderer {
+
+    private static final Color MISSING_COLOR = new Color(180, 0, 0);
+
+    private final DocumentScanner scanner;
+
+    public ContractCellRenderer(DocumentScanner scanner) {
+        this.scanner = scanner;
+    }
+
+    @Override
+    public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                  boolean isSelected, boolean cellHasFocus) {
+        super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+        setToolTipText(null);
+
+        if (value instanceof Contract) {
+            Contract contract = (Contract) value;
+            if (scanner.isKnownMissing(contract.getDokumentumPath())) {
+                setText("(!) " + contract);
+                setFont(getFont().deriveFont(Font.ITALIC));
+                if (!isSelected) {
+                    setForeground(MISSING_COLOR);
+                }
+                setToolTipText("A dokumentum nem található: " + contract.getDokumentumPath());
+            }
+        }
+        return this;
+    }
+}
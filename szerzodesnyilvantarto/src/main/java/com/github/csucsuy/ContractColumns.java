@@ -0,0 +1,524 @@
+package com.github.csucsuy;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Csak olvasható, oszlopos memóriabeli pillanatkép a szerződésekről a kimutatásokhoz.
+ *
+ * A List&lt;Contract&gt; objektumgráf helyett oszloponként egy-egy primitív tömb:
+ * azonosító, összeg fillérben, létrejötte és vége epoch napként, valamint az
+ * első szerződő fél azonosítója (a nevek a felek szótárában, egyszer).
+ * Ez soronként 24 bájt, objektumfejléc, mutató és LocalDate nélkül.
+ * Az összesítés egyszerű ciklus a tömbökön (a JIT vektorizálni tudja), a sorokat
+ * tartományokra bontva fork-join párhuzamosan dolgozzuk fel, majd a részeredményeket
+ * összefésüljük.
+ *
+ * A pillanatkép változtathatatlan: a refresh() új példányt ad vissza, amely a régi
+ * tömbökből és a contract_changes szerinti változásokból áll össze (lásd
+ * DatabaseManager.createChangeFeed), így egy futó számítás alatt semmi sem változik.
+ */
+public final class ContractColumns {
+
+    // Hiányzó létrejötte: minden szűrő alsó határánál kisebb, így csak a szűretlen összesítésbe kerül
+    static final int NO_DATE = Integer.MIN_VALUE;
+    // Hiányzó lejárat (határozatlan idő): minden napon hatályos
+    static final int NO_END = Integer.MAX_VALUE;
+    // Ennél több csoportot nem számolunk sűrű tömbökkel; a hívó SQL-re vált (lásd summarize)
+    static final int MAX_GROUPS = 1 << 20;
+    // Legfeljebb ekkora nap -> időszak táblát készítünk (kb. 2800 év), efölött soronként számolunk
+    private static final int MAX_DAY_TABLE = 1 << 20;
+    // Egy fork-join részfeladat legalább ennyi sort dolgoz fel
+    private static final int MIN_CHUNK = 1 << 15;
+
+    private static final int NO_PERIOD = 0;
+    private static final int YEARLY = 1;
+    private static final int MONTHLY = 2;
+
+    private static final String CHANGE_RANGE_SQL =
+            "SELECT COALESCE(MIN(seq), 0), COALESCE(MAX(seq), 0) FROM contract_changes";
+    private static final String ALL_SQL =
+            "SELECT id, letrejotte, vege, osszeg_filler, szerzodo_fel_1_id FROM contracts ORDER BY id";
+    // A változott azonosítók a jelenlegi soraikkal; törölt szerződésnél a k oszlopai null-ok
+    private static final String CHANGED_SQL = "SELECT c.contract_id, k.letrejotte, k.vege, k.osszeg_filler, "
+            + "k.szerzodo_fel_1_id, k.id FROM (SELECT DISTINCT contract_id FROM contract_changes "
+            + "WHERE seq > ? AND seq <= ?) c LEFT JOIN contracts k ON k.id = c.contract_id ORDER BY c.contract_id";
+    private static final String PARTIES_SQL = "SELECT id, nev FROM parties WHERE id > ? ORDER BY id";
+
+    private final int[] ids; // Növekvő sorrendben
+    private final long[] osszeg;
+    private final int[] letrejotte;
+    private final int[] vege;
+    private final int[] party;
+    private final String[] partyNames; // Fél azonosító -> név
+    private final long changeSeq; // Az utolsó már beépített contract_changes sorszám
+    private final int minDay; // A létrejötte dátumok tartománya (NO_DATE nélkül)
+    private final int maxDay;
+
+    private ContractColumns(Builder rows, String[] partyNames, long changeSeq) {
+        int size = rows.size;
+        this.ids = Arrays.copyOf(rows.ids, size);
+        this.osszeg = Arrays.copyOf(rows.osszeg, size);
+        this.letrejotte = Arrays.copyOf(rows.letrejotte, size);
+        this.vege = Arrays.copyOf(rows.vege, size);
+        this.party = Arrays.copyOf(rows.party, size);
+        this.partyNames = partyNames;
+        this.changeSeq = changeSeq;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int day : letrejotte) {
+            if (day != NO_DATE) {
+                min = Math.min(min, day);
+                max = Math.max(max, day);
+            }
+        }
+        this.minDay = min;
+        this.maxDay = max;
+    }
+
+    /**
+     * Teljes betöltés egyetlen olvasó tranzakcióban, így a sorok és a változásfolyam
+     * sorszáma ugyanahhoz az adatbázis állapothoz tartozik.
+     */
+    public static ContractColumns load(PooledConnection conn) throws SQLException {
+        Connection connection = conn.getConnection();
+        connection.setAutoCommit(false);
+        try {
+            return loadAll(conn, changeRange(conn)[1]);
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Az azóta történt változásokkal frissített pillanatkép. Csak a változott
+     * szerződéseket olvassuk be; a többi sor a régi tömbökből másolódik.
+     * Ha a változásfolyam eleje már törlődött (túl régi a pillanatkép), teljes újratöltés.
+     * @return Az új pillanatkép, vagy ez a példány, ha nem volt változás.
+     */
+    public ContractColumns refresh(PooledConnection conn) throws SQLException {
+        Connection connection = conn.getConnection();
+        connection.setAutoCommit(false);
+        try {
+            long[] range = changeRange(conn);
+            long last = range[1];
+            if (last == changeSeq) {
+                return this;
+            }
+            if (last < changeSeq || range[0] > changeSeq + 1) {
+                return loadAll(conn, last); // Kimaradt változások, vagy újraépített adatbázis
+            }
+
+            Builder rows = new Builder(ids.length + 64);
+            int next = 0; // Az első még át nem másolt régi sor
+            PreparedStatement changed = conn.prepare(CHANGED_SQL);
+            changed.setLong(1, changeSeq);
+            changed.setLong(2, last);
+            try (ResultSet rs = changed.executeQuery()) {
+                while (rs.next()) {
+                    int id = rs.getInt(1);
+                    int pos = Arrays.binarySearch(ids, next, ids.length, id);
+                    int end = pos >= 0 ? pos : -pos - 1;
+                    rows.addRange(this, next, end);
+                    next = pos >= 0 ? pos + 1 : end; // A régi változat kimarad
+                    rs.getInt(6);
+                    if (!rs.wasNull()) {
+                        rows.add(id, day(rs, 2, NO_DATE), day(rs, 3, NO_END), rs.getLong(4), rs.getInt(5));
+                    }
+                }
+            }
+            rows.addRange(this, next, ids.length);
+            return new ContractColumns(rows, loadParties(conn, partyNames), last);
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static ContractColumns loadAll(PooledConnection conn, long changeSeq) throws SQLException {
+        Builder rows = new Builder(1024);
+        try (ResultSet rs = conn.prepare(ALL_SQL).executeQuery()) {
+            while (rs.next()) {
+                rows.add(rs.getInt(1), day(rs, 2, NO_DATE), day(rs, 3, NO_END), rs.getLong(4), rs.getInt(5));
+            }
+        }
+        return new ContractColumns(rows, loadParties(conn, new String[0]), changeSeq);
+    }
+
+    // [legkisebb, legnagyobb] sorszám a változásfolyamban (üres folyamnál 0, 0)
+    private static long[] changeRange(PooledConnection conn) throws SQLException {
+        try (ResultSet rs = conn.prepare(CHANGE_RANGE_SQL).executeQuery()) {
+            rs.next();
+            return new long[] {rs.getLong(1), rs.getLong(2)};
+        }
+    }
+
+    // A felek nevei azonosító szerint; csak az eddig ismertnél nagyobb azonosítókat olvassuk
+    // (felet nem törlünk és nem nevezünk át, lásd PartyDictionary)
+    private static String[] loadParties(PooledConnection conn, String[] known) throws SQLException {
+        String[] names = known;
+        PreparedStatement pstmt = conn.prepare(PARTIES_SQL);
+        pstmt.setInt(1, known.length - 1);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                int id = rs.getInt(1);
+                if (id >= names.length) {
+                    names = Arrays.copyOf(names, Math.max(id + 1, names.length * 2));
+                }
+                names[id] = rs.getString(2);
+            }
+        }
+        int length = names.length;
+        while (length > 0 && names[length - 1] == null) {
+            length--;
+        }
+        return length == names.length ? names : Arrays.copyOf(names, length);
+    }
+
+    private static int day(ResultSet rs, int column, int missing) throws SQLException {
+        int day = rs.getInt(column);
+        return rs.wasNull() ? missing : day;
+    }
+
+    /**
+     * A szerződések száma a pillanatképben.
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Az utolsó beépített változás sorszáma (contract_changes.seq).
+     */
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    /**
+     * Ugyanaz, mint a ContractReportDAO.summarize(grouping, from, to), ugyanolyan
+     * sorrendben, de a memóriabeli oszlopokon.
+     * @return A csoportok, vagy null, ha túl sok csoport lenne (pl. évszázadokat
+     *         átfogó havi bontás); ilyenkor az SQL-es kimutatást kell használni.
+     */
+    public List<ContractSummary> summarize(ContractReportDAO.Grouping grouping, LocalDate from, LocalDate to) {
+        int period;
+        switch (grouping) {
+            case YEAR:
+            case PARTY_YEAR:
+                period = YEARLY;
+                break;
+            case MONTH:
+                period = MONTHLY;
+                break;
+            default:
+                period = NO_PERIOD;
+        }
+        int lo = from != null ? clampDay(from.toEpochDay()) : (to != null ? NO_DATE + 1 : NO_DATE);
+        int hi = to != null ? clampDay(to.toEpochDay()) : Integer.MAX_VALUE;
+        Query query = query(lo, hi, Integer.MIN_VALUE, grouping.isByParty(), period);
+        return query == null ? null : summaries(query, null);
+    }
+
+    /**
+     * Ugyanaz, mint a ContractReportDAO.activeAt(date, byParty), a memóriabeli oszlopokon.
+     */
+    public List<ContractSummary> activeAt(LocalDate date, boolean byParty) {
+        int day = clampDay(date.toEpochDay());
+        // Létrejötte megvan és legkésőbb aznap; a vége legalább aznap (NO_END mindig)
+        Query query = query(NO_DATE + 1, day, day, byParty, NO_PERIOD);
+        return query == null ? null : summaries(query, date.toString());
+    }
+
+    private Query query(int lo, int hi, int endMin, boolean byParty, int period) {
+        int minKey = 0;
+        long periods = 1; // A 0. időszak a létrejötte nélküli szerződéseké
+        int[] periodOfDay = null;
+        if (period != NO_PERIOD && minDay <= maxDay) {
+            minKey = periodKey(minDay, period);
+            periods += periodKey(maxDay, period) - minKey + 1;
+            // A naptári számítás napokra egyszer, nem soronként: a sorok csak kikeresik
+            if ((long) maxDay - minDay < MAX_DAY_TABLE) {
+                periodOfDay = new int[maxDay - minDay + 1];
+                for (int i = 0; i < periodOfDay.length; i++) {
+                    periodOfDay[i] = periodKey(minDay + i, period) - minKey + 1;
+                }
+            }
+        }
+        long groups = (byParty ? Math.max(1, partyNames.length) : 1) * periods;
+        if (groups > MAX_GROUPS) {
+            return null;
+        }
+        // Egy részfeladat csoportonként legalább 4 sort dolgoz fel, így a részeredmények
+        // tömbjei együtt sem nagyobbak soronként 8 bájtnál
+        int chunk = (int) Math.max(Math.max(MIN_CHUNK, groups * 4),
+                ids.length / (ForkJoinPool.getCommonPoolParallelism() * 4) + 1);
+        return new Query(lo, hi, endMin, byParty, period, minKey, periodOfDay, (int) periods, (int) groups, chunk);
+    }
+
+    private List<ContractSummary> summaries(Query query, String fixedPeriod) {
+        Groups totals = ForkJoinPool.commonPool().invoke(new GroupTask(query, 0, ids.length));
+        List<ContractSummary> result = new ArrayList<>();
+        if (!query.byParty && query.period == NO_PERIOD) {
+            // Mint az SQL aggregátum GROUP BY nélkül: üres halmazon is egy sor
+            result.add(totals.summary(0, null, fixedPeriod));
+            return result;
+        }
+
+        List<Integer> groups = new ArrayList<>();
+        for (int group = 0; group < query.groups; group++) {
+            if (totals.count[group] > 0) {
+                groups.add(group);
+            }
+        }
+        if (query.byParty) {
+            // Mint a withPartyNames(): név, azon belül időszak szerint
+            groups.sort(Comparator.comparing((Integer group) -> partyNames[group / query.periods])
+                    .thenComparing(Comparator.naturalOrder()));
+        }
+        for (int group : groups) {
+            String name = query.byParty ? partyNames[group / query.periods] : null;
+            int periodIndex = group % query.periods;
+            String label = fixedPeriod != null ? fixedPeriod
+                    : periodIndex == 0 ? null : periodLabel(query.minKey + periodIndex - 1, query.period);
+            result.add(totals.summary(group, name, label));
+        }
+        return result;
+    }
+
+    // Egy részfeladat: a [from, to) sorok összesítése a saját, sűrű csoporttömbjeibe
+    private void accumulate(Query query, int from, int to, Groups out) {
+        int[] created = letrejotte;
+        int[] ends = vege;
+        long[] amounts = osszeg;
+        if (query.groups == 1) {
+            // Egyetlen csoport: elágazás nélküli ciklus, amit a JIT vektorizálni tud
+            long count = 0;
+            long sum = 0;
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int i = from; i < to; i++) {
+                int day = created[i];
+                boolean match = day >= query.lo & day <= query.hi & ends[i] >= query.endMin;
+                long amount = amounts[i];
+                count += match ? 1 : 0;
+                sum += match ? amount : 0;
+                min = Math.min(min, match ? amount : Long.MAX_VALUE);
+                max = Math.max(max, match ? amount : Long.MIN_VALUE);
+            }
+            out.add(0, count, sum, min, max);
+            return;
+        }
+
+        int[] parties = party;
+        for (int i = from; i < to; i++) {
+            int day = created[i];
+            if (day < query.lo | day > query.hi | ends[i] < query.endMin) {
+                continue;
+            }
+            int group = query.byParty ? parties[i] * query.periods : 0;
+            if (query.period != NO_PERIOD && day != NO_DATE) {
+                group += query.periodOfDay != null ? query.periodOfDay[day - minDay]
+                        : periodKey(day, query.period) - query.minKey + 1;
+            }
+            long amount = amounts[i];
+            out.count[group]++;
+            out.sum[group] += amount;
+            out.min[group] = Math.min(out.min[group], amount);
+            out.max[group] = Math.max(out.max[group], amount);
+        }
+    }
+
+    private static int clampDay(long epochDay) {
+        return (int) Math.max(NO_DATE + 1, Math.min(NO_END - 1, epochDay));
+    }
+
+    /**
+     * Az epoch nap éve (YEARLY) vagy év * 12 + hónap - 1 értéke (MONTHLY).
+     * Egész aritmetika LocalDate nélkül (a polgári naptár szerint).
+     */
+    static int periodKey(int epochDay, int period) {
+        long z = epochDay + 719468L; // 0000-03-01 óta
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153; // 0 = március
+        long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (int) (period == YEARLY ? year : year * 12 + month - 1);
+    }
+
+    // Az SQLite strftime('%Y') és strftime('%Y-%m') alakja
+    private static String periodLabel(int key, int period) {
+        if (period == YEARLY) {
+            return String.format("%04d", key);
+        }
+        return String.format("%04d-%02d", Math.floorDiv(key, 12), Math.floorMod(key, 12) + 1);
+    }
+
+    /**
+     * Egy összesítés paraméterei. Egy sor akkor számít, ha lo &lt;= létrejötte &lt;= hi
+     * és vége &gt;= endMin; a csoport indexe fél * periods + időszak.
+     */
+    private static final class Query {
+        final int lo;
+        final int hi;
+        final int endMin;
+        final boolean byParty;
+        final int period;
+        final int minKey;
+        final int[] periodOfDay; // (létrejötte - minDay) -> időszak index, vagy null
+        final int periods;
+        final int groups;
+        final int chunk;
+
+        Query(int lo, int hi, int endMin, boolean byParty, int period, int minKey, int[] periodOfDay,
+              int periods, int groups, int chunk) {
+            this.lo = lo;
+            this.hi = hi;
+            this.endMin = endMin;
+            this.byParty = byParty;
+            this.period = period;
+            this.minKey = minKey;
+            this.periodOfDay = periodOfDay;
+            this.periods = periods;
+            this.groups = groups;
+            this.chunk = chunk;
+        }
+    }
+
+    /**
+     * Csoportonkénti darab, összeg, minimum és maximum, sűrű tömbökben.
+     */
+    private static final class Groups {
+        final long[] count;
+        final long[] sum;
+        final long[] min;
+        final long[] max;
+
+        Groups(int groups) {
+            count = new long[groups];
+            sum = new long[groups];
+            min = new long[groups];
+            max = new long[groups];
+            Arrays.fill(min, Long.MAX_VALUE);
+            Arrays.fill(max, Long.MIN_VALUE);
+        }
+
+        void add(int group, long groupCount, long groupSum, long groupMin, long groupMax) {
+            count[group] += groupCount;
+            sum[group] += groupSum;
+            min[group] = Math.min(min[group], groupMin);
+            max[group] = Math.max(max[group], groupMax);
+        }
+
+        Groups merge(Groups other) {
+            for (int group = 0; group < count.length; group++) {
+                add(group, other.count[group], other.sum[group], other.min[group], other.max[group]);
+            }
+            return this;
+        }
+
+        // Üres csoportnál a min/max 0, mint az SQL COALESCE-e
+        ContractSummary summary(int group, String name, String period) {
+            boolean empty = count[group] == 0;
+            return new ContractSummary(name, period, count[group], sum[group],
+                    empty ? 0 : min[group], empty ? 0 : max[group]);
+        }
+    }
+
+    /**
+     * A sorok tartományát felezi, amíg egy darab a query.chunk méret alá nem csökken;
+     * a részeredmények összefésülése a csatlakozáskor történik.
+     */
+    private final class GroupTask extends RecursiveTask<Groups> {
+        private final Query query;
+        private final int from;
+        private final int to;
+
+        GroupTask(Query query, int from, int to) {
+            this.query = query;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Groups compute() {
+            if (to - from <= query.chunk) {
+                Groups groups = new Groups(query.groups);
+                accumulate(query, from, to, groups);
+                return groups;
+            }
+            int middle = (from + to) >>> 1;
+            GroupTask left = new GroupTask(query, from, middle);
+            left.fork();
+            Groups right = new GroupTask(query, middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Bővülő oszloptömbök a betöltéshez és a változások beépítéséhez.
+     */
+    private static final class Builder {
+        int size;
+        int[] ids;
+        long[] osszeg;
+        int[] letrejotte;
+        int[] vege;
+        int[] party;
+
+        Builder(int capacity) {
+            ids = new int[capacity];
+            osszeg = new long[capacity];
+            letrejotte = new int[capacity];
+            vege = new int[capacity];
+            party = new int[capacity];
+        }
+
+        void add(int id, int created, int end, long amount, int partyId) {
+            ensureCapacity(size + 1);
+            ids[size] = id;
+            osszeg[size] = amount;
+            letrejotte[size] = created;
+            vege[size] = end;
+            party[size] = partyId;
+            size++;
+        }
+
+        // A régi pillanatkép [from, to) sorai változatlanul
+        void addRange(ContractColumns source, int from, int to) {
+            int length = to - from;
+            if (length <= 0) {
+                return;
+            }
+            ensureCapacity(size + length);
+            System.arraycopy(source.ids, from, ids, size, length);
+            System.arraycopy(source.osszeg, from, osszeg, size, length);
+            System.arraycopy(source.letrejotte, from, letrejotte, size, length);
+            System.arraycopy(source.vege, from, vege, size, length);
+            System.arraycopy(source.party, from, party, size, length);
+            size += length;
+        }
+
+        private void ensureCapacity(int needed) {
+            if (needed <= ids.length) {
+                return;
+            }
+            int capacity = Math.max(needed, ids.length + (ids.length >> 1));
+            ids = Arrays.copyOf(ids, capacity);
+            osszeg = Arrays.copyOf(osszeg, capacity);
+            letrejotte = Arrays.copyOf(letrejotte, capacity);
+            vege = Arrays.copyOf(vege, capacity);
+            party = Arrays.copyOf(party, capacity);
+        }
+    }
+}
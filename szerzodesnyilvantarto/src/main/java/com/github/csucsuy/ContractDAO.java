@@ -1,13 +1,13 @@
 package com.github.csucsuy;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * DAO (Data Access Object) osztály a Contract objektumok
@@ -16,91 +16,264 @@ import java.util.List;
  */
 public class ContractDAO {
 
+    // A kötegelt importálás alapértelmezett tranzakció mérete (sor)
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    // Soronkénti feldolgozásnál egyszerre ennyi sort kérünk a drivertől
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    /**
+     * Visszajelzés a kötegelt importálás előrehaladásáról.
+     */
+    public interface ProgressListener {
+        /**
+         * @param rowsWritten Az eddig véglegesített (commit) sorok száma.
+         * @param rowsPerSecond Az átlagos sebesség az importálás kezdete óta.
+         */
+        void progress(long rowsWritten, double rowsPerSecond);
+    }
+
     /**
      * Új szerződés hozzáadása az adatbázishoz.
      * @param contract A menteni kívánt Contract objektum.
+     * @return Ugyanaz az objektum a generált ID-val, vagy null, ha a mentés nem sikerült.
      */
-    public void addContract(Contract contract) {
-        // SQL parancs (INSERT)
-        String sql = "INSERT INTO contracts(szerzodes_neve, letrejotte, vege, osszeg, " +
-                       "szerzodo_fel_1, szerzodo_fel_2, dokumentum_path) " +
-                       "VALUES(?, ?, ?, ?, ?, ?, ?)";
-
-        // Try-with-resources (automatikusan lezárja a kapcsolatot és a statement-et)
-        try (Connection conn = DatabaseManager.connect();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            // Paraméterek beállítása
-            pstmt.setString(1, contract.getSzerzodesNeve());
-            
-            // Dátumkezelés (lehet null)
-            if (contract.getLetrejotte() != null) {
-                pstmt.setString(2, contract.getLetrejotte().toString());
-            } else {
-                pstmt.setNull(2, java.sql.Types.DATE);
+    public Contract addContract(Contract contract) {
+        DaoMetrics.Sample sample = startSample("addContract");
+        // Try-with-resources (automatikusan visszaadja a kapcsolatot a készletbe;
+        // a statement-et a kapcsolat gyorsítótárazza, azt nem zárjuk le)
+        try (PooledConnection conn = sample.acquired(DatabaseManager.writer())) {
+            // Az új fél és a szerződés egy tranzakcióban: hiba esetén a kapcsolatkészlet
+            // mindkettőt visszagörgeti, nem marad hivatkozatlan fél
+            conn.getConnection().setAutoCommit(false);
+            Object[] params = contractParams(conn, contract);
+            sample.statement(ContractSql.INSERT.sql(), params);
+            insert(conn, contract, params);
+            commit(conn);
+            sample.success(1);
+            System.out.println("Szerződés sikeresen mentve: " + contract.getSzerzodesNeve());
+            return contract;
+
+        } catch (SQLException e) {
+            sample.failure();
+            System.err.println("Hiba a szerződés mentésekor: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Több szerződés kötegelt mentése alapértelmezett tranzakció mérettel.
+     * @see #addContracts(Iterable, int, ProgressListener)
+     */
+    public long addContracts(Iterable<Contract> contracts) {
+        return addContracts(contracts, DEFAULT_BATCH_SIZE, null);
+    }
+
+    /**
+     * Több szerződés kötegelt mentése. A sorokat PreparedStatement.addBatch()
+     * segítségével gyűjti, és batchSize soronként egy tranzakcióban véglegesíti,
+     * így nem kell minden sor után fsync-elni. Az iterálás folyamatos,
+     * a bemenetet nem kell előre a memóriába tölteni.
+     * A generált azonosítókat visszaírja a Contract objektumokba.
+     * @param contracts A mentendő szerződések.
+     * @param batchSize Hány sor kerüljön egy tranzakcióba.
+     * @param listener Előrehaladás visszajelzése minden commit után (lehet null).
+     * @return A sikeresen véglegesített sorok száma.
+     */
+    public long addContracts(Iterable<Contract> contracts, int batchSize, ProgressListener listener) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("A köteg mérete legalább 1 kell legyen: " + batchSize);
+        }
+        long written = 0;
+        long start = System.nanoTime();
+        DaoMetrics.Sample sample = startSample("addContracts");
+
+        try (PooledConnection conn = sample.acquired(DatabaseManager.writer())) {
+            conn.getConnection().setAutoCommit(false);
+            PreparedStatement pstmt = conn.prepare(ContractSql.INSERT);
+            sample.statement(ContractSql.INSERT.sql());
+            List<Contract> chunk = new ArrayList<>(batchSize);
+
+            for (Contract contract : contracts) {
+                bindContract(pstmt, contractParams(conn, contract));
+                pstmt.addBatch();
+                chunk.add(contract);
+
+                if (chunk.size() >= batchSize) {
+                    written += flushBatch(conn, pstmt, chunk);
+                    reportProgress(listener, written, start);
+                }
             }
-            
-            if (contract.getVege() != null) {
-                pstmt.setString(3, contract.getVege().toString());
-            } else {
-                pstmt.setNull(3, java.sql.Types.DATE);
+            if (!chunk.isEmpty()) {
+                written += flushBatch(conn, pstmt, chunk);
+                reportProgress(listener, written, start);
             }
+            conn.getConnection().setAutoCommit(true);
+            sample.success(written);
+            System.out.println("Kötegelt mentés kész: " + written + " szerződés.");
 
-            pstmt.setDouble(4, contract.getOsszeg());
-            pstmt.setString(5, contract.getSzerzodoFel1());
-            pstmt.setString(6, contract.getSzerzodoFel2());
-            pstmt.setString(7, contract.getDokumentumPath());
+        } catch (SQLException e) {
+            sample.failure();
+            // A félbehagyott köteget a kapcsolatkészlet visszagörgeti
+            System.err.println("Hiba a kötegelt mentés során (" + written + " sor már mentve): "
+                    + e.getMessage());
+        }
+        return written;
+    }
 
-            // SQL parancs futtatása
-            pstmt.executeUpdate();
-            System.out.println("Szerződés sikeresen mentve: " + contract.getSzerzodesNeve());
+    /**
+     * Lefuttatja az összegyűjtött köteget, kiosztja a generált azonosítókat
+     * és véglegesíti a tranzakciót.
+     */
+    private int flushBatch(PooledConnection conn, PreparedStatement pstmt, List<Contract> chunk)
+            throws SQLException {
+        pstmt.executeBatch();
 
-        } catch (SQLException e) {
-            System.err.println("Hiba a szerződés mentésekor: " + e.getMessage());
+        // Az író kapcsolat kizárólagos, így a köteg azonosítói folytonosak,
+        // az utolsó beszúrt azonosítóból visszafelé számolhatók.
+        long lastId = lastInsertId(conn);
+        conn.getConnection().commit();
+        conn.parties().committed(conn); // A kötegben létrehozott felek a szótárba
+
+        int size = chunk.size();
+        for (int i = 0; i < size; i++) {
+            chunk.get(i).setId((int) (lastId - size + 1 + i));
+        }
+        chunk.clear();
+        return size;
+    }
+
+    /**
+     * Véglegesíti a kapcsolat tranzakcióját, és visszaáll autoCommit módra.
+     */
+    private static void commit(PooledConnection conn) throws SQLException {
+        conn.getConnection().commit();
+        conn.getConnection().setAutoCommit(true);
+        conn.parties().committed(conn); // A tranzakcióban létrehozott felek a szótárba
+    }
+
+    /**
+     * Az adott kapcsolaton utoljára beszúrt sor azonosítója.
+     */
+    private static long lastInsertId(PooledConnection conn) throws SQLException {
+        try (ResultSet rs = conn.prepare(ContractSql.LAST_INSERT_ID).executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    // --- Írás egy már kikölcsönzött író kapcsolaton (a hívó kezeli a tranzakciót) ---
+
+    /**
+     * Beszúr egy szerződést, és beállítja a generált azonosítóját.
+     */
+    static Contract insert(PooledConnection conn, Contract contract) throws SQLException {
+        return insert(conn, contract, contractParams(conn, contract));
+    }
+
+    /**
+     * @param params A contractParams() által feloldott értékek.
+     */
+    private static Contract insert(PooledConnection conn, Contract contract, Object[] params) throws SQLException {
+        PreparedStatement pstmt = conn.prepare(ContractSql.INSERT);
+        bindContract(pstmt, params);
+        pstmt.executeUpdate();
+        contract.setId((int) lastInsertId(conn));
+        return contract;
+    }
+
+    /**
+     * @return A módosított sorok száma (0, ha nincs ilyen ID).
+     */
+    static int update(PooledConnection conn, Contract contract) throws SQLException {
+        return update(conn, contract, contractParams(conn, contract));
+    }
+
+    /**
+     * @param params A contractParams() által feloldott értékek.
+     */
+    private static int update(PooledConnection conn, Contract contract, Object[] params) throws SQLException {
+        PreparedStatement pstmt = conn.prepare(ContractSql.UPDATE);
+        bindContract(pstmt, params);
+        pstmt.setInt(8, contract.getId()); // A WHERE feltétel paramétere (az ID)
+        return pstmt.executeUpdate();
+    }
+
+    /**
+     * @return A törölt sorok száma (0, ha nincs ilyen ID).
+     */
+    static int delete(PooledConnection conn, int id) throws SQLException {
+        PreparedStatement pstmt = conn.prepare(ContractSql.DELETE);
+        pstmt.setInt(1, id);
+        return pstmt.executeUpdate();
+    }
+
+    /**
+     * Egy DAO hívás mérésének kezdete (lásd DaoMetrics).
+     */
+    static DaoMetrics.Sample startSample(String operation) {
+        return DatabaseManager.getMetrics().start(operation);
+    }
+
+    private static void reportProgress(ProgressListener listener, long written, long startNanos) {
+        if (listener != null) {
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            listener.progress(written, seconds > 0 ? written / seconds : 0);
+        }
+    }
+
+    /**
+     * A Contract mezői az INSERT/UPDATE parancs első 7 paramétereként, ahogy kötjük
+     * őket. Ugyanez kerül a lassú lekérdezés naplóba is (és az EXPLAIN-be).
+     * A felek azonosítóját oldja fel: egy még nem létező fél itt, a hívó
+     * tranzakciójában jön létre, ezért író kapcsolaton kell hívni.
+     */
+    private static Object[] contractParams(PooledConnection conn, Contract contract) throws SQLException {
+        return new Object[] {
+            contract.getSzerzodesNeve(),
+            // Dátumok (lehet null): epoch napként (1970-01-01 óta eltelt napok)
+            contract.getLetrejotte() != null ? contract.getLetrejotte().toEpochDay() : null,
+            contract.getVege() != null ? contract.getVege().toEpochDay() : null,
+            contract.getOsszegFiller(), // Fillérben, pontos egészként
+            conn.parties().idOf(conn, contract.getSzerzodoFel1()),
+            conn.parties().idOf(conn, contract.getSzerzodoFel2()),
+            contract.getDokumentumPath()
+        };
+    }
+
+    /**
+     * A contractParams() értékeinek kötése (null esetén NULL).
+     */
+    private static void bindContract(PreparedStatement pstmt, Object[] params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            pstmt.setObject(i + 1, params[i]);
         }
     }
 
     /**
      * Az összes szerződés lekérdezése az adatbázisból.
+     * Nagy adatbázisnál a getContractsPage() lapozós lekérdezést érdemes használni.
      * @return Contract objektumok listája.
      */
     public List<Contract> getAllContracts() {
         List<Contract> contracts = new ArrayList<>();
-        String sql = "SELECT * FROM contracts ORDER BY szerzodes_neve";
+        ContractSql sql = ContractSql.ALL_BY_NAME;
+        DaoMetrics.Sample sample = startSample("getAllContracts");
 
-        try (Connection conn = DatabaseManager.connect();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        sample.statement(sql.sql());
+
+        try (PooledConnection conn = sample.acquired(DatabaseManager.reader());
+             ResultSet rs = conn.prepare(sql).executeQuery()) {
 
             // Végigmegyünk az eredményeken
             while (rs.next()) {
-                Contract contract = new Contract();
-                
-                // Adatok kiolvasása a ResultSet-ből és beállítása a Contract objektumon
-                contract.setId(rs.getInt("id"));
-                contract.setSzerzodesNeve(rs.getString("szerzodes_neve"));
-                
-                // A dátumokat String-ként olvassuk ki és LocalDate-é alakítjuk
-                String letrejotteStr = rs.getString("letrejotte");
-                if (letrejotteStr != null) {
-                    contract.setLetrejotte(LocalDate.parse(letrejotteStr));
-                }
-                
-                String vegeStr = rs.getString("vege");
-                if (vegeStr != null) {
-                    contract.setVege(LocalDate.parse(vegeStr));
-                }
-                
-                contract.setOsszeg(rs.getDouble("osszeg"));
-                contract.setSzerzodoFel1(rs.getString("szerzodo_fel_1"));
-                contract.setSzerzodoFel2(rs.getString("szerzodo_fel_2"));
-                contract.setDokumentumPath(rs.getString("dokumentum_path"));
-
                 // Hozzáadás a listához
-                contracts.add(contract);
+                contracts.add(mapContract(conn, rs));
             }
+            sample.success(contracts.size());
 
         } catch (SQLException e) {
+            sample.failure();
             System.err.println("Hiba a szerződések lekérdezésekor: " + e.getMessage());
         }
 
@@ -108,79 +281,348 @@ public class ContractDAO {
     }
 
     /**
-     * Töröl egy szerződést az adatbázisból az azonosítója alapján.
-     * @param id A törlendő szerződés ID-ja.
+     * Az összes szerződés bejárása ID szerinti sorrendben, egyenként átadva a
+     * feldolgozónak. A sorok nem gyűlnek listába, így a memóriaigény a
+     * táblamérettől független (pl. exportáláshoz).
+     * A feldolgozó által dobott RuntimeException megszakítja a bejárást és továbbdobódik.
+     * @param action Minden szerződésre meghívódik.
+     * @return A feldolgozott sorok száma, vagy -1, ha adatbázis hiba történt.
      */
-    public void deleteContract(int id) {
-        String sql = "DELETE FROM contracts WHERE id = ?";
+    public long forEachContract(Consumer<Contract> action) {
+        ContractSql sql = ContractSql.ALL_BY_ID;
+        long rows = 0;
+        DaoMetrics.Sample sample = startSample("forEachContract");
+
+        try (PooledConnection conn = sample.acquired(DatabaseManager.reader())) {
+            PreparedStatement pstmt = conn.prepare(sql); // Alapértelmezés: TYPE_FORWARD_ONLY, CONCUR_READ_ONLY
+            pstmt.setFetchSize(STREAM_FETCH_SIZE);
+            sample.statement(sql.sql());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(mapContract(conn, rs));
+                    rows++;
+                }
+            }
+            sample.success(rows);
+        } catch (SQLException e) {
+            sample.failure();
+            System.err.println("Hiba a szerződések bejárásakor (" + rows + ". sor után): " + e.getMessage());
+            return -1;
+        }
+        return rows;
+    }
 
-        try (Connection conn = DatabaseManager.connect();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    /**
+     * Egy szerződés lekérdezése az azonosítója alapján.
+     * @param id A szerződés ID-ja.
+     * @return A szerződés, vagy null, ha nincs ilyen (vagy hiba történt).
+     */
+    public Contract getContractById(int id) {
+        ContractSql sql = ContractSql.BY_ID;
+        DaoMetrics.Sample sample = startSample("getContractById");
 
-            // Beállítjuk a törlési feltétel paraméterét (az ID-t)
+        try (PooledConnection conn = sample.acquired(DatabaseManager.reader())) {
+            PreparedStatement pstmt = conn.prepare(sql);
             pstmt.setInt(1, id);
-            
-            int affectedRows = pstmt.executeUpdate(); // Futtatjuk a törlést
-            
-            if (affectedRows > 0) {
-                System.out.println("Szerződés (ID: " + id + ") sikeresen törölve.");
-            } else {
-                System.out.println("A törlés nem sikerült, nem található szerződés ezzel az ID-val: " + id);
+            sample.statement(sql.sql(), id);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                Contract contract = rs.next() ? mapContract(conn, rs) : null;
+                sample.success(contract != null ? 1 : 0);
+                return contract;
             }
 
         } catch (SQLException e) {
-            System.err.println("Hiba a szerződés törlésekor: " + e.getMessage());
+            sample.failure();
+            System.err.println("Hiba a szerződés lekérdezésekor (ID: " + id + "): " + e.getMessage());
+            return null;
         }
     }
 
     /**
-     * Frissít egy meglévő szerződést az adatbázisban.
-     * Az azonosítás a contract objektumban lévő ID alapján történik.
-     * @param contract A módosított Contract objektum.
+     * A szerződések egy lapjának lekérdezése név szerinti sorrendben (keyset lapozás).
+     * A következő lap a megadott (név, id) pár UTÁN kezdődik, így az OFFSET-tel
+     * ellentétben a lekérdezés költsége nem nő a lapok számával; az
+     * idx_contracts_nev_id index miatt ez egy index tartomány olvasás.
+     * @param afterName Az előző lap utolsó elemének neve (null = első lap).
+     * @param afterId Az előző lap utolsó elemének ID-ja.
+     * @param limit A lap mérete.
+     * @return Legfeljebb limit darab szerződés.
      */
-    public void updateContract(Contract contract) {
-        String sql = "UPDATE contracts SET " +
-                    "szerzodes_neve = ?, " +
-                    "letrejotte = ?, " +
-                    "vege = ?, " +
-                    "osszeg = ?, " +
-                    "szerzodo_fel_1 = ?, " +
-                    "szerzodo_fel_2 = ?, " +
-                    "dokumentum_path = ? " +
-                    "WHERE id = ?"; // Frissítés ID alapján
-
-        try (Connection conn = DatabaseManager.connect();
-            PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            // Paraméterek beállítása
-            pstmt.setString(1, contract.getSzerzodesNeve());
-
-            if (contract.getLetrejotte() != null) {
-                pstmt.setString(2, contract.getLetrejotte().toString());
+    public List<Contract> getContractsPage(String afterName, int afterId, int limit) {
+        List<Contract> contracts = new ArrayList<>(limit);
+        ContractSql sql = afterName == null ? ContractSql.FIRST_PAGE : ContractSql.NEXT_PAGE;
+        DaoMetrics.Sample sample = startSample("getContractsPage");
+
+        try (PooledConnection conn = sample.acquired(DatabaseManager.reader())) {
+            PreparedStatement pstmt = conn.prepare(sql);
+            if (afterName == null) {
+                pstmt.setInt(1, limit);
+                sample.statement(sql.sql(), limit);
             } else {
-                pstmt.setNull(2, java.sql.Types.DATE);
+                pstmt.setString(1, afterName);
+                pstmt.setInt(2, afterId);
+                pstmt.setInt(3, limit);
+                sample.statement(sql.sql(), afterName, afterId, limit);
             }
 
-            if (contract.getVege() != null) {
-                pstmt.setString(3, contract.getVege().toString());
-            } else {
-                pstmt.setNull(3, java.sql.Types.DATE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    contracts.add(mapContract(conn, rs));
+                }
+            }
+            sample.success(contracts.size());
+
+        } catch (SQLException e) {
+            sample.failure();
+            System.err.println("Hiba a szerződések lapozásakor: " + e.getMessage());
+        }
+
+        return contracts;
+    }
+
+    /**
+     * Egy szerződő fél összes szerződése (akár első, akár második félként), név szerint rendezve.
+     * A fél neve egyszer oldódik fel azonosítóvá, utána a keresés a két fél
+     * index (idx_contracts_fel1_letrejotte_osszeg, idx_contracts_fel2) olvasása,
+     * nem szöveges összehasonlítás soronként.
+     * @param nev A fél pontos neve.
+     * @return A fél szerződései (üres lista, ha nincs ilyen fél).
+     */
+    public List<Contract> findByParty(String nev) {
+        List<Contract> contracts = new ArrayList<>();
+        ContractSql sql = ContractSql.BY_PARTY;
+        DaoMetrics.Sample sample = startSample("findByParty");
+
+        try (PooledConnection conn = sample.acquired(DatabaseManager.reader())) {
+            Integer partyId = conn.parties().find(conn, nev);
+            if (partyId == null) {
+                sample.success(0);
+                return contracts;
+            }
+            PreparedStatement pstmt = conn.prepare(sql);
+            pstmt.setInt(1, partyId);
+            pstmt.setInt(2, partyId);
+            sample.statement(sql.sql(), partyId, partyId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    contracts.add(mapContract(conn, rs));
+                }
+            }
+            sample.success(contracts.size());
+
+        } catch (SQLException e) {
+            sample.failure();
+            System.err.println("Hiba a szerződő fél szerződéseinek lekérdezésekor: " + e.getMessage());
+        }
+
+        return contracts;
+    }
+
+    /**
+     * Azok a szerződések, amelyek a megadott időszakban járnak le
+     * (a határnapokat is beleértve), lejárat szerint rendezve.
+     * Az idx_contracts_vege index miatt ez index tartomány olvasás,
+     * a költsége a találatok számától függ, nem a tábla méretétől.
+     * @param from Az időszak első napja.
+     * @param to Az időszak utolsó napja.
+     * @return A lejáró szerződések, a legkorábban lejáró elöl.
+     */
+    public List<Contract> findExpiringBetween(LocalDate from, LocalDate to) {
+        List<Contract> contracts = new ArrayList<>();
+        ContractSql sql = ContractSql.EXPIRING_BETWEEN;
+        DaoMetrics.Sample sample = startSample("findExpiringBetween");
+
+        try (PooledConnection conn = sample.acquired(DatabaseManager.reader())) {
+            PreparedStatement pstmt = conn.prepare(sql);
+            pstmt.setLong(1, from.toEpochDay());
+            pstmt.setLong(2, to.toEpochDay());
+            sample.statement(sql.sql(), from.toEpochDay(), to.toEpochDay());
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    contracts.add(mapContract(conn, rs));
+                }
             }
+            sample.success(contracts.size());
 
-            pstmt.setDouble(4, contract.getOsszeg());
-            pstmt.setString(5, contract.getSzerzodoFel1());
-            pstmt.setString(6, contract.getSzerzodoFel2());
-            pstmt.setString(7, contract.getDokumentumPath());
+        } catch (SQLException e) {
+            sample.failure();
+            System.err.println("Hiba a lejáró szerződések lekérdezésekor: " + e.getMessage());
+        }
+
+        return contracts;
+    }
+
+    /**
+     * Teljes szöveges keresés a szerződés nevében, a szerződő felekben és a
+     * dokumentum elérési útjában (FTS5 index). Minden beírt szó prefixként
+     * illeszkedik, és mindnek szerepelnie kell; a kis- és nagybetű,
+     * valamint az ékezetek nem számítanak.
+     * A találatok relevancia szerint rendezettek (a névbeli egyezés számít a legtöbbet).
+     * @param query A felhasználó által beírt keresőszöveg.
+     * @param limit A találatok maximális száma.
+     * @return A találatok, a legrelevánsabb elöl.
+     */
+    public List<Contract> search(String query, int limit) {
+        List<Contract> contracts = new ArrayList<>();
+        String match = toFtsQuery(query);
+        if (match.isEmpty()) {
+            return contracts;
+        }
+        ContractSql sql = ContractSql.SEARCH;
+        DaoMetrics.Sample sample = startSample("search");
 
-            // A WHERE feltétel paramétere (az ID)
-            pstmt.setInt(8, contract.getId());
+        try (PooledConnection conn = sample.acquired(DatabaseManager.reader())) {
+            PreparedStatement pstmt = conn.prepare(sql);
+            pstmt.setString(1, match);
+            pstmt.setInt(2, limit);
+            sample.statement(sql.sql(), match, limit);
 
-            // SQL parancs futtatása
-            pstmt.executeUpdate();
-            System.out.println("Szerződés sikeresen frissítve: " + contract.getSzerzodesNeve());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    contracts.add(mapContract(conn, rs));
+                }
+            }
+            sample.success(contracts.size());
 
         } catch (SQLException e) {
+            sample.failure();
+            System.err.println("Hiba a keresés során: " + e.getMessage());
+        }
+
+        return contracts;
+    }
+
+    /**
+     * A beírt szöveg átalakítása FTS5 lekérdezéssé: minden szó idézőjelek közé
+     * kerül (így az FTS operátorok, pl. AND, NEAR, * nem értelmeződnek),
+     * a végére pedig prefix jel. Pl. bérl kft -> "bérl"* "kft"*
+     */
+    static String toFtsQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String token : query.trim().split("\\s+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append('"').append(token.replace("\"", "\"\"")).append("\"*");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Egy ResultSet sor átalakítása Contract objektummá.
+     * A szerződő felek nevét a szótárból vesszük (közös példány), hiány esetén
+     * ugyanazon a kapcsolaton töltjük be.
+     * Csomag szintű, hogy a benchmark modul külön is mérhesse.
+     */
+    static Contract mapContract(PooledConnection conn, ResultSet rs) throws SQLException {
+        Contract contract = new Contract();
+
+        // Adatok kiolvasása a ResultSet-ből és beállítása a Contract objektumon
+        contract.setId(rs.getInt("id"));
+        contract.setSzerzodesNeve(rs.getString("szerzodes_neve"));
+
+        // A dátumok epoch napként tárolódnak: nincs String objektum és parse-olás
+        long letrejotte = rs.getLong("letrejotte");
+        if (!rs.wasNull()) {
+            contract.setLetrejotte(LocalDate.ofEpochDay(letrejotte));
+        }
+
+        long vege = rs.getLong("vege");
+        if (!rs.wasNull()) {
+            contract.setVege(LocalDate.ofEpochDay(vege));
+        }
+
+        contract.setOsszegFiller(rs.getLong("osszeg_filler"));
+        contract.setSzerzodoFel1(partyName(conn, rs, "szerzodo_fel_1_id"));
+        contract.setSzerzodoFel2(partyName(conn, rs, "szerzodo_fel_2_id"));
+        contract.setDokumentumPath(rs.getString("dokumentum_path"));
+        return contract;
+    }
+
+    private static String partyName(PooledConnection conn, ResultSet rs, String column) throws SQLException {
+        int partyId = rs.getInt(column);
+        if (rs.wasNull()) {
+            return null;
+        }
+        Party party = conn.parties().get(conn, partyId);
+        return party != null ? party.getNev() : null;
+    }
+
+    /**
+     * Töröl egy szerződést az adatbázisból az azonosítója alapján.
+     * @param id A törlendő szerződés ID-ja.
+     * @return true, ha a szerződés törölve lett.
+     */
+    public boolean deleteContract(int id) {
+        DaoMetrics.Sample sample = startSample("deleteContract");
+        int affectedRows;
+
+        try (PooledConnection conn = sample.acquired(DatabaseManager.writer())) {
+            sample.statement(ContractSql.DELETE.sql(), id);
+            affectedRows = delete(conn, id); // Futtatjuk a törlést
+            sample.success(affectedRows);
+        } catch (SQLException e) {
+            sample.failure();
+            System.err.println("Hiba a szerződés törlésekor: " + e.getMessage());
+            return false;
+        }
+
+        if (affectedRows == 0) {
+            System.out.println("A törlés nem sikerült, nem található szerződés ezzel az ID-val: " + id);
+            return false;
+        }
+        System.out.println("Szerződés (ID: " + id + ") sikeresen törölve.");
+        // A dokumentumtárból a már nem hivatkozott fájl törlése. Az író kapcsolatot
+        // előbb vissza kell adni, mert a takarítás is azt kéri el.
+        DatabaseManager.getDocumentStore().releaseUnreferenced();
+        return true;
+    }
+
+    /**
+     * Frissít egy meglévő szerződést az adatbázisban.
+     * Az azonosítás a contract objektumban lévő ID alapján történik.
+     * @param contract A módosított Contract objektum.
+     * @return Ugyanaz az objektum, vagy null, ha nem sikerült (vagy nincs ilyen ID).
+     */
+    public Contract updateContract(Contract contract) {
+        DaoMetrics.Sample sample = startSample("updateContract");
+        int affectedRows;
+
+        try (PooledConnection conn = sample.acquired(DatabaseManager.writer())) {
+            conn.getConnection().setAutoCommit(false); // Mint az addContract-nál
+            Object[] params = contractParams(conn, contract);
+            Object[] logged = Arrays.copyOf(params, 8);
+            logged[7] = contract.getId();
+            sample.statement(ContractSql.UPDATE.sql(), logged);
+
+            affectedRows = update(conn, contract, params);
+            if (affectedRows > 0) {
+                commit(conn);
+            } // Nincs ilyen szerződés: a közben létrehozott felet a kapcsolatkészlet visszagörgeti
+            sample.success(affectedRows);
+        } catch (SQLException e) {
+            sample.failure();
             System.err.println("Hiba a szerződés frissítésekor: " + e.getMessage());
+            return null;
+        }
+
+        if (affectedRows == 0) {
+            System.out.println("A frissítés nem sikerült, nem található szerződés ezzel az ID-val: "
+                    + contract.getId());
+            return null;
         }
+        System.out.println("Szerződés sikeresen frissítve: " + contract.getSzerzodesNeve());
+        // Ha a dokumentum cserélődött, a régi tárbeli fájl felszabadulhatott
+        DatabaseManager.getDocumentStore().releaseUnreferenced();
+        return contract;
     }
-}
\ No newline at end of file
+}
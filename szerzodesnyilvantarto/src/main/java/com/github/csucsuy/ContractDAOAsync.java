@@ -0,0 +1,148 @@
+package com.github.csucsuy;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Aszinkron felület a ContractDAO fölött: minden művelet CompletableFuture-t ad vissza.
+ *
+ * Az olvasások virtuális szálakon futnak (hívásonként egy), így tetszőleges
+ * számú lekérdezés indítható párhuzamosan szálkészlet méretezése nélkül;
+ * a valódi párhuzamosságot a kapcsolatkészlet olvasó kapcsolatainak száma
+ * (pool.readers) korlátozza, a többi virtuális szál a készletre várva parkol.
+ * Az írások egyetlen, sorosan dolgozó író szálon futnak, a beküldés sorrendjében,
+ * mert az SQLite-ban egyszerre csak egy író lehet. Az egyedi írásokat az író
+ * szál csoportosan véglegesíti (lásd GroupCommitWriter): a rövid időn belül
+ * érkezők egy tranzakcióba, egyetlen commit-ba kerülnek.
+ *
+ * A hibakezelés a ContractDAO-éval egyezik: adatbázis hiba esetén az eredmény
+ * null / false / üres lista, a future rendesen teljesül. Csak a futásidejű
+ * kivételek (pl. a feldolgozóból) teljesítik a future-t kivétellel.
+ */
+public class ContractDAOAsync implements AutoCloseable {
+
+    private final ContractDAO dao;
+    private final ExecutorService readExecutor;
+    private final GroupCommitWriter writer;
+
+    public ContractDAOAsync() {
+        this(new ContractDAO());
+    }
+
+    /**
+     * Az írások a DatabaseManager író kapcsolatán, a konfigurált
+     * csoportos véglegesítési beállításokkal futnak.
+     * @param dao A tényleges műveleteket végző DAO (pl. egy ContractCache).
+     */
+    public ContractDAOAsync(ContractDAO dao) {
+        this(dao, new GroupCommitWriter(DatabaseManager::writer, DatabaseManager.getDocumentStore(),
+                DatabaseManager.getConfig().getGroupCommitDelayMillis(),
+                DatabaseManager.getConfig().getGroupCommitMaxBatch()));
+    }
+
+    /**
+     * @param dao Az olvasásokat és a kötegelt mentést végző DAO.
+     * @param writer Az egyedi írásokat csoportosan véglegesítő író sor; a close() ezt is lezárja.
+     */
+    public ContractDAOAsync(ContractDAO dao, GroupCommitWriter writer) {
+        this.dao = dao;
+        this.readExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("dao-olvaso-", 0).factory());
+        this.writer = writer;
+    }
+
+    // --- Olvasás (virtuális szálakon) ---
+
+    public CompletableFuture<List<Contract>> getAllContracts() {
+        return read(dao::getAllContracts);
+    }
+
+    public CompletableFuture<Contract> getContractById(int id) {
+        return read(() -> dao.getContractById(id));
+    }
+
+    public CompletableFuture<List<Contract>> getContractsPage(String afterName, int afterId, int limit) {
+        return read(() -> dao.getContractsPage(afterName, afterId, limit));
+    }
+
+    public CompletableFuture<List<Contract>> findExpiringBetween(LocalDate from, LocalDate to) {
+        return read(() -> dao.findExpiringBetween(from, to));
+    }
+
+    public CompletableFuture<List<Contract>> search(String query, int limit) {
+        return read(() -> dao.search(query, limit));
+    }
+
+    /**
+     * A feldolgozó a virtuális olvasó szálon hívódik, nem a hívó szálán.
+     * @see ContractDAO#forEachContract(Consumer)
+     */
+    public CompletableFuture<Long> forEachContract(Consumer<Contract> action) {
+        return read(() -> dao.forEachContract(action));
+    }
+
+    // --- Írás (egyetlen író szálon, sorban, csoportos commit-tal) ---
+
+    /**
+     * A future a commit után teljesül.
+     */
+    public CompletableFuture<Contract> addContract(Contract contract) {
+        return writer.addContract(contract);
+    }
+
+    /**
+     * A kötegelt mentés maga kezeli a tranzakcióit, ezért a csoportokon kívül, önállóan fut.
+     */
+    public CompletableFuture<Long> addContracts(Iterable<Contract> contracts, int batchSize,
+            ContractDAO.ProgressListener listener) {
+        return writer.submitStandalone(() -> dao.addContracts(contracts, batchSize, listener));
+    }
+
+    public CompletableFuture<Contract> updateContract(Contract contract) {
+        return writer.updateContract(contract).thenApply(saved -> {
+            invalidateCached(contract.getId());
+            return saved;
+        });
+    }
+
+    public CompletableFuture<Boolean> deleteContract(int id) {
+        return writer.deleteContract(id).thenApply(deleted -> {
+            invalidateCached(id);
+            return deleted;
+        });
+    }
+
+    /**
+     * Az író sor a DAO-t megkerülve ír, így a gyorsítótárban lévő példány elavulhat.
+     */
+    private void invalidateCached(int id) {
+        if (dao instanceof ContractCache) {
+            ((ContractCache) dao).invalidate(id);
+        }
+    }
+
+    private <T> CompletableFuture<T> read(Supplier<T> operation) {
+        return CompletableFuture.supplyAsync(operation, readExecutor);
+    }
+
+    /**
+     * Új műveletet már nem fogad; a már beküldött írásokat még befejezi
+     * (legfeljebb 30 másodpercig várva).
+     */
+    @Override
+    public void close() {
+        readExecutor.shutdown();
+        writer.close();
+        try {
+            readExecutor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
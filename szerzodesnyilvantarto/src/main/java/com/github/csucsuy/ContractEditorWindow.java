@@ -3,6 +3,8 @@ package com.github.csucsuy;
 import javax.swing.*;
 import java.awt.*;
 import java.io.File;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 
@@ -21,6 +23,7 @@ public class ContractEditorWindow extends JDialog {
     private JTextField fel2Field;
     private JTextField filePathField;
     private JButton fileChooserButton;
+    private JCheckBox ingestCheckBox; // Másolás a kezelt dokumentumtárba
     private JButton saveButton;
     private JButton cancelButton;
     // Ez tárolja a szerződést, amit éppen szerkesztünk.
@@ -28,13 +31,13 @@ public class ContractEditorWindow extends JDialog {
     private Contract editingContract;
 
     // --- Referenciák ---
-    private ContractDAO contractDAO;
+    private ContractDAOAsync contractDAO; // Az írások a csoportos véglegesítésen át mennek
     private MainAppWindow parentWindow; // A főablak, hogy frissíthessük a listát
 
     /**
      * Konstruktor ÚJ szerződés létrehozásához.
      */
-    public ContractEditorWindow(MainAppWindow parent, ContractDAO dao) {
+    public ContractEditorWindow(MainAppWindow parent, ContractDAOAsync dao) {
         // Meghívjuk a másik konstruktort 'null' szerződéssel
         this(parent, dao, null); 
     }
@@ -42,14 +45,14 @@ public class ContractEditorWindow extends JDialog {
     /**
      * Konstruktor MEGLÉVŐ szerződés módosításához.
      */
-    public ContractEditorWindow(MainAppWindow parent, ContractDAO dao, Contract contractToEdit) {
+    public ContractEditorWindow(MainAppWindow parent, ContractDAOAsync dao, Contract contractToEdit) {
         super(parent, true); // Modális dialógus
 
         this.parentWindow = parent;
         this.contractDAO = dao;
         this.editingContract = contractToEdit; // Elmentjük a szerkesztendő szerződést
 
-        setSize(500, 400);
+        setSize(500, 430);
         setLocationRelativeTo(parent);
         setLayout(new BorderLayout(10, 10));
 
@@ -138,6 +141,14 @@ public class ContractEditorWindow extends JDialog {
         gbc.gridy = 6;
         formPanel.add(filePanel, gbc);
 
+        // A kiválasztott fájl másolata a dokumentumtárba kerül, a szerződés arra hivatkozik
+        gbc.gridy = 7;
+        ingestCheckBox = new JCheckBox("Másolás a dokumentumtárba",
+                DatabaseManager.getConfig().isDocumentIngestEnabled());
+        ingestCheckBox.setToolTipText("Az azonos tartalmú fájlok csak egyszer tárolódnak: "
+                + DatabaseManager.getDocumentStore().getRoot());
+        formPanel.add(ingestCheckBox, gbc);
+
         add(formPanel, BorderLayout.CENTER);
 
         // --- 2. Gombok (Alul) ---
@@ -185,27 +196,27 @@ public class ContractEditorWindow extends JDialog {
         }
 
         try {
-            // Eldöntjük, hogy új objektumot hozunk létre, vagy a meglévőt frissítjük
-            Contract contractToSave;
+            // Mindig új objektumot töltünk fel: a szerkesztett példány a főablak
+            // listájában van, és a régi neve alapján találjuk meg a rendezett listában.
+            Contract contractToSave = new Contract();
             boolean isUpdate = (editingContract != null);
 
             if (isUpdate) {
-                contractToSave = editingContract; // A meglévő objektumot használjuk
-            } else {
-                contractToSave = new Contract(); // Új objektum
+                contractToSave.setId(editingContract.getId()); // Ugyanazt a sort frissítjük
             }
 
             // 2. Objektum feltöltése a mezőkből
             contractToSave.setSzerzodesNeve(nev);
             contractToSave.setSzerzodoFel1(fel1);
-            contractToSave.setSzerzodoFel2(fel2Field.getText());
-            contractToSave.setDokumentumPath(filePathField.getText());
+            // Üresen hagyott mező: nincs érték (üres névvel ne jöjjön létre szerződő fél)
+            contractToSave.setSzerzodoFel2(fel2Field.getText().isBlank() ? null : fel2Field.getText());
+            contractToSave.setDokumentumPath(filePathField.getText().isBlank() ? null : filePathField.getText());
 
-            // Összeg parsolása
+            // Összeg parsolása (pontosan, BigDecimal-ként; legfeljebb 2 tizedesjegy)
             if (!osszegField.getText().isBlank()) {
-                contractToSave.setOsszeg(Double.parseDouble(osszegField.getText()));
+                contractToSave.setOsszeg(new BigDecimal(osszegField.getText().trim()));
             } else {
-                contractToSave.setOsszeg(0); // Vagy valamilyen alapértelmezett
+                contractToSave.setOsszeg(BigDecimal.ZERO); // Vagy valamilyen alapértelmezett
             }
 
             // Dátumok parsolása
@@ -220,23 +231,17 @@ public class ContractEditorWindow extends JDialog {
                 contractToSave.setVege(null);
             }
 
-            // 3. Mentés vagy Frissítés az adatbázisba
-            if (isUpdate) {
-                contractDAO.updateContract(contractToSave);
-            } else {
-                contractDAO.addContract(contractToSave);
-            }
-
-            // 4. Főablak listájának frissítése
-            parentWindow.loadContracts();
-
-            // 5. Ablak bezárása
-            dispose();
+            // 3. Mentés vagy Frissítés az adatbázisba, háttérszálon
+            saveInBackground(contractToSave, isUpdate);
 
         } catch (NumberFormatException ex) {
             JOptionPane.showMessageDialog(this,
                     "Az 'Összeg' mező érvénytelen szám (pl. 150000.50).",
                     "Formátum hiba", JOptionPane.ERROR_MESSAGE);
+        } catch (ArithmeticException ex) {
+            JOptionPane.showMessageDialog(this,
+                    "Az 'Összeg' legfeljebb 2 tizedesjegyet tartalmazhat (fillér).",
+                    "Formátum hiba", JOptionPane.ERROR_MESSAGE);
         } catch (DateTimeParseException ex) {
             JOptionPane.showMessageDialog(this,
                     "A dátum formátuma érvénytelen! Helyes formátum: ÉÉÉÉ-HH-NN (pl. 2025-10-30).",
@@ -244,6 +249,64 @@ public class ContractEditorWindow extends JDialog {
         }
     }
 
+    /**
+     * Háttérszálon menti a szerződést, majd (az EDT-n) frissíti a főablak
+     * listáját és bezárja az ablakot. Mentés közben a gombok inaktívak.
+     */
+    private void saveInBackground(Contract contractToSave, boolean isUpdate) {
+        saveButton.setEnabled(false);
+        cancelButton.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+
+        final boolean ingest = ingestCheckBox.isSelected();
+        new SwingWorker<Contract, Void>() {
+            @Override
+            protected Contract doInBackground() throws Exception {
+                // A dokumentum felvétele a tárba (hash számítás, másolás) is a háttérben fut
+                String path = contractToSave.getDokumentumPath();
+                DocumentStore store = DatabaseManager.getDocumentStore();
+                if (ingest && path != null && !path.isEmpty() && !store.contains(path)) {
+                    contractToSave.setDokumentumPath(store.ingest(Paths.get(path)));
+                }
+
+                // A háttérszál a commit-ig vár; az író szál közben a többi írással együtt véglegesít
+                if (isUpdate) {
+                    return contractDAO.updateContract(contractToSave).get();
+                } else {
+                    return contractDAO.addContract(contractToSave).get();
+                }
+            }
+
+            @Override
+            protected void done() {
+                setCursor(Cursor.getDefaultCursor());
+                Contract saved;
+                try {
+                    saved = get(); // A háttérben dobott kivételek itt jelennek meg
+                } catch (Exception ex) {
+                    showSaveError("Hiba történt a mentés során: " + ex.getMessage());
+                    return;
+                }
+                if (saved == null) {
+                    showSaveError("A szerződést nem sikerült menteni.");
+                    return;
+                }
+
+                // 4. Főablak listájának frissítése (csak az érintett elem)
+                parentWindow.contractSaved(editingContract, saved);
+
+                // 5. Ablak bezárása
+                dispose();
+            }
+        }.execute();
+    }
+
+    private void showSaveError(String message) {
+        saveButton.setEnabled(true);
+        cancelButton.setEnabled(true);
+        JOptionPane.showMessageDialog(this, message, "Mentési hiba", JOptionPane.ERROR_MESSAGE);
+    }
+
     /**
      * Feltölti a beviteli mezőket a szerkesztendő szerződés adataival.
      */
@@ -255,7 +318,7 @@ public class ContractEditorWindow extends JDialog {
 
         // Null-kezelés
         fel2Field.setText(editingContract.getSzerzodoFel2() != null ? editingContract.getSzerzodoFel2() : "");
-        osszegField.setText(String.valueOf(editingContract.getOsszeg()));
+        osszegField.setText(editingContract.getOsszeg().toPlainString());
         filePathField.setText(editingContract.getDokumentumPath() != null ? editingContract.getDokumentumPath() : "");
 
         if (editingContract.getLetrejotte() != null) {
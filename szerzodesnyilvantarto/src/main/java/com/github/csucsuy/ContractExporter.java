@@ -0,0 +1,206 @@
+package com.github.csucsuy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Parancssori belépési pont a szerződések exportálásához.
+ * A sorokat a ContractDAO.forEachContract() egyenként adja át, és azonnal a
+ * fájlba íródnak, így a memóriaigény a szerződések számától független.
+ *
+ * Formátumok:
+ * - csv: UTF-8, pontosvesszővel tagolt, fejléc sorral; az oszlopok megegyeznek a
+ *   ContractImporter bemenetével, így az export visszaimportálható.
+ *   A pontosvesszőt, idézőjelet vagy sortörést tartalmazó mezők idézőjelek közé kerülnek.
+ * - jsonl: soronként egy JSON objektum (JSON Lines), az ID-val együtt.
+ *
+ * Használat: java com.github.csucsuy.ContractExporter &lt;fájl&gt; [csv|jsonl]
+ * (formátum megadása nélkül a fájl kiterjesztése dönt)
+ */
+public class ContractExporter {
+
+    private static final String CSV_HEADER =
+            "szerzodes_neve;letrejotte;vege;osszeg;szerzodo_fel_1;szerzodo_fel_2;dokumentum_path";
+
+    // A csatorna elé tett írási puffer mérete (karakter)
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long PROGRESS_INTERVAL = 100000;
+
+    public enum Format {
+        CSV, JSONL
+    }
+
+    private final Writer out;
+    private final Format format;
+    private final StringBuilder line = new StringBuilder(256); // Soronként újrahasznosítva
+
+    ContractExporter(Writer out, Format format) {
+        this.out = out;
+        this.format = format;
+    }
+
+    void writeHeader() throws IOException {
+        if (format == Format.CSV) {
+            out.write(CSV_HEADER);
+            out.write('\n');
+        }
+    }
+
+    void write(Contract contract) throws IOException {
+        line.setLength(0);
+        if (format == Format.CSV) {
+            appendCsvLine(contract);
+        } else {
+            appendJsonLine(contract);
+        }
+        line.append('\n');
+        out.append(line);
+    }
+
+    private void appendCsvLine(Contract c) {
+        appendCsv(c.getSzerzodesNeve()).append(';');
+        appendCsv(dateText(c.getLetrejotte())).append(';');
+        appendCsv(dateText(c.getVege())).append(';');
+        line.append(c.getOsszeg().toPlainString()).append(';');
+        appendCsv(c.getSzerzodoFel1()).append(';');
+        appendCsv(c.getSzerzodoFel2()).append(';');
+        appendCsv(c.getDokumentumPath());
+    }
+
+    private StringBuilder appendCsv(String value) {
+        if (value == null) {
+            return line;
+        }
+        if (value.indexOf(';') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return line.append(value);
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '"') {
+                line.append('"'); // Az idézőjel duplázva
+            }
+            line.append(ch);
+        }
+        return line.append('"');
+    }
+
+    private void appendJsonLine(Contract c) {
+        line.append("{\"id\":").append(c.getId());
+        line.append(",\"szerzodes_neve\":");
+        appendJson(c.getSzerzodesNeve());
+        line.append(",\"letrejotte\":");
+        appendJson(dateText(c.getLetrejotte()));
+        line.append(",\"vege\":");
+        appendJson(dateText(c.getVege()));
+        line.append(",\"osszeg\":").append(c.getOsszeg().toPlainString());
+        line.append(",\"szerzodo_fel_1\":");
+        appendJson(c.getSzerzodoFel1());
+        line.append(",\"szerzodo_fel_2\":");
+        appendJson(c.getSzerzodoFel2());
+        line.append(",\"dokumentum_path\":");
+        appendJson(c.getDokumentumPath());
+        line.append('}');
+    }
+
+    private void appendJson(String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (ch < 0x20) {
+                        line.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        line.append(ch);
+                    }
+            }
+        }
+        line.append('"');
+    }
+
+    private static String dateText(LocalDate date) {
+        return date != null ? date.toString() : null;
+    }
+
+    static Format formatOf(String name) {
+        return Format.valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Használat: ContractExporter <fájl> [csv|jsonl]");
+            System.exit(1);
+        }
+        Path target = Paths.get(args[0]);
+        String formatName = args.length > 1 ? args[1]
+                : (args[0].toLowerCase(Locale.ROOT).endsWith(".jsonl") ? "jsonl" : "csv");
+        Format format;
+        try {
+            format = formatOf(formatName);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Ismeretlen formátum: " + formatName + " (csv vagy jsonl)");
+            System.exit(1);
+            return;
+        }
+
+        DatabaseManager.initializeDatabase();
+        ContractDAO dao = new ContractDAO();
+        long start = System.nanoTime();
+        long written;
+
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Writer out = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE)) {
+            ContractExporter exporter = new ContractExporter(out, format);
+            exporter.writeHeader();
+            written = dao.forEachContract(contract -> {
+                try {
+                    exporter.write(contract);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // Megszakítja a bejárást
+                }
+            });
+        } catch (UncheckedIOException e) {
+            System.err.println("Hiba az export fájl írásakor (" + target + "): " + e.getCause().getMessage());
+            System.exit(1);
+            return;
+        }
+
+        if (written < 0) {
+            System.exit(1); // A hibát a DAO már kiírta
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Exportálva: %d szerződés -> %s (%.1f mp, %.0f sor/mp)%n",
+                written, target.toAbsolutePath(), seconds, written / Math.max(seconds, 1e-9));
+    }
+}
@@ -0,0 +1,251 @@
+package com.github.csucsuy;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lekérdezések a szerződések változásnaplójából (contract_history, lásd
+ * DatabaseManager.createHistory): egy szerződés változatai, egy szerződés
+ * állapota egy korábbi időpontban, és az összes szerződés egy korábbi időpontban.
+ *
+ * A napló minden sora a szerződés teljes állapota, így egy szerződés korábbi
+ * állapota egyetlen indexelt sor, visszajátszás nélkül. A teljes állomány egy
+ * korábbi időpontban a legutóbbi, annál nem későbbi pillanatképből és az utána
+ * következő változásokból áll össze. Új pillanatkép akkor készül
+ * (snapshotIfDue), ha az utolsó óta legalább annyi változás gyűlt össze, ahány
+ * szerződés van (de legalább MIN_SNAPSHOT_INTERVAL): így a pillanatképek együtt
+ * sem foglalnak több helyet, mint maguk a változások. A vizsgálat időközönként,
+ * háttérszálon fut (DatabaseManager.startHistorySnapshots), ezért a visszajátszandó
+ * rész legfeljebb egy pillanatképnyi, plusz az utolsó vizsgálat óta történt változások.
+ */
+public class ContractHistory {
+
+    // Legalább ennyi változás kell egy új pillanatképhez (kevés szerződésnél se készüljön túl sűrűn)
+    static final int MIN_SNAPSHOT_INTERVAL = 1000;
+    // A részleteknél megjelenített változatok legfeljebb
+    public static final int DEFAULT_VERSION_LIMIT = 50;
+
+    private static final String COLUMNS = "seq, muvelet, idopont, contract_id AS id, szerzodes_neve, letrejotte, "
+            + "vege, osszeg_filler, szerzodo_fel_1_id, szerzodo_fel_2_id, dokumentum_path";
+    // A pillanatképek sorai nem változások, ezért a változatok között nem szerepelnek
+    private static final String VERSIONS_SQL = "SELECT " + COLUMNS + " FROM contract_history "
+            + "WHERE contract_id = ? AND muvelet <> 'S' ORDER BY seq DESC LIMIT ?";
+    private static final String AS_OF_SQL = "SELECT " + COLUMNS + " FROM contract_history "
+            + "WHERE contract_id = ? AND idopont <= ? ORDER BY seq DESC LIMIT 1";
+    private static final String SNAPSHOT_BEFORE_SQL = "SELECT kezdo_seq FROM contract_history_snapshots "
+            + "WHERE idopont <= ? ORDER BY id DESC LIMIT 1";
+    private static final String REPLAY_SQL = "SELECT " + COLUMNS + " FROM contract_history "
+            + "WHERE seq >= ? AND idopont <= ? ORDER BY seq";
+    // Az utolsó pillanatkép utáni első sorszám, a napló vége és a szerződések száma
+    private static final String SNAPSHOT_STATE_SQL = "SELECT (SELECT kezdo_seq + sorok "
+            + "FROM contract_history_snapshots ORDER BY id DESC LIMIT 1), "
+            + "(SELECT COALESCE(MAX(seq), 0) FROM contract_history), (SELECT COUNT(*) FROM contracts)";
+    // A pillanatkép időpontja és első sorszáma (a napló nem törölhető, így a következő a MAX + 1)
+    private static final String NEXT_SQL = "SELECT " + DatabaseManager.HISTORY_NOW
+            + ", (SELECT COALESCE(MAX(seq), 0) + 1 FROM contract_history)";
+    private static final String SNAPSHOT_ROWS_SQL = "INSERT INTO contract_history(contract_id, muvelet, idopont, "
+            + "szerzodes_neve, letrejotte, vege, osszeg_filler, szerzodo_fel_1_id, szerzodo_fel_2_id, dokumentum_path) "
+            + "SELECT id, 'S', ?, szerzodes_neve, letrejotte, vege, osszeg_filler, szerzodo_fel_1_id, "
+            + "szerzodo_fel_2_id, dokumentum_path FROM contracts ORDER BY id";
+    private static final String SNAPSHOT_INSERT_SQL = "INSERT INTO contract_history_snapshots"
+            + "(kezdo_seq, sorok, idopont) VALUES(?, ?, ?)";
+
+    private final ConnectionPool pool; // null esetén a DatabaseManager készlete
+
+    public ContractHistory() {
+        this(null);
+    }
+
+    /**
+     * @param pool Ebből a készletből dolgozik (a tesztekhez); null esetén a DatabaseManager-éből.
+     */
+    ContractHistory(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * A nap vége (a rendszer időzónájában) epoch ms-ként: az adott napon érvényes
+     * utolsó állapot lekérdezéséhez.
+     */
+    public static long endOfDay(LocalDate date) {
+        return date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli() - 1;
+    }
+
+    /**
+     * A szerződés változásai (létrehozás, módosítások, törlés), a legújabb elöl.
+     * @param limit Legfeljebb ennyi változat.
+     */
+    public List<ContractVersion> findVersions(int contractId, int limit) {
+        List<ContractVersion> versions = new ArrayList<>();
+        DaoMetrics.Sample sample = ContractDAO.startSample("historyVersions");
+        sample.statement(VERSIONS_SQL, contractId, limit);
+
+        try (PooledConnection conn = sample.acquired(reader())) {
+            PreparedStatement pstmt = conn.prepare(VERSIONS_SQL);
+            pstmt.setInt(1, contractId);
+            pstmt.setInt(2, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    versions.add(mapVersion(conn, rs));
+                }
+            }
+            sample.success(versions.size());
+        } catch (SQLException e) {
+            sample.failure();
+            System.err.println("Hiba a szerződés változásainak lekérdezésekor (ID: " + contractId + "): "
+                    + e.getMessage());
+        }
+        return versions;
+    }
+
+    /**
+     * A szerződés legutóbbi változata az adott időpontig (beleértve).
+     * Ha a változat törlés (isDeleted()), a szerződés akkor már nem létezett.
+     * @param timestamp Az időpont, epoch ms.
+     * @return A változat, vagy null, ha az időpontig nincs róla bejegyzés
+     *         (még nem létezett, vagy a napló indulása előtti időpont).
+     */
+    public ContractVersion findAsOf(int contractId, long timestamp) {
+        DaoMetrics.Sample sample = ContractDAO.startSample("historyAsOf");
+        sample.statement(AS_OF_SQL, contractId, timestamp);
+
+        try (PooledConnection conn = sample.acquired(reader())) {
+            PreparedStatement pstmt = conn.prepare(AS_OF_SQL);
+            pstmt.setInt(1, contractId);
+            pstmt.setLong(2, timestamp);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                ContractVersion version = rs.next() ? mapVersion(conn, rs) : null;
+                sample.success(version != null ? 1 : 0);
+                return version;
+            }
+        } catch (SQLException e) {
+            sample.failure();
+            System.err.println("Hiba a szerződés korábbi állapotának lekérdezésekor (ID: " + contractId + "): "
+                    + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Az összes szerződés az adott időpontban (név, azon belül ID szerint rendezve).
+     * A legutóbbi, az időpontnál nem későbbi pillanatképtől játssza vissza a naplót.
+     * @param timestamp Az időpont, epoch ms.
+     */
+    public List<Contract> findAllAsOf(long timestamp) {
+        Map<Integer, Contract> contracts = new LinkedHashMap<>();
+        DaoMetrics.Sample sample = ContractDAO.startSample("historyAllAsOf");
+
+        try (PooledConnection conn = sample.acquired(reader())) {
+            long fromSeq = 0; // Pillanatkép nélkül a napló elejétől
+            PreparedStatement snapshot = conn.prepare(SNAPSHOT_BEFORE_SQL);
+            snapshot.setLong(1, timestamp);
+            try (ResultSet rs = snapshot.executeQuery()) {
+                if (rs.next()) {
+                    fromSeq = rs.getLong(1);
+                }
+            }
+            sample.statement(REPLAY_SQL, fromSeq, timestamp);
+
+            PreparedStatement replay = conn.prepare(REPLAY_SQL);
+            replay.setLong(1, fromSeq);
+            replay.setLong(2, timestamp);
+            try (ResultSet rs = replay.executeQuery()) {
+                while (rs.next()) {
+                    ContractVersion version = mapVersion(conn, rs);
+                    if (version.isDeleted()) {
+                        contracts.remove(version.getContract().getId());
+                    } else {
+                        contracts.put(version.getContract().getId(), version.getContract());
+                    }
+                }
+            }
+            sample.success(contracts.size());
+        } catch (SQLException e) {
+            sample.failure();
+            System.err.println("Hiba a szerződések korábbi állapotának lekérdezésekor: " + e.getMessage());
+            return new ArrayList<>();
+        }
+
+        List<Contract> result = new ArrayList<>(contracts.values());
+        result.sort(Comparator.comparing(Contract::getSzerzodesNeve).thenComparing(Contract::getId));
+        return result;
+    }
+
+    /**
+     * Pillanatképet készít, ha még nincs, vagy ha az utolsó óta legalább annyi
+     * változás történt, ahány szerződés van (de legalább MIN_SNAPSHOT_INTERVAL).
+     * @return Készült-e pillanatkép.
+     */
+    public boolean snapshotIfDue() {
+        DaoMetrics.Sample sample = ContractDAO.startSample("historySnapshot");
+        sample.statement(SNAPSHOT_STATE_SQL);
+
+        try (PooledConnection conn = sample.acquired(writer())) {
+            // Az író kapcsolatot fogjuk: a vizsgálat és a pillanatkép között nem változhat semmi
+            conn.getConnection().setAutoCommit(false);
+            boolean due;
+            try (ResultSet rs = conn.prepare(SNAPSHOT_STATE_SQL).executeQuery()) {
+                rs.next();
+                long afterSnapshot = rs.getLong(1);
+                boolean first = rs.wasNull();
+                long tail = rs.getLong(2) - afterSnapshot + 1;
+                due = first || tail >= Math.max(MIN_SNAPSHOT_INTERVAL, rs.getLong(3));
+            }
+            int rows = due ? takeSnapshot(conn) : 0;
+            conn.getConnection().commit();
+            conn.getConnection().setAutoCommit(true);
+            sample.success(rows);
+            if (due) {
+                System.out.println("Változásnapló pillanatkép kész: " + rows + " szerződés.");
+            }
+            return due;
+        } catch (SQLException e) {
+            sample.failure();
+            System.err.println("Hiba a változásnapló pillanatképének készítésekor: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Az összes szerződés a naplóba ('S'), egy időponttal; a hívó tranzakciójában
+    private static int takeSnapshot(PooledConnection conn) throws SQLException {
+        long now;
+        long firstSeq;
+        try (ResultSet rs = conn.prepare(NEXT_SQL).executeQuery()) {
+            rs.next();
+            now = rs.getLong(1);
+            firstSeq = rs.getLong(2);
+        }
+        // Egy tranzakcióban, az író kapcsolaton: a sorok sorszámai folytonosak
+        PreparedStatement copy = conn.prepare(SNAPSHOT_ROWS_SQL);
+        copy.setLong(1, now);
+        int rows = copy.executeUpdate();
+
+        PreparedStatement record = conn.prepare(SNAPSHOT_INSERT_SQL);
+        record.setLong(1, firstSeq);
+        record.setInt(2, rows);
+        record.setLong(3, now);
+        record.executeUpdate();
+        return rows;
+    }
+
+    private static ContractVersion mapVersion(PooledConnection conn, ResultSet rs) throws SQLException {
+        return new ContractVersion(rs.getLong("seq"), ContractVersion.Change.of(rs.getString("muvelet")),
+                rs.getLong("idopont"), ContractDAO.mapContract(conn, rs));
+    }
+
+    private PooledConnection reader() throws SQLException {
+        return pool != null ? pool.borrowReader() : DatabaseManager.reader();
+    }
+
+    private PooledConnection writer() throws SQLException {
+        return pool != null ? pool.borrowWriter() : DatabaseManager.writer();
+    }
+}
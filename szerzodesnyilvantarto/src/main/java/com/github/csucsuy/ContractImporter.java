@@ -0,0 +1,525 @@
+package com.github.csucsuy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parancssori belépési pont szerződések tömeges importálásához
+ * (pl. a régi nyilvántartás átemeléséhez).
+ *
+ * Bemenet: UTF-8 kódolású, pontosvesszővel tagolt szövegfájl fejléc sorral,
+ * az oszlopok sorrendje:
+ * szerzodes_neve;letrejotte;vege;osszeg;szerzodo_fel_1;szerzodo_fel_2;dokumentum_path
+ * Az idézőjelek közé tett mezők tartalmazhatnak pontosvesszőt és sortörést
+ * ("" = idézőjel), ahogy a ContractExporter írja őket.
+ *
+ * Feldolgozás: a fájl memóriába leképezve (mmap) kerül beolvasásra és
+ * CHUNK_RECORDS soros darabokra vágásra; a darabokat több szál dolgozza fel
+ * és ellenőrzi, a mentést pedig egyetlen szál végzi kötegelt INSERT-ekkel
+ * (ContractDAO.addContracts), a fájlbeli sorrendben. A várakozó darabok
+ * száma korlátos, így a memóriaigény a fájl méretétől független.
+ * A hibás sorok változatlanul az elutasított sorok fájljába kerülnek
+ * (fejléccel együtt, így javítás után újra importálhatók).
+ *
+ * Használat: java com.github.csucsuy.ContractImporter &lt;fájl&gt; [köteg méret] [elutasított sorok fájlja]
+ */
+public class ContractImporter {
+
+    private static final int COLUMN_COUNT = 7;
+    private static final String HEADER =
+            "szerzodes_neve;letrejotte;vege;osszeg;szerzodo_fel_1;szerzodo_fel_2;dokumentum_path";
+
+    // Tömeges betöltésnél nagyobb tranzakciók: kevesebb commit és WAL ellenőrzőpont
+    static final int DEFAULT_BATCH_SIZE = 10000;
+    // Ennyi rekord kerül egy feldolgozási darabba
+    static final int CHUNK_RECORDS = 10000;
+    // Egy leképezett ablak legnagyobb mérete (a MappedByteBuffer int-tel indexel)
+    private static final long MAX_MAPPING = 1L << 30;
+    // Ennyi hibát írunk ki részletesen a hibakimenetre (mind az elutasított fájlba kerül)
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    // Egy idézőjeles mező legfeljebb ennyi bájtig tarthat; ha addig nem zárul le, a nyitó
+    // idézőjel utáni első sortörés zárja a rekordot (és csak az a sor kerül elutasításra)
+    static final int MAX_QUOTED_LENGTH = 1 << 16;
+
+    private static final byte QUOTE = '"';
+    private static final byte SEPARATOR = ';';
+    private static final byte NEWLINE = '\n';
+
+    /**
+     * Egy elutasított sor: a fájlbeli sorszáma, az eredeti szövege és a hiba oka.
+     */
+    static class RejectedRow {
+        final long lineNumber;
+        final String line;
+        final String error;
+
+        RejectedRow(long lineNumber, String line, String error) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Egy feldolgozott darab eredménye.
+     */
+    static class ParsedChunk {
+        final List<Contract> contracts = new ArrayList<>();
+        final List<RejectedRow> rejected = new ArrayList<>();
+    }
+
+    // A feldolgozási sor végét jelző elem
+    private static final Future<ParsedChunk> END = CompletableFuture.completedFuture(null);
+
+    /**
+     * Egy darab (a fájl egy bájttartománya) feldolgozása: rekordokra bontás,
+     * dekódolás és ellenőrzés. A munkaszálakon fut.
+     * @param bytes A darab bájtjai (teljes rekordok).
+     * @param firstLine Az első rekord sorszáma a fájlban.
+     */
+    static ParsedChunk parseChunk(ByteBuffer bytes, long firstLine) {
+        ParsedChunk result = new ParsedChunk();
+        long lineNumber = firstLine;
+        int start = bytes.position();
+        int limit = bytes.limit();
+
+        while (start < limit) {
+            int end = recordEnd(bytes, start, limit, true);
+            ByteBuffer record = bytes.duplicate();
+            record.position(start).limit(end);
+            String line = StandardCharsets.UTF_8.decode(record).toString();
+            if (line.endsWith("\r")) {
+                line = line.substring(0, line.length() - 1);
+            }
+            if (!line.trim().isEmpty()) {
+                try {
+                    result.contracts.add(parseLine(line));
+                } catch (IllegalArgumentException | DateTimeParseException | ArithmeticException e) {
+                    result.rejected.add(new RejectedRow(lineNumber, line, e.getMessage()));
+                }
+            }
+            // A rekordon belüli (idézőjeles) sortörések is sornak számítanak
+            lineNumber += 1 + countNewlines(bytes, start, end);
+            start = end + 1;
+        }
+        return result;
+    }
+
+    /**
+     * Megkeresi a from-nál kezdődő rekord végét. Idézőjel csak a mező elején
+     * nyit (a mező közbeni idézőjel közönséges karakter), az idézőjeles mezőn
+     * belüli sortörés nem zárja a rekordot. A lezáratlan idézőjel legfeljebb
+     * MAX_QUOTED_LENGTH bájtig (vagy az adat végéig) tart: utána a nyitó
+     * idézőjel utáni első sortörés zárja a rekordot, így a hibás sor nem nyeli
+     * el a fájl többi részét. A bájtszintű vizsgálat UTF-8-ban is helyes, mert
+     * a keresett jelek egybájtosak.
+     * @param eof Igaz, ha limit után már nincs adat.
+     * @return A rekordot záró sortörés indexe; limit, ha az adat sortörés nélkül
+     *         ér véget; -1, ha a rekord vége a limit utáni adatban lehet (csak !eof esetén).
+     */
+    static int recordEnd(ByteBuffer buf, int from, int limit, boolean eof) {
+        boolean inQuotes = false;
+        boolean fieldStart = true;
+        int quoteStart = -1;
+        int firstNewline = -1; // Az első sortörés a nyitott idézőjeles mezőben
+
+        for (int i = from; i < limit; i++) {
+            byte b = buf.get(i);
+            if (inQuotes) {
+                if (b == QUOTE) {
+                    if (i + 1 < limit && buf.get(i + 1) == QUOTE) {
+                        i++; // "" egy idézőjel a mezőn belül
+                    } else if (i + 1 < limit || eof) {
+                        inQuotes = false;
+                    } else {
+                        return -1; // Nem tudni, hogy "" következik-e
+                    }
+                } else if (b == NEWLINE && firstNewline < 0) {
+                    firstNewline = i;
+                }
+                if (inQuotes && firstNewline >= 0 && i - quoteStart > MAX_QUOTED_LENGTH) {
+                    return firstNewline;
+                }
+            } else if (b == NEWLINE) {
+                return i;
+            } else if (b == QUOTE && fieldStart) {
+                inQuotes = true;
+                quoteStart = i;
+                firstNewline = -1;
+                fieldStart = false;
+            } else {
+                fieldStart = b == SEPARATOR;
+            }
+        }
+        if (!eof) {
+            return -1;
+        }
+        return inQuotes && firstNewline >= 0 ? firstNewline : limit;
+    }
+
+    private static int countNewlines(ByteBuffer buf, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (buf.get(i) == NEWLINE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Egy sor feldolgozása. Ugyanazokat a szabályokat követi, mint a
+     * ContractEditorWindow: a név és az első szerződő fél kötelező,
+     * a dátumok ÉÉÉÉ-HH-NN formátumúak, az összeg legfeljebb 2 tizedesjegyű.
+     */
+    static Contract parseLine(String line) {
+        List<String> cols = splitFields(line);
+        if (cols.size() != COLUMN_COUNT) {
+            throw new IllegalArgumentException("Oszlopok száma " + cols.size() + ", elvárt " + COLUMN_COUNT);
+        }
+        if (cols.get(0).trim().isEmpty() || cols.get(4).trim().isEmpty()) {
+            throw new IllegalArgumentException("A szerződés neve és a szerződő fél 1 kötelező");
+        }
+
+        Contract contract = new Contract();
+        contract.setSzerzodesNeve(cols.get(0).trim());
+        contract.setLetrejotte(cols.get(1).trim().isEmpty() ? null : LocalDate.parse(cols.get(1).trim()));
+        contract.setVege(cols.get(2).trim().isEmpty() ? null : LocalDate.parse(cols.get(2).trim()));
+        contract.setOsszeg(cols.get(3).trim().isEmpty() ? BigDecimal.ZERO : new BigDecimal(cols.get(3).trim()));
+        contract.setSzerzodoFel1(cols.get(4).trim());
+        // Az üres mező hiányzó érték: üres névvel nem jöhet létre fél (lásd PartyDictionary)
+        contract.setSzerzodoFel2(emptyToNull(cols.get(5)));
+        contract.setDokumentumPath(emptyToNull(cols.get(6)));
+        return contract;
+    }
+
+    private static String emptyToNull(String value) {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /**
+     * Pontosvesszővel tagolt sor mezőkre bontása. Az idézőjelek közötti
+     * pontosvessző a mező része, a "" egy idézőjelet jelent. Idézőjel csak
+     * a mező elején nyit, a mező közbeni idézőjel a mező része (lásd recordEnd).
+     */
+    static List<String> splitFields(String line) {
+        if (line.indexOf('"') < 0) {
+            // Gyakori eset: nincs idézőjel, elég a sima feldarabolás
+            List<String> cols = new ArrayList<>(COLUMN_COUNT);
+            Collections.addAll(cols, line.split(";", -1));
+            return cols;
+        }
+        List<String> cols = new ArrayList<>(COLUMN_COUNT);
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (inQuotes) {
+                if (ch == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (ch == '"') {
+                    inQuotes = false;
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"' && (i == 0 || line.charAt(i - 1) == ';')) {
+                inQuotes = true;
+            } else if (ch == ';') {
+                cols.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(ch);
+            }
+        }
+        if (inQuotes) {
+            throw new IllegalArgumentException("Lezáratlan idézőjel");
+        }
+        cols.add(field.toString());
+        return cols;
+    }
+
+    /**
+     * A fájl felosztása darabokra és a darabok átadása a munkaszálaknak.
+     * A fájlt legfeljebb MAX_MAPPING méretű ablakokban képezi a memóriába;
+     * a darabhatárok mindig rekordhatárra (idézőjelen kívüli sortörésre) esnek.
+     * Külön szálon fut; az eredmények (Future) fájlbeli sorrendben kerülnek a sorba.
+     */
+    static class ChunkProducer implements Runnable {
+
+        private final FileChannel channel;
+        private final ExecutorService workers;
+        private final BlockingQueue<Future<ParsedChunk>> results;
+
+        ChunkProducer(FileChannel channel, ExecutorService workers, BlockingQueue<Future<ParsedChunk>> results) {
+            this.channel = channel;
+            this.workers = workers;
+            this.results = results;
+        }
+
+        @Override
+        public void run() {
+            try {
+                produce();
+                results.put(END);
+            } catch (IOException e) {
+                fail(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void fail(Exception e) {
+            CompletableFuture<ParsedChunk> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            try {
+                results.put(failed);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void produce() throws IOException, InterruptedException {
+            long size = channel.size();
+            long position = 0;
+            long lineNumber = 1;
+            boolean header = true;
+
+            while (position < size) {
+                long length = Math.min(size - position, MAX_MAPPING);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean lastWindow = position + length == size;
+
+                int limit = (int) length;
+                int chunkStart = 0;
+                long chunkFirstLine = lineNumber;
+                int records = 0;
+
+                int start = 0;
+                while (start < limit) {
+                    int end = recordEnd(window, start, limit, lastWindow);
+                    if (end < 0) {
+                        break; // A rekord a következő ablakban folytatódik
+                    }
+                    lineNumber += 1 + countNewlines(window, start, end);
+                    start = Math.min(end + 1, limit);
+                    if (header) {
+                        header = false; // A fejléc sort kihagyjuk
+                        chunkStart = start;
+                        chunkFirstLine = lineNumber;
+                    } else if (++records == CHUNK_RECORDS) {
+                        submit(window, chunkStart, start, chunkFirstLine);
+                        chunkStart = start;
+                        chunkFirstLine = lineNumber;
+                        records = 0;
+                    }
+                }
+
+                if (lastWindow) {
+                    if (!header && chunkStart < limit) {
+                        submit(window, chunkStart, limit, chunkFirstLine);
+                    }
+                    return;
+                }
+                if (chunkStart == 0) {
+                    throw new IOException("Túl hosszú rekord a " + chunkFirstLine + ". sortól");
+                }
+                // A befejezetlen rekordokat a következő ablak elejéről dolgozzuk fel
+                position += chunkStart;
+                lineNumber = chunkFirstLine;
+            }
+        }
+
+        private void submit(MappedByteBuffer window, int from, int to, long firstLine) throws InterruptedException {
+            ByteBuffer slice = window.duplicate();
+            slice.position(from).limit(to);
+            final ByteBuffer bytes = slice.slice();
+            // Blokkol, ha a mentés lemaradt: így korlátos a memóriában lévő darabok száma
+            results.put(workers.submit(() -> parseChunk(bytes, firstLine)));
+        }
+    }
+
+    /**
+     * A feldolgozott darabok szerződései a fájlbeli sorrendben.
+     * A mentést végző szál (ContractDAO.addContracts) ezen iterál; az
+     * elutasított sorokat közben kiírja.
+     */
+    static class ParsedContracts implements Iterable<Contract> {
+
+        private final BlockingQueue<Future<ParsedChunk>> results;
+        private final RejectWriter rejects;
+
+        ParsedContracts(BlockingQueue<Future<ParsedChunk>> results, RejectWriter rejects) {
+            this.results = results;
+            this.rejects = rejects;
+        }
+
+        @Override
+        public Iterator<Contract> iterator() {
+            return new Iterator<Contract>() {
+                private Iterator<Contract> current = Collections.emptyIterator();
+                private boolean finished;
+
+                @Override
+                public boolean hasNext() {
+                    while (!current.hasNext() && !finished) {
+                        ParsedChunk chunk = take();
+                        if (chunk == null) {
+                            finished = true;
+                        } else {
+                            rejects.write(chunk.rejected);
+                            current = chunk.contracts.iterator();
+                        }
+                    }
+                    return current.hasNext();
+                }
+
+                @Override
+                public Contract next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return current.next();
+                }
+            };
+        }
+
+        private ParsedChunk take() {
+            try {
+                return results.take().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Megszakítva az importálás közben", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw new UncheckedIOException((IOException) cause);
+                }
+                throw new IllegalStateException("Hiba a feldolgozás során: " + cause, cause);
+            }
+        }
+    }
+
+    /**
+     * Az elutasított sorok fájlja; csak az első hibás sornál jön létre.
+     */
+    static class RejectWriter implements AutoCloseable {
+
+        private final Path path;
+        private Writer writer;
+        private long count;
+
+        RejectWriter(Path path) {
+            this.path = path;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        Path getPath() {
+            return path;
+        }
+
+        void write(List<RejectedRow> rows) {
+            try {
+                for (RejectedRow row : rows) {
+                    if (writer == null) {
+                        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+                        writer.write(HEADER);
+                        writer.write('\n');
+                    }
+                    writer.write(row.line);
+                    writer.write('\n');
+                    if (++count <= MAX_REPORTED_ERRORS) {
+                        System.err.println("Hibás sor (" + row.lineNumber + "): " + row.error);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Használat: ContractImporter <fájl> [köteg méret] [elutasított sorok fájlja]");
+            System.exit(1);
+        }
+        Path input = Paths.get(args[0]);
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_BATCH_SIZE;
+        Path rejectPath = Paths.get(args.length > 2 ? args[2] : args[0] + ".elutasitott.csv");
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1); // Egy mag a mentésé
+
+        DatabaseManager.initializeDatabase();
+        ContractDAO dao = new ContractDAO();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        BlockingQueue<Future<ParsedChunk>> results = new ArrayBlockingQueue<>(threads * 2);
+        long start = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+             RejectWriter rejects = new RejectWriter(rejectPath)) {
+            Thread producer = new Thread(new ChunkProducer(channel, workers, results), "import-olvaso");
+            producer.setDaemon(true);
+            producer.start();
+
+            long written = dao.addContracts(new ParsedContracts(results, rejects), batchSize,
+                    (rows, rowsPerSecond) -> {
+                        if (rows % (batchSize * 10L) == 0) {
+                            System.out.printf("%d sor mentve (%.0f sor/mp)%n", rows, rowsPerSecond);
+                        }
+                    });
+            // Ha a mentés hiba miatt idő előtt leállt, az olvasó a teli sorra várhat
+            producer.interrupt();
+            producer.join();
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Importálva: %d, elutasítva: %d (%.1f mp, %.0f sor/mp, %d feldolgozó szál)%n",
+                    written, rejects.getCount(), seconds, written / Math.max(seconds, 1e-9), threads);
+            if (rejects.getCount() > 0) {
+                System.out.println("Elutasított sorok: " + rejects.getPath().toAbsolutePath());
+            }
+            // A háttérbeli ütemezés a kilépéssel leáll, ezért a pillanatkép még kilépés előtt készül
+            new ContractHistory().snapshotIfDue();
+        } catch (UncheckedIOException | IllegalStateException e) {
+            System.err.println("Az importálás megszakadt: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            workers.shutdownNow();
+        }
+        System.out.println(DatabaseManager.getPool().metricsSummary());
+    }
+}
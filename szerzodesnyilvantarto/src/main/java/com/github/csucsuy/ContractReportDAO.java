@@ -0,0 +1,188 @@
+package com.github.csucsuy;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kimutatások (összesítések) lekérdezése.
+ * Minden számítás SQL-ben, csoportosító lekérdezésekkel történik, a szerződések
+ * sorai nem kerülnek a Java oldalra; csak a csoportonkénti eredmények.
+ * A lekérdezéseket a DatabaseManager-ben létrehozott fedő (covering) indexek
+ * szolgálják ki, így az SQLite-nak a táblát magát nem kell olvasnia.
+ * Felenként a fél azonosítója (egész szám) szerint csoportosítunk, a nevet
+ * csak a kész csoportokhoz kapcsoljuk hozzá a parties táblából.
+ */
+public class ContractReportDAO {
+
+    private final ConnectionPool pool; // null esetén a DatabaseManager készlete
+
+    public ContractReportDAO() {
+        this(null);
+    }
+
+    /**
+     * @param pool Ebből a készletből olvas (a tesztekhez); null esetén a DatabaseManager-éből.
+     */
+    ContractReportDAO(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    // Olvasó kapcsolat (a leszármazott pillanatképe is ezt használja)
+    PooledConnection reader() throws SQLException {
+        return pool != null ? pool.borrowReader() : DatabaseManager.reader();
+    }
+
+    /**
+     * A kimutatás csoportosítása.
+     */
+    public enum Grouping {
+        PARTY("Szerződő felenként", true, null),
+        YEAR("Évenként", false, "%Y"),
+        MONTH("Havonta", false, "%Y-%m"),
+        PARTY_YEAR("Szerződő felenként és évenként", true, "%Y");
+
+        private final String label;
+        private final boolean byParty;
+        private final String periodFormat; // strftime formátum, vagy null
+
+        Grouping(String label, boolean byParty, String periodFormat) {
+            this.label = label;
+            this.byParty = byParty;
+            this.periodFormat = periodFormat;
+        }
+
+        // Szerződő felenként csoportosít-e (ContractColumns is használja)
+        boolean isByParty() {
+            return byParty;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    // A létrejötte dátum (napok 1970-01-01 óta) mint naptári időszak
+    private static String periodExpression(String format) {
+        return "strftime('" + format + "', letrejotte * 86400, 'unixepoch')";
+    }
+
+    private static final String AGGREGATES = "COUNT(*) AS db, COALESCE(SUM(osszeg_filler), 0) AS osszeg, "
+            + "COALESCE(MIN(osszeg_filler), 0) AS legkisebb, COALESCE(MAX(osszeg_filler), 0) AS legnagyobb";
+
+    /**
+     * A felenkénti csoportosítás eredményéhez (party = a fél azonosítója) a fél nevét kapcsolja,
+     * és név szerint rendez.
+     */
+    private static String withPartyNames(String groupedSql) {
+        return "SELECT p.nev, g.period, g.db, g.osszeg, g.legkisebb, g.legnagyobb FROM ("
+                + groupedSql + ") g JOIN parties p ON p.id = g.party ORDER BY p.nev, g.period";
+    }
+
+    /**
+     * Összesítés (darab, összeg, legkisebb és legnagyobb összeg) a megadott csoportosítás szerint.
+     * Az időszak a szerződés létrejöttének dátuma; létrejötte dátum nélküli
+     * szerződéseknél az időszak null.
+     * @param grouping A csoportosítás módja.
+     * @return A csoportok, szerződő fél és időszak szerint rendezve.
+     */
+    public List<ContractSummary> summarize(Grouping grouping) {
+        return summarize(grouping, null, null);
+    }
+
+    /**
+     * Összesítés a megadott csoportosítás szerint, a létrejötte dátumra szűrve.
+     * @param grouping A csoportosítás módja.
+     * @param from Ettől a naptól (beleértve); null esetén nincs szűrés.
+     * @param to Eddig a napig (beleértve); null esetén nincs szűrés.
+     */
+    public List<ContractSummary> summarize(Grouping grouping, LocalDate from, LocalDate to) {
+        List<ContractSummary> result = new ArrayList<>();
+        String partyColumn = grouping.byParty ? "szerzodo_fel_1_id" : "NULL";
+        String periodColumn = grouping.periodFormat != null ? periodExpression(grouping.periodFormat) : "NULL";
+
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(partyColumn).append(" AS party, ")
+                .append(periodColumn).append(" AS period, ")
+                .append(AGGREGATES).append(" FROM contracts");
+        if (from != null || to != null) {
+            sql.append(" WHERE letrejotte BETWEEN ? AND ?");
+        }
+        if (grouping.byParty) {
+            sql.append(" GROUP BY party, period");
+            sql = new StringBuilder(withPartyNames(sql.toString()));
+        } else {
+            sql.append(" GROUP BY party, period ORDER BY party, period");
+        }
+        DaoMetrics.Sample sample = ContractDAO.startSample("summarize");
+
+        try (PooledConnection conn = sample.acquired(reader())) {
+            PreparedStatement pstmt = conn.prepare(sql.toString());
+            if (from != null || to != null) {
+                long fromDay = from != null ? from.toEpochDay() : Long.MIN_VALUE;
+                long toDay = to != null ? to.toEpochDay() : Long.MAX_VALUE;
+                pstmt.setLong(1, fromDay);
+                pstmt.setLong(2, toDay);
+                sample.statement(sql.toString(), fromDay, toDay);
+            } else {
+                sample.statement(sql.toString());
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    result.add(mapSummary(rs));
+                }
+            }
+            sample.success(result.size());
+        } catch (SQLException e) {
+            sample.failure();
+            System.err.println("Hiba a kimutatás lekérdezésekor (" + grouping + "): " + e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Az adott napon hatályos szerződések összesítése: létrejöttek legkésőbb
+     * aznap, és nem jártak le előtte (vagy nincs lejáratuk).
+     * A létrejötte dátum nélküli szerződéseket nem számoljuk.
+     * @param date A vizsgált nap.
+     * @param byParty Szerződő felenként csoportosítva, vagy egyetlen összesítő sor.
+     * @return Az összesítő sor(ok); az időszak oszlopban a vizsgált nap.
+     */
+    public List<ContractSummary> activeAt(LocalDate date, boolean byParty) {
+        List<ContractSummary> result = new ArrayList<>();
+        String sql = "SELECT " + (byParty ? "szerzodo_fel_1_id" : "NULL") + " AS party, ? AS period, "
+                + AGGREGATES + " FROM contracts"
+                + " WHERE letrejotte <= ? AND (vege IS NULL OR vege >= ?)";
+        if (byParty) {
+            sql = withPartyNames(sql + " GROUP BY party");
+        }
+        DaoMetrics.Sample sample = ContractDAO.startSample("activeAt");
+
+        try (PooledConnection conn = sample.acquired(reader())) {
+            PreparedStatement pstmt = conn.prepare(sql);
+            pstmt.setString(1, date.toString());
+            pstmt.setLong(2, date.toEpochDay());
+            pstmt.setLong(3, date.toEpochDay());
+            sample.statement(sql, date.toString(), date.toEpochDay(), date.toEpochDay());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    result.add(mapSummary(rs));
+                }
+            }
+            sample.success(result.size());
+        } catch (SQLException e) {
+            sample.failure();
+            System.err.println("Hiba a hatályos szerződések lekérdezésekor (" + date + "): " + e.getMessage());
+        }
+        return result;
+    }
+
+    private static ContractSummary mapSummary(ResultSet rs) throws SQLException {
+        return new ContractSummary(rs.getString(1), rs.getString(2), rs.getLong(3),
+                rs.getLong(4), rs.getLong(5), rs.getLong(6));
+    }
+}
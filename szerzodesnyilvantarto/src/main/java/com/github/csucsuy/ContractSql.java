@@ -0,0 +1,72 @@
+package com.github.csucsuy;
+
+/**
+ * A ContractDAO állandó SQL parancsai egy helyen (előre fordított parancsok jegyzéke).
+ *
+ * Minden kapcsolat a parancsot az első használatkor egyszer készíti elő
+ * (PooledConnection.prepare(ContractSql)), utána ugyanazt a PreparedStatement-et
+ * használja újra: az SQLite nem elemzi és nem tervezi újra a lekérdezést.
+ * A jegyzékben lévő parancsok nem kerülnek az LRU statement gyorsítótárba,
+ * így azokat a ritkábban használt (pl. kimutatás) lekérdezések nem szorítják ki;
+ * a kapcsolat fizikai lezárásakor záródnak le.
+ */
+public enum ContractSql {
+
+    // A szerződő feleket azonosítóval tároljuk (parties tábla, lásd PartyDictionary)
+    INSERT("INSERT INTO contracts(szerzodes_neve, letrejotte, vege, "
+            + "osszeg_filler, szerzodo_fel_1_id, szerzodo_fel_2_id, dokumentum_path) "
+            + "VALUES(?, ?, ?, ?, ?, ?, ?)"),
+
+    UPDATE("UPDATE contracts SET "
+            + "szerzodes_neve = ?, "
+            + "letrejotte = ?, "
+            + "vege = ?, "
+            + "osszeg_filler = ?, "
+            + "szerzodo_fel_1_id = ?, "
+            + "szerzodo_fel_2_id = ?, "
+            + "dokumentum_path = ? "
+            + "WHERE id = ?"), // Frissítés ID alapján
+
+    DELETE("DELETE FROM contracts WHERE id = ?"),
+
+    LAST_INSERT_ID("SELECT last_insert_rowid()"),
+
+    ALL_BY_NAME("SELECT * FROM contracts ORDER BY szerzodes_neve, id"),
+
+    ALL_BY_ID("SELECT * FROM contracts ORDER BY id"),
+
+    BY_ID("SELECT * FROM contracts WHERE id = ?"),
+
+    FIRST_PAGE("SELECT * FROM contracts ORDER BY szerzodes_neve, id LIMIT ?"),
+
+    NEXT_PAGE("SELECT * FROM contracts WHERE (szerzodes_neve, id) > (?, ?) "
+            + "ORDER BY szerzodes_neve, id LIMIT ?"),
+
+    // Mindkét oldali fél indexét használja (OR optimalizáció), nem olvassa végig a táblát
+    BY_PARTY("SELECT * FROM contracts WHERE szerzodo_fel_1_id = ? OR szerzodo_fel_2_id = ? "
+            + "ORDER BY szerzodes_neve, id"),
+
+    EXPIRING_BETWEEN("SELECT * FROM contracts WHERE vege BETWEEN ? AND ? ORDER BY vege, id"),
+
+    // bm25 súlyok oszloponként: név, fél 1, fél 2, dokumentum
+    SEARCH("SELECT c.* FROM contracts c JOIN ("
+            + "SELECT rowid, bm25(contracts_fts, 10.0, 5.0, 5.0, 1.0) AS score FROM contracts_fts "
+            + "WHERE contracts_fts MATCH ? ORDER BY score LIMIT ?"
+            + ") f ON c.id = f.rowid ORDER BY f.score"),
+
+    PARTY_BY_ID("SELECT nev FROM parties WHERE id = ?"),
+
+    PARTY_ID("SELECT id FROM parties WHERE nev = ?"),
+
+    PARTY_INSERT("INSERT OR IGNORE INTO parties(nev) VALUES(?)");
+
+    private final String sql;
+
+    ContractSql(String sql) {
+        this.sql = sql;
+    }
+
+    public String sql() {
+        return sql;
+    }
+}
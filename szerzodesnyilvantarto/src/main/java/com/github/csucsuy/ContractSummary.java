@@ -0,0 +1,60 @@
+package com.github.csucsuy;
+
+import java.math.BigDecimal;
+
+// Egy kimutatás sora: egy csoport (pl. szerződő fél és év) összesített adatai.
+public class ContractSummary {
+
+    private final String party; // Szerződő fél 1, ha szerinte csoportosítunk, különben null
+    private final String period; // Év ("2024") vagy hónap ("2024-03"), ha szerinte csoportosítunk
+    private final long count; // Szerződések száma
+    private final long sumFiller; // Összegek összesen, fillérben
+    private final long minFiller; // Legkisebb összeg, fillérben
+    private final long maxFiller; // Legnagyobb összeg, fillérben
+
+    public ContractSummary(String party, String period, long count,
+                           long sumFiller, long minFiller, long maxFiller) {
+        this.party = party;
+        this.period = period;
+        this.count = count;
+        this.sumFiller = sumFiller;
+        this.minFiller = minFiller;
+        this.maxFiller = maxFiller;
+    }
+
+    // --- Getterek ---
+
+    public String getParty() {
+        return party;
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSumFiller() {
+        return sumFiller;
+    }
+
+    public BigDecimal getSum() {
+        return BigDecimal.valueOf(sumFiller, 2);
+    }
+
+    public BigDecimal getMin() {
+        return BigDecimal.valueOf(minFiller, 2);
+    }
+
+    public BigDecimal getMax() {
+        return BigDecimal.valueOf(maxFiller, 2);
+    }
+
+    @Override
+    public String toString() {
+        return (party != null ? party : "") + (period != null ? " " + period : "")
+                + ": " + count + " db, " + getSum() + " Ft";
+    }
+}
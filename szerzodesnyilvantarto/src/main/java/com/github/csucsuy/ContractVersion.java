@@ -0,0 +1,99 @@
+package com.github.csucsuy;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Egy szerződés egy változata a változásnaplóból (contract_history): a
+ * szerződés állapota egy adott módosítás után (törlésnél a törlés előtti utolsó).
+ * Változtathatatlan.
+ */
+public class ContractVersion {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * A naplózott művelet (a contract_history.muvelet oszlop kódja).
+     */
+    public enum Change {
+        INSERT("I", "létrehozás"),
+        UPDATE("U", "módosítás"),
+        DELETE("D", "törlés"),
+        SNAPSHOT("S", "pillanatkép"); // Nem változás: a teljes állapot másolata
+
+        private final String code;
+        private final String label;
+
+        Change(String code, String label) {
+            this.code = code;
+            this.label = label;
+        }
+
+        static Change of(String code) {
+            for (Change change : values()) {
+                if (change.code.equals(code)) {
+                    return change;
+                }
+            }
+            throw new IllegalArgumentException("Ismeretlen napló művelet: " + code);
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private final long seq; // A napló sorszáma
+    private final Change change;
+    private final long timestamp; // epoch ms
+    private final Contract contract;
+
+    public ContractVersion(long seq, Change change, long timestamp, Contract contract) {
+        this.seq = seq;
+        this.change = change;
+        this.timestamp = timestamp;
+        this.contract = contract;
+    }
+
+    // --- Getterek ---
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public Change getChange() {
+        return change;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * A szerződés ebben a változatban (törlésnél a törlés előtti állapot).
+     */
+    public Contract getContract() {
+        return contract;
+    }
+
+    /**
+     * Az időpont után a szerződés már nem létezett.
+     */
+    public boolean isDeleted() {
+        return change == Change.DELETE;
+    }
+
+    /**
+     * Rövid leírás a felületnek, pl. "2024-05-01 12:00:03 módosítás".
+     */
+    public String describe() {
+        return TIME_FORMAT.format(Instant.ofEpochMilli(timestamp).atZone(ZoneId.systemDefault())) + " " + change;
+    }
+
+    @Override
+    public String toString() {
+        return describe() + ": " + contract;
+    }
+}
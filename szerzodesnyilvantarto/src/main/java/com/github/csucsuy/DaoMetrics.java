@@ -0,0 +1,295 @@
+package com.github.csucsuy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Műveletenkénti metrikák a DAO-khoz: hívások, hibák, visszaadott/érintett
+ * sorok, futási idő és kapcsolatszerzési idő hisztogrammal (percentilisekkel).
+ * A lassú (a küszöbnél tovább futó) hívásokat külön számolja.
+ *
+ * Használat egy DAO metódusban:
+ * <pre>
+ * DaoMetrics.Sample sample = metrics.start("getAllContracts");
+ * try (PooledConnection conn = sample.acquired(DatabaseManager.reader())) {
+ *     ...
+ *     sample.success(rows);
+ * } catch (SQLException e) {
+ *     sample.failure();
+ * }
+ * </pre>
+ * Ha a hívás megadja a futtatott utasítást (Sample.statement()), a
+ * lassú lekérdezés napló (SlowQueryLog) küszöbét átlépő hívások a
+ * paramétereikkel és a lekérdezési tervükkel együtt naplózódnak.
+ * JMX-en a DaoMetricsMXBean felületen érhető el (lásd DatabaseManager.getMetrics()).
+ */
+public class DaoMetrics implements DaoMetricsMXBean {
+
+    public static final String OBJECT_NAME = "com.github.csucsuy:type=DaoMetrics";
+
+    private final long slowThresholdNanos;
+    private final SlowQueryLog slowQueryLog;
+    private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+
+    /**
+     * @param slowThresholdMillis E fölötti futási idő lassú hívásnak számít.
+     */
+    public DaoMetrics(long slowThresholdMillis) {
+        this(slowThresholdMillis, null);
+    }
+
+    /**
+     * @param slowThresholdMillis E fölötti futási idő lassú hívásnak számít.
+     * @param slowQueryLog A lassú utasítások naplója (lehet null).
+     */
+    public DaoMetrics(long slowThresholdMillis, SlowQueryLog slowQueryLog) {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * Egy hívás mérésének kezdete.
+     * @param operation A művelet neve (jellemzően a DAO metódus neve).
+     */
+    public Sample start(String operation) {
+        return new Sample(operations.computeIfAbsent(operation, OperationStats::new));
+    }
+
+    /**
+     * Egyetlen hívás mérése. Nem szálbiztos, egy hívás egy szálon használja.
+     */
+    public final class Sample {
+
+        private final OperationStats stats;
+        private final long startNanos = System.nanoTime();
+        private boolean recorded;
+        private PooledConnection connection;
+        private String sql;
+        private Object[] params;
+
+        private Sample(OperationStats stats) {
+            this.stats = stats;
+        }
+
+        /**
+         * Rögzíti a kapcsolatszerzés idejét (a mérés kezdetétől), és visszaadja a kapcsolatot.
+         */
+        public PooledConnection acquired(PooledConnection conn) {
+            stats.acquire.record(System.nanoTime() - startNanos);
+            this.connection = conn;
+            return conn;
+        }
+
+        /**
+         * A futtatott utasítás és a kötött paraméterei, a lassú lekérdezés naplóhoz.
+         */
+        public void statement(String sql, Object... params) {
+            this.sql = sql;
+            this.params = params;
+        }
+
+        /**
+         * Sikeres hívás. A kapcsolatot még a hívó tartja (a try blokkon belül
+         * hívandó), így a lassú lekérdezés napló ugyanazon lekérheti a tervet.
+         * @param rows A visszaadott vagy módosított sorok száma.
+         */
+        public void success(long rows) {
+            finish(rows, false);
+        }
+
+        /**
+         * Sikertelen (kivétellel végződő) hívás. Jellemzően a catch ágban hívjuk,
+         * amikor a kapcsolat már visszakerült a készletbe.
+         */
+        public void failure() {
+            connection = null;
+            finish(0, true);
+        }
+
+        private void finish(long rows, boolean error) {
+            if (recorded) {
+                return;
+            }
+            recorded = true;
+            long elapsed = System.nanoTime() - startNanos;
+            stats.calls.increment();
+            stats.rows.add(rows);
+            if (error) {
+                stats.errors.increment();
+            }
+            if (elapsed >= slowThresholdNanos) {
+                stats.slowCalls.increment();
+            }
+            stats.latency.record(elapsed);
+            if (slowQueryLog != null && sql != null && slowQueryLog.isSlow(elapsed)) {
+                slowQueryLog.log(stats.name, elapsed, rows, sql, params,
+                        connection != null ? connection.getConnection() : null);
+            }
+        }
+    }
+
+    // --- Lekérdezés ---
+
+    @Override
+    public List<OperationSnapshot> getOperations() {
+        List<OperationSnapshot> result = new ArrayList<>();
+        // Név szerint rendezve, hogy a kiírás stabil legyen
+        for (OperationStats stats : new ConcurrentSkipListMap<>(operations).values()) {
+            result.add(stats.snapshot());
+        }
+        return result;
+    }
+
+    @Override
+    public long getTotalCalls() {
+        long total = 0;
+        for (OperationStats stats : operations.values()) {
+            total += stats.calls.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public long getTotalErrors() {
+        long total = 0;
+        for (OperationStats stats : operations.values()) {
+            total += stats.errors.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public long getSlowThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos);
+    }
+
+    @Override
+    public void reset() {
+        operations.clear();
+    }
+
+    @Override
+    public String getTextSnapshot() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-22s %8s %6s %6s %10s %9s %9s %9s %9s %9s %10s%n",
+                "Művelet", "Hívás", "Hiba", "Lassú", "Sor", "Átlag ms", "p50 ms", "p95 ms", "p99 ms",
+                "Max ms", "Kapcs. p99"));
+        for (OperationSnapshot s : getOperations()) {
+            sb.append(String.format("%-22s %8d %6d %6d %10d %9.2f %9.2f %9.2f %9.2f %9.2f %10.2f%n",
+                    s.getName(), s.getCalls(), s.getErrors(), s.getSlowCalls(), s.getRows(),
+                    s.getMeanMillis(), s.getP50Millis(), s.getP95Millis(), s.getP99Millis(),
+                    s.getMaxMillis(), s.getP99AcquireMillis()));
+        }
+        sb.append(String.format("Lassú hívás: legalább %d ms. A percentilisek legfeljebb 12,5%%-kal "
+                + "felfelé kerekítettek.%n", getSlowThresholdMillis()));
+        return sb.toString();
+    }
+
+    /**
+     * Egy művelet gyűjtött adatai.
+     */
+    private static final class OperationStats {
+
+        private final String name;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder slowCalls = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final Histogram latency = new Histogram();
+        private final Histogram acquire = new Histogram();
+
+        OperationStats(String name) {
+            this.name = name;
+        }
+
+        OperationSnapshot snapshot() {
+            return new OperationSnapshot(name, calls.sum(), errors.sum(), slowCalls.sum(), rows.sum(),
+                    latency.meanMillis(), latency.percentileMillis(50), latency.percentileMillis(95),
+                    latency.percentileMillis(99), latency.maxMillis(),
+                    acquire.meanMillis(), acquire.percentileMillis(99));
+        }
+    }
+
+    /**
+     * Zárolásmentes, logaritmikus hisztogram mikroszekundumos felbontással.
+     * Minden kettőhatvány-tartomány 8 egyenlő részre oszlik, így egy érték
+     * legfeljebb 12,5%-kal kerül a vödre felső határa alá.
+     */
+    static final class Histogram {
+
+        private static final int SUB_BUCKETS = 8;
+        private static final int MAX_EXPONENT = 40; // kb. 12 nap mikroszekundumban
+        private static final int BUCKETS = (MAX_EXPONENT - 1) * SUB_BUCKETS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            counts.incrementAndGet(bucketOf(TimeUnit.NANOSECONDS.toMicros(nanos)));
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        static int bucketOf(long micros) {
+            if (micros < SUB_BUCKETS) {
+                return (int) Math.max(micros, 0); // 0..7 µs pontosan
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(micros);
+            if (exponent >= MAX_EXPONENT) {
+                return BUCKETS - 1;
+            }
+            int sub = (int) ((micros >>> (exponent - 3)) & (SUB_BUCKETS - 1));
+            return (exponent - 2) * SUB_BUCKETS + sub;
+        }
+
+        /**
+         * A vödörbe eső legnagyobb érték (µs).
+         */
+        static long bucketUpperMicros(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int exponent = bucket / SUB_BUCKETS + 2;
+            int sub = bucket % SUB_BUCKETS;
+            return ((SUB_BUCKETS + sub + 1L) << (exponent - 3)) - 1;
+        }
+
+        double meanMillis() {
+            long n = count.get();
+            return n == 0 ? 0 : totalNanos.get() / 1e6 / n;
+        }
+
+        double maxMillis() {
+            return maxNanos.get() / 1e6;
+        }
+
+        /**
+         * Az adott percentilis (a vödör felső határa, legfeljebb a maximum).
+         */
+        double percentileMillis(double percentile) {
+            long n = count.get();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(n * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    return Math.min(bucketUpperMicros(i) / 1e3, maxMillis());
+                }
+            }
+            return maxMillis();
+        }
+    }
+}
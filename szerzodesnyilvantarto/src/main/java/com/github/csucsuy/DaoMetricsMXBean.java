@@ -0,0 +1,26 @@
+package com.github.csucsuy;
+
+import java.util.List;
+
+/**
+ * A DAO metrikák JMX felülete (pl. JConsole, VisualVM:
+ * com.github.csucsuy / DaoMetrics).
+ */
+public interface DaoMetricsMXBean {
+
+    /** Műveletenkénti adatok, név szerint rendezve. */
+    List<OperationSnapshot> getOperations();
+
+    long getTotalCalls();
+
+    long getTotalErrors();
+
+    /** E fölötti futási idő lassú hívásnak számít. */
+    long getSlowThresholdMillis();
+
+    /** Ugyanaz a táblázat, ami a főablak menüjéből is megnyitható. */
+    String getTextSnapshot();
+
+    /** Nullázza az összes metrikát. */
+    void reset();
+}
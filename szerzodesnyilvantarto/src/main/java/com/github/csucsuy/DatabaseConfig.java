@@ -0,0 +1,249 @@
+package com.github.csucsuy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+/**
+ * Az adatbázis beállításai (fájl, kapcsolatkészlet, SQLite PRAGMA-k).
+ * Az alapértékek a classpath-on lévő adatbazis.properties fájlból jönnek,
+ * ezeket felülírja egy külső fájl (-Dszerzodes.config=..., vagy
+ * a munkakönyvtárban lévő adatbazis.properties).
+ */
+public class DatabaseConfig {
+
+    public static final String CONFIG_FILE_PROPERTY = "szerzodes.config";
+    private static final String CONFIG_FILE_NAME = "adatbazis.properties";
+    private static final String PRAGMA_PREFIX = "sqlite.";
+
+    // Csak ezeket a PRAGMA-kat engedjük, ebben a sorrendben alkalmazzuk őket
+    // (a busy_timeout legyen az első, a journal_mode váltás zárolást igényel).
+    private static final List<String> SUPPORTED_PRAGMAS = Arrays.asList(
+            "busy_timeout", "page_size", "journal_mode", "synchronous",
+            "cache_size", "mmap_size", "temp_store", "wal_autocheckpoint");
+    // Az értékek nem tartalmazhatnak SQL-ben értelmezhető karaktereket (a PRAGMA nem paraméterezhető)
+    private static final Pattern PRAGMA_VALUE = Pattern.compile("-?[A-Za-z0-9_]+");
+
+    private final Properties properties;
+    private final String source;
+
+    DatabaseConfig(Properties properties, String source) {
+        this.properties = properties;
+        this.source = source;
+    }
+
+    /**
+     * Betölti a beállításokat az alapértékekből és az esetleges külső fájlból.
+     */
+    public static DatabaseConfig load() {
+        Properties props = new Properties();
+        String source = "classpath:" + CONFIG_FILE_NAME;
+
+        try (InputStream in = DatabaseConfig.class.getResourceAsStream("/" + CONFIG_FILE_NAME)) {
+            if (in != null) {
+                props.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            System.err.println("Hiba az alapértelmezett beállítások betöltésekor: " + e.getMessage());
+        }
+
+        Path external = Paths.get(System.getProperty(CONFIG_FILE_PROPERTY, CONFIG_FILE_NAME));
+        if (Files.isRegularFile(external)) {
+            try (Reader reader = Files.newBufferedReader(external, StandardCharsets.UTF_8)) {
+                props.load(reader);
+                source = external.toAbsolutePath().toString();
+            } catch (IOException e) {
+                System.err.println("Hiba a beállítások betöltésekor (" + external + "): " + e.getMessage());
+            }
+        }
+        return new DatabaseConfig(props, source);
+    }
+
+    public String getUrl() {
+        return properties.getProperty("db.url", "jdbc:sqlite:szerzodesek.db");
+    }
+
+    public int getReaderPoolSize() {
+        return getInt("pool.readers", 4);
+    }
+
+    public int getStatementCacheSize() {
+        return getInt("pool.statementCache", 32);
+    }
+
+    /**
+     * A ContractCache által memóriában tartott szerződések maximális száma.
+     */
+    public int getCacheSize() {
+        return getInt("cache.size", ContractCache.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Ennél hosszabb (ms) DAO művelet lassúnak számít a metrikákban.
+     */
+    public int getSlowOperationMillis() {
+        return getInt("metrics.slowMillis", 500);
+    }
+
+    /**
+     * Ennél hosszabb (ms) utasítás a lassú lekérdezés naplóba kerül; negatív = kikapcsolva.
+     */
+    public int getSlowLogMillis() {
+        return getInt("slowlog.millis", 500);
+    }
+
+    /**
+     * A lassú lekérdezés napló fájlmintája (java.util.logging.FileHandler, %g = sorszám).
+     */
+    public String getSlowLogFile() {
+        return properties.getProperty("slowlog.file", "lassu-lekerdezesek.%g.log").trim();
+    }
+
+    public int getSlowLogMaxBytes() {
+        return getInt("slowlog.maxBytes", 1024 * 1024);
+    }
+
+    public int getSlowLogFiles() {
+        return getInt("slowlog.files", 5);
+    }
+
+    /**
+     * Az aszinkron írások csoportos véglegesítésénél az első írás legfeljebb
+     * ennyi ms-ot vár a csoport többi tagjára (0 = csak a már várakozókat veszi hozzá).
+     */
+    public int getGroupCommitDelayMillis() {
+        return getInt("groupcommit.maxDelayMillis", 0);
+    }
+
+    /**
+     * Legfeljebb ennyi írás kerül egy csoportos commit-ba.
+     */
+    public int getGroupCommitMaxBatch() {
+        return getInt("groupcommit.maxBatch", 1000);
+    }
+
+    /**
+     * A dokumentum ellenőrzés legfeljebb ennyi fájlrendszer hívást futtat egyszerre.
+     */
+    public int getDocumentScanParallelism() {
+        return getInt("documents.scanParallelism", 16);
+    }
+
+    /**
+     * Ilyen időközönként (perc) ellenőrizzük újra az összes dokumentumot; 0 = csak induláskor.
+     */
+    public int getDocumentRescanMinutes() {
+        return getInt("documents.rescanMinutes", 15);
+    }
+
+    /**
+     * Ilyen időközönként (perc) vizsgáljuk, esedékes-e új változásnapló pillanatkép; 0 = csak induláskor.
+     */
+    public int getHistorySnapshotMinutes() {
+        return getInt("history.snapshotMinutes", 10);
+    }
+
+    /**
+     * Legfeljebb ennyi dokumentum könyvtárat figyelünk fájlrendszer eseményekkel.
+     */
+    public int getDocumentMaxWatchedDirs() {
+        return getInt("documents.maxWatchedDirs", 256);
+    }
+
+    /**
+     * A kezelt dokumentumtár könyvtára. Relatív út esetén az adatbázis fájl
+     * könyvtárához képest értendő, így a tár az adatbázissal együtt menthető.
+     */
+    public Path getDocumentStoreDir() {
+        Path dir = Paths.get(properties.getProperty("documents.storeDir", "dokumentumtar").trim());
+        return dir.isAbsolute() ? dir : getDatabaseDirectory().resolve(dir);
+    }
+
+    /**
+     * A szerkesztőben alapból be legyen-e jelölve a dokumentum tárba másolása.
+     */
+    public boolean isDocumentIngestEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("documents.ingest", "false").trim());
+    }
+
+    /**
+     * A kimutatások a memóriabeli oszlopos pillanatképből készüljenek-e (ColumnarReportDAO),
+     * vagy minden alkalommal SQL lekérdezéssel.
+     */
+    public boolean isColumnarReportsEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("reports.columnar", "true").trim());
+    }
+
+    /**
+     * Az adatbázis fájl könyvtára a db.url alapján (memóriabeli adatbázisnál a munkakönyvtár).
+     */
+    private Path getDatabaseDirectory() {
+        String file = getUrl().replaceFirst("^jdbc:sqlite:", "").replaceFirst("^file:", "");
+        int query = file.indexOf('?');
+        if (query >= 0) {
+            file = file.substring(0, query);
+        }
+        if (file.isEmpty() || file.contains(":memory:")) {
+            return Paths.get("").toAbsolutePath();
+        }
+        Path parent = Paths.get(file).toAbsolutePath().getParent();
+        return parent != null ? parent : Paths.get("").toAbsolutePath();
+    }
+
+    /**
+     * A beállított SQLite PRAGMA-k (név, érték) a fájlbeli "sqlite." előtag nélkül.
+     * Ismeretlen vagy érvénytelen bejegyzés esetén IllegalArgumentException.
+     */
+    public Map<String, String> getPragmas() {
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(PRAGMA_PREFIX) && !SUPPORTED_PRAGMAS.contains(key.substring(PRAGMA_PREFIX.length()))) {
+                throw new IllegalArgumentException("Ismeretlen SQLite beállítás: " + key);
+            }
+        }
+
+        Map<String, String> pragmas = new LinkedHashMap<>();
+        for (String name : SUPPORTED_PRAGMAS) {
+            String value = properties.getProperty(PRAGMA_PREFIX + name);
+            if (value == null) {
+                continue;
+            }
+            value = value.trim();
+            if (!PRAGMA_VALUE.matcher(value).matches()) {
+                throw new IllegalArgumentException("Érvénytelen SQLite beállítás: " + name + "=" + value);
+            }
+            pragmas.put(name, value);
+        }
+        return Collections.unmodifiableMap(pragmas);
+    }
+
+    /**
+     * Honnan származnak a beállítások (fájl elérési út vagy classpath).
+     */
+    public String getSource() {
+        return source;
+    }
+
+    private int getInt(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Érvénytelen szám a beállításokban: " + key + "=" + value, e);
+        }
+    }
+}
@@ -1,11 +1,23 @@
 package com.github.csucsuy;
 
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 /**
  * Ez az osztály felelős az adatbázis kapcsolatért és 
@@ -13,9 +25,42 @@ import java.util.List;
  */
 public class DatabaseManager {
 
-    // Megadjuk az adatbázis fájl nevét.
-    // Ez a projekt gyökerében fog létrejönni.
-    private static final String DATABASE_URL = "jdbc:sqlite:szerzodesek.db";
+    // A beállítások (adatbázis fájl, készlet méret, SQLite PRAGMA-k)
+    // az adatbazis.properties fájlból jönnek, lásd DatabaseConfig.
+    // Alapértelmezés szerint az adatbázis a munkakönyvtárban jön létre.
+    private static DatabaseConfig config;
+
+    // A jelenlegi séma verzió (PRAGMA user_version), lásd migrateSchema()
+    // 1: a dátumok INTEGER epoch napként tárolódnak
+    // 2: az összeg INTEGER fillérként tárolódik (osszeg_filler)
+    // 3: a szerződő felek a parties táblában, a contracts csak az azonosítójukat tárolja
+    private static final int SCHEMA_VERSION = 3;
+
+    // A contracts tábla oszlopai a jelenlegi sémában (a migráció ezeket másolja)
+    private static final String[] CONTRACT_COLUMNS = {
+        "id", "szerzodes_neve", "letrejotte", "vege", "osszeg_filler",
+        "szerzodo_fel_1_id", "szerzodo_fel_2_id", "dokumentum_path"
+    };
+
+    // A változásfolyamban (contract_changes) megtartott bejegyzések száma
+    static final int CHANGE_FEED_SIZE = 10000;
+    // A jelenlegi idő epoch ms-ban, SQL-ben (a változásnapló időpontjai)
+    static final String HISTORY_NOW = "CAST(ROUND((julianday('now') - 2440587.5) * 86400000) AS INTEGER)";
+
+    private static ConnectionPool pool;
+    private static DaoMetrics metrics;
+    private static DocumentStore documentStore;
+    private static ScheduledExecutorService historySnapshots;
+
+    /**
+     * Az aktív beállítások. Az első híváskor töltődnek be.
+     */
+    public static synchronized DatabaseConfig getConfig() {
+        if (config == null) {
+            config = DatabaseConfig.load();
+        }
+        return config;
+    }
 
     /**
      * Létrehozza a kapcsolatot az adatbázishoz.
@@ -25,7 +70,7 @@ public class DatabaseManager {
     public static Connection connect() {
         Connection conn = null;
         try {
-            conn = DriverManager.getConnection(DATABASE_URL);
+            conn = DriverManager.getConnection(getConfig().getUrl());
             // System.out.println("Sikeres csatlakozás az SQLite adatbázishoz.");
         } catch (SQLException e) {
             System.err.println("Hiba a csatlakozás során: " + e.getMessage());
@@ -33,30 +78,172 @@ public class DatabaseManager {
         return conn;
     }
 
+    /**
+     * A közös, hosszú életű kapcsolatkészlet. Az első híváskor jön létre.
+     * @return ConnectionPool objektum
+     */
+    public static synchronized ConnectionPool getPool() {
+        if (pool == null) {
+            DatabaseConfig cfg = getConfig();
+            pool = new ConnectionPool(cfg.getUrl(), cfg.getReaderPoolSize(),
+                    cfg.getStatementCacheSize(), cfg.getPragmas());
+            // Kilépéskor lezárjuk a nyitott kapcsolatokat
+            Runtime.getRuntime().addShutdownHook(new Thread(pool::close));
+        }
+        return pool;
+    }
+
+    /**
+     * Lecseréli a közös kapcsolatkészletet (a korábbit nem zárja le); null esetén
+     * a következő getPool() hívás újat hoz létre a beállításokból.
+     * Csomag szintű, hogy a tesztek a DAO-kat ideiglenes adatbázison futtathassák.
+     */
+    static synchronized void usePool(ConnectionPool replacement) {
+        pool = replacement;
+    }
+
+    /**
+     * A DAO műveletek közös metrikái. Az első híváskor jönnek létre, és
+     * JMX-en is regisztrálódnak (DaoMetrics.OBJECT_NAME).
+     * @return DaoMetrics objektum
+     */
+    public static synchronized DaoMetrics getMetrics() {
+        if (metrics == null) {
+            DatabaseConfig cfg = getConfig();
+            metrics = new DaoMetrics(cfg.getSlowOperationMillis(), new SlowQueryLog(cfg.getSlowLogMillis(),
+                    cfg.getSlowLogFile(), cfg.getSlowLogMaxBytes(), cfg.getSlowLogFiles()));
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(metrics,
+                        new ObjectName(DaoMetrics.OBJECT_NAME));
+            } catch (JMException e) {
+                System.err.println("A metrikák JMX regisztrációja nem sikerült: " + e.getMessage());
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * A kezelt dokumentumtár (az adatbázis mellett, lásd documents.storeDir).
+     * Az első híváskor jön létre; a könyvtár csak az első felvételkor.
+     * @return DocumentStore objektum
+     */
+    public static synchronized DocumentStore getDocumentStore() {
+        if (documentStore == null) {
+            documentStore = new DocumentStore(getConfig().getDocumentStoreDir(), DatabaseManager::writer,
+                    DocumentStore.DEFAULT_GRACE_MILLIS);
+        }
+        return documentStore;
+    }
+
+    /**
+     * Kikölcsönzi az író kapcsolatot (INSERT, UPDATE, DELETE, DDL).
+     * Használat után le kell zárni (try-with-resources), ez visszaadja a készletbe.
+     */
+    public static PooledConnection writer() throws SQLException {
+        return getPool().borrowWriter();
+    }
+
+    /**
+     * Kikölcsönöz egy csak olvasható kapcsolatot (SELECT).
+     * Használat után le kell zárni (try-with-resources), ez visszaadja a készletbe.
+     */
+    public static PooledConnection reader() throws SQLException {
+        return getPool().borrowReader();
+    }
+
+    /**
+     * Kiírja az aktív beállításokat: a konfiguráció forrását, a készlet méretét,
+     * és a PRAGMA-k tényleges értékét, ahogy az SQLite egy olvasó kapcsolaton látja.
+     */
+    public static void printSettings() {
+        DatabaseConfig cfg = getConfig();
+        System.out.println("Beállítások forrása:\t" + cfg.getSource());
+        System.out.println("Adatbázis:\t\t" + cfg.getUrl());
+        System.out.println("Olvasó kapcsolatok:\t" + cfg.getReaderPoolSize());
+        System.out.println("Statement gyorsítótár:\t" + cfg.getStatementCacheSize());
+        System.out.println("Szerződés gyorsítótár:\t" + cfg.getCacheSize());
+        System.out.println("Lassú művelet küszöb:\t" + cfg.getSlowOperationMillis() + " ms");
+        System.out.println("Lassú lekérdezés napló:\t" + cfg.getSlowLogFile() + " ("
+                + cfg.getSlowLogMillis() + " ms felett)");
+        System.out.println("Dokumentumtár:\t\t" + cfg.getDocumentStoreDir()
+                + (cfg.isDocumentIngestEnabled() ? " (felvétel alapból bekapcsolva)" : ""));
+        System.out.println("Dokumentum ellenőrzés:\t" + cfg.getDocumentScanParallelism() + " párhuzamos, "
+                + cfg.getDocumentRescanMinutes() + " percenként");
+        System.out.println("Napló pillanatkép:\t" + cfg.getHistorySnapshotMinutes() + " percenként vizsgálva");
+        System.out.println("Kimutatások:\t\t" + (cfg.isColumnarReportsEnabled()
+                ? "memóriabeli oszlopos pillanatképből" : "SQL lekérdezéssel"));
+
+        try (PooledConnection conn = reader();
+             Statement stmt = conn.getConnection().createStatement()) {
+            for (String name : cfg.getPragmas().keySet()) {
+                try (ResultSet rs = stmt.executeQuery("PRAGMA " + name)) {
+                    String value = rs.next() ? rs.getString(1) : "?";
+                    System.out.println("PRAGMA " + name + ":\t" + value);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Hiba a beállítások lekérdezésekor: " + e.getMessage());
+        }
+    }
+
     /**
      * Létrehozza a szerződések tárolására szolgáló táblát,
-     * ha az még nem létezik.
+     * ha az még nem létezik, egy régebbi adatbázist pedig
+     * a jelenlegi séma verzióra migrál.
      */
     public static void initializeDatabase() {
-        
-        // A CREATE TABLE parancs kiegészítve az "IF NOT EXISTS"-el, hogy ne legyen hiba, ha már létezik.
-        String sqlCreateTable = "CREATE TABLE IF NOT EXISTS contracts ("
-            + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
-            + "szerzodes_neve VARCHAR(255) NOT NULL,"
-            + "letrejotte DATE,"
-            + "vege DATE,"
-            + "osszeg DECIMAL(15, 2),"
-            + "szerzodo_fel_1 VARCHAR(255) NOT NULL,"
-            + "szerzodo_fel_2 VARCHAR(255),"
-            + "dokumentum_path TEXT"
-            + ");";
+
+        // Index a név szerinti listázáshoz és a keyset lapozáshoz (ORDER BY szerzodes_neve, id)
+        String sqlCreateNameIndex = "CREATE INDEX IF NOT EXISTS idx_contracts_nev_id "
+            + "ON contracts(szerzodes_neve, id);";
+
+        // Indexek a dátum szerinti tartomány-lekérdezésekhez (pl. lejáró szerződések).
+        // A dátumok egész számok (napok 1970-01-01 óta), így az index sorrendje az időrend.
+        String sqlCreateVegeIndex = "CREATE INDEX IF NOT EXISTS idx_contracts_vege ON contracts(vege);";
+        // A létrejötte index egyben fedő index az év/hónap szerinti kimutatásokhoz és a
+        // "hatályos ekkor" lekérdezéshez (ContractReportDAO): a táblát nem kell olvasni.
+        // Ez váltja a korábbi, csak a letrejotte oszlopot tartalmazó idx_contracts_letrejotte-t.
+        String sqlCreateLetrejotteIndex = "CREATE INDEX IF NOT EXISTS idx_contracts_letrejotte_vege_osszeg "
+            + "ON contracts(letrejotte, vege, osszeg_filler);";
+        // Fedő index a szerződő felenkénti (és felenként-évenkénti) kimutatásokhoz
+        // Egyben ez szolgálja ki az "összes szerződés X féllel" keresést (első félként)
+        String sqlCreatePartyIndex = "CREATE INDEX IF NOT EXISTS idx_contracts_fel1_letrejotte_osszeg "
+            + "ON contracts(szerzodo_fel_1_id, letrejotte, osszeg_filler);";
+        // A második félként szereplő szerződések keresése (ContractSql.BY_PARTY)
+        String sqlCreateParty2Index = "CREATE INDEX IF NOT EXISTS idx_contracts_fel2 ON contracts(szerzodo_fel_2_id);";
+        // A csatolt dokumentumok legutóbb ellenőrzött állapota (DocumentScanner).
+        // Elérési út szerint kulcsolt, mert több szerződés is hivatkozhat ugyanarra a fájlra.
+        String sqlCreateDocumentStatus = "CREATE TABLE IF NOT EXISTS document_status ("
+            + "dokumentum_path TEXT PRIMARY KEY,"
+            + "letezik INTEGER NOT NULL,"
+            + "meret INTEGER,"
+            + "modositva INTEGER," // epoch ms
+            + "ellenorizve INTEGER NOT NULL" // epoch ms
+            + ") WITHOUT ROWID;";
 
         // Try-with-resources: automatikusan lezárja a kapcsolatot és a statement-et
-        try (Connection conn = connect();
-             Statement stmt = conn.createStatement()) {
+        try (PooledConnection conn = writer();
+             Statement stmt = conn.getConnection().createStatement()) {
             
-            // Tábla létrehozása
-            stmt.execute(sqlCreateTable);
+            // Tábla létrehozása, vagy a meglévő migrálása
+            stmt.execute(createPartiesTableSql());
+            if (!tableExists(stmt, "contracts")) {
+                stmt.execute(createContractsTableSql("contracts"));
+                stmt.execute("PRAGMA user_version = " + SCHEMA_VERSION);
+            } else {
+                migrateSchema(conn.getConnection(), stmt);
+            }
+            stmt.execute(sqlCreateNameIndex);
+            stmt.execute(sqlCreateVegeIndex);
+            stmt.execute("DROP INDEX IF EXISTS idx_contracts_letrejotte");
+            stmt.execute(sqlCreateLetrejotteIndex);
+            stmt.execute(sqlCreatePartyIndex);
+            stmt.execute(sqlCreateParty2Index);
+            stmt.execute(sqlCreateDocumentStatus);
+            createDocumentStore(stmt);
+            createChangeFeed(stmt);
+            createHistory(stmt);
+            createSearchIndex(stmt);
             System.out.println("Adatbázis tábla sikeresen létrehozva (vagy már létezett).");
 
         } catch (SQLException e) {
@@ -64,6 +251,347 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Háttérszálon, history.snapshotMinutes időközönként (és induláskor)
+     * pillanatképet készít a változásnaplóról, ha esedékes (ContractHistory.snapshotIfDue).
+     * Többszöri hívásra is csak egy ütemezés fut. Csak a grafikus felület indítja;
+     * a parancssori eszközök szükség esetén maguk hívják a snapshotIfDue()-t.
+     */
+    static synchronized void startHistorySnapshots() {
+        if (historySnapshots != null) {
+            return;
+        }
+        historySnapshots = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "naplo-pillanatkep");
+            t.setDaemon(true); // Ne tartsa életben az alkalmazást
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        ContractHistory history = new ContractHistory();
+        long minutes = getConfig().getHistorySnapshotMinutes();
+        if (minutes > 0) {
+            historySnapshots.scheduleWithFixedDelay(history::snapshotIfDue, 0, minutes, TimeUnit.MINUTES);
+        } else {
+            historySnapshots.execute(history::snapshotIfDue);
+        }
+    }
+
+    /**
+     * A szerződő felek táblája. Minden név egyszer szerepel; a szerződések az
+     * azonosítóra hivatkoznak (szótár kódolás, lásd PartyDictionary).
+     * Csomag szintű, hogy a tesztek ugyanazzal a sémával dolgozhassanak.
+     */
+    static String createPartiesTableSql() {
+        return "CREATE TABLE IF NOT EXISTS parties ("
+            + "id INTEGER PRIMARY KEY,"
+            + "nev TEXT NOT NULL UNIQUE"
+            + ");";
+    }
+
+    /**
+     * A contracts tábla jelenlegi szerkezete.
+     * A dátumok INTEGER-ként, a 1970-01-01 óta eltelt napok számaként tárolódnak
+     * (LocalDate.toEpochDay()), az összeg pedig INTEGER-ként fillérben.
+     * A szerződő felek a parties tábla azonosítói.
+     * Csomag szintű, hogy a tesztek ugyanazzal a sémával dolgozhassanak.
+     * @param tableName A létrehozandó tábla neve (migrációnál ideiglenes név).
+     */
+    static String createContractsTableSql(String tableName) {
+        return "CREATE TABLE " + tableName + " ("
+            + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+            + "szerzodes_neve VARCHAR(255) NOT NULL,"
+            + "letrejotte INTEGER,"
+            + "vege INTEGER,"
+            + "osszeg_filler INTEGER NOT NULL DEFAULT 0,"
+            + "szerzodo_fel_1_id INTEGER NOT NULL REFERENCES parties(id),"
+            + "szerzodo_fel_2_id INTEGER REFERENCES parties(id),"
+            + "dokumentum_path TEXT"
+            + ");";
+    }
+
+    private static boolean tableExists(Statement stmt, String name) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = '" + name + "'")) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * A meglévő adatbázis migrálása a jelenlegi séma verzióra.
+     * A verziót a PRAGMA user_version tárolja; minden lépés egyetlen
+     * tranzakcióban fut, hiba esetén semmi sem változik.
+     * Csomag szintű a tesztek miatt; a parties táblának már léteznie kell.
+     */
+    static void migrateSchema(Connection conn, Statement stmt) throws SQLException {
+        int version;
+        try (ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            version = rs.next() ? rs.getInt(1) : 0;
+        }
+        if (version >= SCHEMA_VERSION) {
+            return;
+        }
+
+        // Az új tábla oszlopai, és hogy a régi tábla mely kifejezéséből töltjük fel
+        // őket. Alapból változatlanul másolunk; minden lépés csak a saját oszlopait írja felül.
+        Map<String, String> sources = new LinkedHashMap<>();
+        for (String column : CONTRACT_COLUMNS) {
+            sources.put(column, column);
+        }
+        if (version < 1) {
+            // 0 -> 1: a szövegként (ÉÉÉÉ-HH-NN) tárolt dátumokból INTEGER epoch nap.
+            // julianday('1970-01-01') = 2440587.5, így a különbség pontosan az epoch nap.
+            String toEpochDay = "CASE WHEN typeof(%1$s) = 'text' "
+                + "THEN CAST(julianday(%1$s) - 2440587.5 AS INTEGER) ELSE %1$s END";
+            sources.put("letrejotte", String.format(toEpochDay, "letrejotte"));
+            sources.put("vege", String.format(toEpochDay, "vege"));
+        }
+        if (version < 2) {
+            // 1 -> 2: a DECIMAL (a gyakorlatban REAL) összegből egész fillér
+            sources.put("osszeg_filler", "COALESCE(CAST(ROUND(osszeg * 100) AS INTEGER), 0)");
+        }
+        if (version < 3) {
+            // 2 -> 3: a szöveges felekből parties azonosító (a felek a másolás előtt jönnek létre).
+            // Az üres (vagy csak szóközt tartalmazó) név hiányzó fél: NULL, nem üres nevű fél.
+            sources.put("szerzodo_fel_1_id", "(SELECT id FROM parties WHERE nev = " + partySource(1) + ")");
+            sources.put("szerzodo_fel_2_id", "(SELECT id FROM parties WHERE nev = " + partySource(2) + ")");
+        }
+
+        conn.setAutoCommit(false);
+        try {
+            if (version < 3) {
+                stmt.execute("INSERT OR IGNORE INTO parties(nev) "
+                    + "SELECT " + partySource(1) + " FROM contracts WHERE " + partySource(1) + " IS NOT NULL "
+                    + "UNION SELECT " + partySource(2) + " FROM contracts WHERE " + partySource(2) + " IS NOT NULL");
+                // A keresőindex tartalma a felek nevét már a parties táblából veszi:
+                // újra kell építeni (createSearchIndex)
+                stmt.execute("DROP TABLE IF EXISTS contracts_fts");
+            }
+            rebuildContractsTable(conn, stmt, sources);
+            stmt.execute("PRAGMA user_version = " + SCHEMA_VERSION);
+            conn.commit();
+            System.out.println("Adatbázis séma migrálva: " + version + " -> " + SCHEMA_VERSION);
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        // A régi lapok felszabadítása (tranzakción kívül kell futnia)
+        stmt.execute("VACUUM");
+    }
+
+    // A 2-es séma szöveges fél oszlopa a migrációban; az üres név NULL
+    private static String partySource(int party) {
+        return "NULLIF(TRIM(szerzodo_fel_" + party + "), '')";
+    }
+
+    /**
+     * A contracts tábla újraépítése a jelenlegi szerkezettel. Az SQLite nem tud
+     * oszlop típust módosítani, ezért új táblába másolunk és átnevezzük.
+     * Az ID-k és az AUTOINCREMENT számláló megmaradnak.
+     * @param sources Oszlopnév -> a régi táblán kiértékelt SQL kifejezés.
+     */
+    private static void rebuildContractsTable(Connection conn, Statement stmt, Map<String, String> sources)
+            throws SQLException {
+        long sequence = 0;
+        try (ResultSet rs = stmt.executeQuery("SELECT seq FROM sqlite_sequence WHERE name = 'contracts'")) {
+            if (rs.next()) {
+                sequence = rs.getLong(1);
+            }
+        }
+
+        stmt.execute(createContractsTableSql("contracts_new"));
+        stmt.execute("INSERT INTO contracts_new (" + String.join(", ", sources.keySet()) + ") "
+            + "SELECT " + String.join(", ", sources.values()) + " FROM contracts");
+        // A régi táblával együtt az indexei és triggerei is törlődnek, a rá épülő
+        // nézetet pedig előtte töröljük (különben az átnevezés hibát jelez);
+        // ezeket az initializeDatabase() utána újra létrehozza.
+        stmt.execute("DROP VIEW IF EXISTS contracts_fts_forras");
+        stmt.execute("DROP TABLE contracts");
+        stmt.execute("ALTER TABLE contracts_new RENAME TO contracts");
+
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "UPDATE sqlite_sequence SET seq = ? WHERE name = 'contracts' AND seq < ?")) {
+            pstmt.setLong(1, sequence);
+            pstmt.setLong(2, sequence);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Létrehozza a teljes szöveges keresés (FTS5) indexét és az azt a contracts
+     * táblával szinkronban tartó triggereket. Az index "external content" tábla,
+     * tehát a szöveget nem tárolja másodszor, csak a keresőindexet.
+     * A tartalom forrása a contracts_fts_forras nézet, amely a felek nevét a
+     * parties táblából oldja fel; a triggerek ugyanígy, azonosító alapján.
+     * Ha az index most jön létre, a meglévő sorokból felépíti.
+     */
+    private static void createSearchIndex(Statement stmt) throws SQLException {
+        boolean exists = tableExists(stmt, "contracts_fts");
+
+        stmt.execute("CREATE VIEW IF NOT EXISTS contracts_fts_forras AS "
+            + "SELECT c.id, c.szerzodes_neve, p1.nev AS szerzodo_fel_1, p2.nev AS szerzodo_fel_2, "
+            + "c.dokumentum_path FROM contracts c "
+            + "JOIN parties p1 ON p1.id = c.szerzodo_fel_1_id "
+            + "LEFT JOIN parties p2 ON p2.id = c.szerzodo_fel_2_id;");
+
+        // Ékezet-független tokenizálás ("berl" megtalálja a "Bérleti"-t),
+        // prefix index a 2-3 karakteres kereséshez
+        stmt.execute("CREATE VIRTUAL TABLE IF NOT EXISTS contracts_fts USING fts5("
+            + "szerzodes_neve, szerzodo_fel_1, szerzodo_fel_2, dokumentum_path, "
+            + "content='contracts_fts_forras', content_rowid='id', "
+            + "tokenize='unicode61 remove_diacritics 2', prefix='2 3');");
+
+        // A felek neve azonosító alapján (a felek nem törlődnek és nem nevezhetők át,
+        // így a törléskor átadott régi érték megegyezik az indexelttel)
+        String newValues = "new.id, new.szerzodes_neve, " + partyName("new.szerzodo_fel_1_id") + ", "
+            + partyName("new.szerzodo_fel_2_id") + ", new.dokumentum_path";
+        String oldValues = "old.id, old.szerzodes_neve, " + partyName("old.szerzodo_fel_1_id") + ", "
+            + partyName("old.szerzodo_fel_2_id") + ", old.dokumentum_path";
+
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS contracts_fts_ai AFTER INSERT ON contracts BEGIN "
+            + "INSERT INTO contracts_fts(rowid, szerzodes_neve, szerzodo_fel_1, szerzodo_fel_2, dokumentum_path) "
+            + "VALUES (" + newValues + "); "
+            + "END;");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS contracts_fts_ad AFTER DELETE ON contracts BEGIN "
+            + "INSERT INTO contracts_fts(contracts_fts, rowid, szerzodes_neve, szerzodo_fel_1, szerzodo_fel_2, "
+            + "dokumentum_path) "
+            + "VALUES ('delete', " + oldValues + "); "
+            + "END;");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS contracts_fts_au AFTER UPDATE ON contracts BEGIN "
+            + "INSERT INTO contracts_fts(contracts_fts, rowid, szerzodes_neve, szerzodo_fel_1, szerzodo_fel_2, "
+            + "dokumentum_path) "
+            + "VALUES ('delete', " + oldValues + "); "
+            + "INSERT INTO contracts_fts(rowid, szerzodes_neve, szerzodo_fel_1, szerzodo_fel_2, dokumentum_path) "
+            + "VALUES (" + newValues + "); "
+            + "END;");
+
+        if (!exists) {
+            stmt.execute("INSERT INTO contracts_fts(contracts_fts) VALUES ('rebuild');");
+            System.out.println("Keresőindex felépítve a meglévő szerződésekből.");
+        }
+    }
+
+    /**
+     * Létrehozza a kezelt dokumentumtár nyilvántartását (DocumentStore) és a
+     * hivatkozásszámlálást végző triggereket. A számláló a szerződés írásával
+     * egy tranzakcióban változik, így nem csúszhat el a contracts táblától.
+     * A contracts tábla újraépítésekor (migráció) a triggerek törlődnek, ezért
+     * ez minden indításkor lefut. Csomag szintű a tesztek miatt.
+     */
+    static void createDocumentStore(Statement stmt) throws SQLException {
+        stmt.execute("CREATE TABLE IF NOT EXISTS document_store ("
+            + "hash TEXT PRIMARY KEY," // SHA-256, hexadecimálisan
+            + "dokumentum_path TEXT NOT NULL UNIQUE,"
+            + "meret INTEGER NOT NULL,"
+            + "hivatkozas INTEGER NOT NULL DEFAULT 0,"
+            + "felveve INTEGER NOT NULL" // epoch ms, az utolsó felvétel ideje
+            + ") WITHOUT ROWID;");
+        // A takarítás csak a hivatkozás nélküli sorokat keresi: ez az index kicsi marad
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_document_store_arva "
+            + "ON document_store(felveve) WHERE hivatkozas <= 0;");
+
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS document_store_ai AFTER INSERT ON contracts "
+            + "WHEN new.dokumentum_path IS NOT NULL BEGIN "
+            + "UPDATE document_store SET hivatkozas = hivatkozas + 1 WHERE dokumentum_path = new.dokumentum_path; "
+            + "END;");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS document_store_ad AFTER DELETE ON contracts "
+            + "WHEN old.dokumentum_path IS NOT NULL BEGIN "
+            + "UPDATE document_store SET hivatkozas = hivatkozas - 1 WHERE dokumentum_path = old.dokumentum_path; "
+            + "END;");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS document_store_au AFTER UPDATE OF dokumentum_path ON contracts "
+            + "WHEN old.dokumentum_path IS NOT new.dokumentum_path BEGIN "
+            + "UPDATE document_store SET hivatkozas = hivatkozas - 1 WHERE dokumentum_path = old.dokumentum_path; "
+            + "UPDATE document_store SET hivatkozas = hivatkozas + 1 WHERE dokumentum_path = new.dokumentum_path; "
+            + "END;");
+    }
+
+    /**
+     * A szerződések változásainak folyama (contract_changes): minden beszúrás,
+     * módosítás és törlés a szerződés azonosítójával és egy növekvő sorszámmal
+     * kerül bele, ugyanabban a tranzakcióban. Ebből frissül növekményesen a
+     * memóriabeli oszlopos pillanatkép (ContractColumns). Csak az utolsó
+     * CHANGE_FEED_SIZE bejegyzést tartjuk meg; aki ennél régebben frissített,
+     * teljesen újratölt. A triggerek a tábla újraépítésekor törlődnek, ezért
+     * ez minden indításkor lefut. Csomag szintű a tesztek miatt.
+     */
+    static void createChangeFeed(Statement stmt) throws SQLException {
+        stmt.execute("CREATE TABLE IF NOT EXISTS contract_changes ("
+            + "seq INTEGER PRIMARY KEY AUTOINCREMENT,"
+            + "contract_id INTEGER NOT NULL"
+            + ");");
+        // A triggeren belül a last_insert_rowid() a most beszúrt sorszám
+        String trim = "DELETE FROM contract_changes WHERE seq <= last_insert_rowid() - " + CHANGE_FEED_SIZE + "; ";
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS contract_changes_ai AFTER INSERT ON contracts BEGIN "
+            + "INSERT INTO contract_changes(contract_id) VALUES(new.id); " + trim
+            + "END;");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS contract_changes_au AFTER UPDATE ON contracts BEGIN "
+            + "INSERT INTO contract_changes(contract_id) VALUES(new.id); " + trim
+            + "END;");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS contract_changes_ad AFTER DELETE ON contracts BEGIN "
+            + "INSERT INTO contract_changes(contract_id) VALUES(old.id); " + trim
+            + "END;");
+    }
+
+    /**
+     * A szerződések csak bővíthető változásnaplója (contract_history). Minden
+     * beszúrás, módosítás és törlés a szerződés teljes (utáni, törlésnél utolsó)
+     * állapotával kerül bele, a contracts triggerein keresztül ugyanabban a
+     * tranzakcióban, így bármelyik írási út naplózódik. A napló sorai nem
+     * módosíthatók és nem törölhetők. A pillanatképeket (teljes másolat a
+     * naplóban, 'S' művelettel) a ContractHistory készíti; egy korábbi időpont
+     * teljes állapota így a legutóbbi pillanatképtől visszajátszható.
+     * A triggerek a tábla újraépítésekor törlődnek, ezért ez minden indításkor
+     * lefut. Csomag szintű a tesztek miatt.
+     */
+    static void createHistory(Statement stmt) throws SQLException {
+        stmt.execute("CREATE TABLE IF NOT EXISTS contract_history ("
+            + "seq INTEGER PRIMARY KEY AUTOINCREMENT,"
+            + "contract_id INTEGER NOT NULL,"
+            + "muvelet TEXT NOT NULL," // I: létrehozás, U: módosítás, D: törlés, S: pillanatkép
+            + "idopont INTEGER NOT NULL," // epoch ms
+            + "szerzodes_neve TEXT,"
+            + "letrejotte INTEGER,"
+            + "vege INTEGER,"
+            + "osszeg_filler INTEGER,"
+            + "szerzodo_fel_1_id INTEGER,"
+            + "szerzodo_fel_2_id INTEGER,"
+            + "dokumentum_path TEXT"
+            + ");");
+        // Szerződésenként a seq (rowid) szerint rendezve: a legutóbbi változat egy index lépés
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_contract_history_contract ON contract_history(contract_id);");
+        stmt.execute("CREATE TABLE IF NOT EXISTS contract_history_snapshots ("
+            + "id INTEGER PRIMARY KEY,"
+            + "kezdo_seq INTEGER NOT NULL," // A pillanatkép első sora a naplóban
+            + "sorok INTEGER NOT NULL," // A pillanatkép sorainak száma
+            + "idopont INTEGER NOT NULL" // epoch ms
+            + ");");
+
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS contract_history_no_update BEFORE UPDATE ON contract_history "
+            + "BEGIN SELECT RAISE(ABORT, 'A változásnapló nem módosítható'); END;");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS contract_history_no_delete BEFORE DELETE ON contract_history "
+            + "BEGIN SELECT RAISE(ABORT, 'A változásnapló nem törölhető'); END;");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS contract_history_ai AFTER INSERT ON contracts BEGIN "
+            + historyInsert("I", "new") + "END;");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS contract_history_au AFTER UPDATE ON contracts BEGIN "
+            + historyInsert("U", "new") + "END;");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS contract_history_ad AFTER DELETE ON contracts BEGIN "
+            + historyInsert("D", "old") + "END;");
+    }
+
+    // A napló egy sora a trigger new/old sorából; az időpont az SQLite órájából, ezredmásodpercre
+    private static String historyInsert(String operation, String row) {
+        return "INSERT INTO contract_history(contract_id, muvelet, idopont, szerzodes_neve, letrejotte, vege, "
+            + "osszeg_filler, szerzodo_fel_1_id, szerzodo_fel_2_id, dokumentum_path) VALUES("
+            + row + ".id, '" + operation + "', " + HISTORY_NOW + ", "
+            + row + ".szerzodes_neve, " + row + ".letrejotte, " + row + ".vege, " + row + ".osszeg_filler, "
+            + row + ".szerzodo_fel_1_id, " + row + ".szerzodo_fel_2_id, " + row + ".dokumentum_path); ";
+    }
+
+    private static String partyName(String idColumn) {
+        return "(SELECT nev FROM parties WHERE id = " + idColumn + ")";
+    }
+
     /**
      * A program indításakor hívjuk meg ezt a main metódust a teszteléshez.
      */
@@ -71,6 +599,12 @@ public class DatabaseManager {
     // 1. Adatbázis inicializálása (tábla létrehozása, ha kell)
         DatabaseManager.initializeDatabase();
 
+        // --settings: csak az aktív beállítások kiírása
+        if (args.length > 0 && "--settings".equals(args[0])) {
+            printSettings();
+            return;
+        }
+
         // 2. DAO példányosítása
         ContractDAO dao = new ContractDAO();
 
@@ -79,7 +613,7 @@ public class DatabaseManager {
         Contract ujSzerzodes = new Contract();
         ujSzerzodes.setSzerzodesNeve("Teszt Szerződés 2025");
         ujSzerzodes.setSzerzodoFel1("Java Program Kft.");
-        ujSzerzodes.setOsszeg(150000.50);
+        ujSzerzodes.setOsszeg(new BigDecimal("150000.50"));
         ujSzerzodes.setLetrejotte(LocalDate.of(2025, 1, 15));
         ujSzerzodes.setDokumentumPath("C:/temp/teszt.pdf");
 
@@ -98,5 +632,8 @@ public class DatabaseManager {
                 System.out.println(c.toString());
             }
         }
+
+        System.out.println("\n--- Kapcsolatkészlet ---");
+        System.out.println(getPool().metricsSummary());
     }
 }
\ No newline at end of file
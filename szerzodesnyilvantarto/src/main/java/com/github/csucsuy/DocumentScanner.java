@@ -0,0 +1,334 @@
+package com.github.csucsuy;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A csatolt dokumentumok (dokumentum_path) háttérbeli ellenőrzése.
+ *
+ * Indításkor a document_status táblából tölti be a legutóbb ismert állapotokat,
+ * majd az összes elérési utat párhuzamosan (virtuális szálakon, legfeljebb
+ * "parallelism" egyidejű fájlrendszer hívással) ellenőrzi; egy lassú hálózati
+ * meghajtó így csak a saját ellenőrzését tartja fel. Csak a megváltozott
+ * állapotok kerülnek vissza a táblába.
+ *
+ * A dokumentumokat tartalmazó könyvtárakat WatchService figyeli, így egy fájl
+ * létrehozása, törlése vagy módosítása után csak az érintett út ellenőrződik
+ * újra. Ahol a figyelés nem működik (pl. hálózati meghajtón más gép változásai),
+ * ott az időszakos teljes újraellenőrzés (rescanMinutes) pótolja.
+ *
+ * A getStatus() egy memóriabeli táblából olvas, nincs benne fájl- vagy
+ * adatbázis művelet, így az Event Dispatch Thread-ről is hívható.
+ */
+public class DocumentScanner implements AutoCloseable {
+
+    /**
+     * Értesítés megváltozott állapotokról. Háttérszálon hívódik!
+     */
+    public interface Listener {
+        void statusesChanged(Collection<DocumentStatus> changed);
+    }
+
+    // Egy menetben ennyi utat ellenőrzünk és mentünk, mielőtt értesítünk
+    private static final int SCAN_CHUNK = 1000;
+
+    private final DocumentStatusDAO dao;
+    private final long rescanMillis;
+    private final int maxWatchedDirs;
+    private final Semaphore permits;
+
+    private final Map<String, DocumentStatus> statuses = new ConcurrentHashMap<>();
+    private final Map<Path, Set<String>> watchedDirs = new ConcurrentHashMap<>(); // könyvtár -> a benne lévő utak
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final ExecutorService checkers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("dokumentum-ellenorzo-", 0).factory());
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "dokumentum-szkenner");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private WatchService watchService;
+    private volatile boolean closed;
+
+    /**
+     * @param dao Az állapotok tárolása.
+     * @param parallelism Legfeljebb ennyi fájlrendszer ellenőrzés fut egyszerre.
+     * @param rescanMinutes Ilyen időközönként minden utat újraellenőrzünk (0 = csak induláskor).
+     * @param maxWatchedDirs Legfeljebb ennyi könyvtárat figyelünk (a többit csak az újraellenőrzés frissíti).
+     */
+    public DocumentScanner(DocumentStatusDAO dao, int parallelism, int rescanMinutes, int maxWatchedDirs) {
+        this.dao = dao;
+        this.permits = new Semaphore(Math.max(1, parallelism));
+        this.rescanMillis = TimeUnit.MINUTES.toMillis(Math.max(0, rescanMinutes));
+        this.maxWatchedDirs = maxWatchedDirs;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Elindítja a háttérmunkát: a tárolt állapotok betöltését, a teljes
+     * ellenőrzést (majd időszakosan újra) és a fájlrendszer figyelését.
+     */
+    public void start() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            Thread watcher = new Thread(this::watchLoop, "dokumentum-figyelo");
+            watcher.setDaemon(true);
+            watcher.start();
+        } catch (IOException | UnsupportedOperationException e) {
+            System.err.println("A fájlrendszer figyelése nem elérhető, csak időszakos ellenőrzés lesz: "
+                    + e.getMessage());
+        }
+        scheduler.execute(this::loadStored);
+        if (rescanMillis > 0) {
+            scheduler.scheduleWithFixedDelay(this::scanAll, 0, rescanMillis, TimeUnit.MILLISECONDS);
+        } else {
+            scheduler.execute(this::scanAll);
+        }
+    }
+
+    /**
+     * A legutóbb ismert állapot, vagy null, ha az utat még nem ellenőriztük.
+     * Nem végez I/O-t.
+     */
+    public DocumentStatus getStatus(String path) {
+        return path == null ? null : statuses.get(path);
+    }
+
+    /**
+     * Ismert-e, hogy az adott dokumentum hiányzik. Nem végez I/O-t.
+     */
+    public boolean isKnownMissing(String path) {
+        DocumentStatus status = getStatus(path);
+        return status != null && status.isMissing();
+    }
+
+    /**
+     * Egy út (újra)ellenőrzése a háttérben, pl. mentés vagy sikertelen megnyitás után.
+     */
+    public void check(String path) {
+        if (path == null || path.isEmpty() || closed) {
+            return;
+        }
+        scheduler.execute(() -> publish(checkChunk(Collections.singletonList(path))));
+    }
+
+    // --- Háttérmunka (a "dokumentum-szkenner" szálon) ---
+
+    private void loadStored() {
+        Map<String, DocumentStatus> stored = dao.loadAll();
+        for (DocumentStatus status : stored.values()) {
+            statuses.putIfAbsent(status.getPath(), status);
+        }
+        notifyListeners(stored.values());
+    }
+
+    /**
+     * Minden hivatkozott út ellenőrzése, darabokban; a már nem hivatkozott utak törlése.
+     * Ha a hivatkozott utak nem kérdezhetők le (pl. foglalt adatbázis), csak a már
+     * ismert utakat ellenőrizzük, és semmit sem törlünk.
+     */
+    void scanAll() {
+        List<String> paths = dao.findDocumentPaths();
+        boolean prune = paths != null;
+        if (paths == null) {
+            paths = new ArrayList<>(statuses.keySet());
+        }
+        for (int from = 0; from < paths.size() && !closed; from += SCAN_CHUNK) {
+            publish(checkChunk(paths.subList(from, Math.min(from + SCAN_CHUNK, paths.size()))));
+        }
+        if (prune && statuses.keySet().retainAll(new HashSet<>(paths))) {
+            dao.deleteOrphans();
+        }
+    }
+
+    /**
+     * A megadott utak párhuzamos ellenőrzése. A könyvtár figyelésének felvétele is itt,
+     * ugyanazon a korláton belül fut: egy elérhetetlen hálózati könyvtár így csak a
+     * saját útjait tartja fel, nem az egész menetet.
+     * @return Azok az állapotok, amelyek eltérnek a legutóbb ismerttől.
+     */
+    private List<DocumentStatus> checkChunk(List<String> paths) {
+        List<Future<DocumentStatus>> futures = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            futures.add(checkers.submit(() -> {
+                permits.acquire();
+                try {
+                    watchDirectoryOf(path); // Az ellenőrzés előtt: így a közben történt változás sem vész el
+                    return inspect(path);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+        List<DocumentStatus> changed = new ArrayList<>();
+        for (Future<DocumentStatus> future : futures) {
+            try {
+                DocumentStatus status = future.get();
+                if (!status.sameStateAs(statuses.get(status.getPath()))) {
+                    changed.add(status);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                System.err.println("Hiba a dokumentum ellenőrzésekor: " + e.getCause());
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * A megváltozott állapotok mentése, a memóriabeli tábla frissítése és az értesítés.
+     */
+    private void publish(List<DocumentStatus> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        dao.saveAll(changed);
+        for (DocumentStatus status : changed) {
+            statuses.put(status.getPath(), status);
+        }
+        notifyListeners(changed);
+    }
+
+    private void notifyListeners(Collection<DocumentStatus> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        Collection<DocumentStatus> view = Collections.unmodifiableCollection(changed);
+        for (Listener listener : listeners) {
+            listener.statusesChanged(view);
+        }
+    }
+
+    /**
+     * Egy út állapota a fájlrendszerből. Könyvtár vagy érvénytelen út hiányzónak számít.
+     */
+    static DocumentStatus inspect(String path) {
+        long now = System.currentTimeMillis();
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(Paths.get(path), BasicFileAttributes.class);
+            if (!attrs.isRegularFile()) {
+                return DocumentStatus.missing(path, now);
+            }
+            return new DocumentStatus(path, true, attrs.size(), attrs.lastModifiedTime().toMillis(), now);
+        } catch (InvalidPathException | IOException | SecurityException e) {
+            // Nem létező fájl, elérhetetlen hálózati meghajtó vagy jogosultság hiánya: nem nyitható meg
+            return DocumentStatus.missing(path, now);
+        }
+    }
+
+    // --- Fájlrendszer figyelés ---
+
+    // Az ellenőrző szálakon, párhuzamosan is hívódhat
+    private void watchDirectoryOf(String path) {
+        if (watchService == null) {
+            return;
+        }
+        Path dir;
+        try {
+            dir = Paths.get(path).toAbsolutePath().getParent();
+        } catch (InvalidPathException e) {
+            return;
+        }
+        if (dir == null) {
+            return;
+        }
+        Set<String> paths = watchedDirs.get(dir);
+        if (paths == null) {
+            if (watchedDirs.size() >= maxWatchedDirs || !Files.isDirectory(dir)) {
+                return;
+            }
+            try {
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+            } catch (IOException | ClosedWatchServiceException e) {
+                return; // Pl. elfogyott a figyelhető könyvtárak száma: marad az időszakos ellenőrzés
+            }
+            paths = watchedDirs.computeIfAbsent(dir, d -> ConcurrentHashMap.newKeySet());
+        }
+        paths.add(path);
+    }
+
+    private void watchLoop() {
+        try {
+            while (!closed) {
+                WatchKey key = watchService.take();
+                Path dir = (Path) key.watchable();
+                Set<String> paths = watchedDirs.getOrDefault(dir, Collections.emptySet());
+                List<String> affected = new ArrayList<>();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        affected.addAll(paths); // Elveszett események: a könyvtár minden útja
+                        continue;
+                    }
+                    Path name = (Path) event.context();
+                    for (String path : paths) {
+                        if (name.equals(Paths.get(path).getFileName())) {
+                            affected.add(path);
+                        }
+                    }
+                }
+                if (!key.reset()) {
+                    // A könyvtár megszűnt: a benne lévő utak hiányoznak
+                    watchedDirs.remove(dir);
+                    affected.addAll(paths);
+                }
+                if (!affected.isEmpty() && !closed) {
+                    List<String> unique = new ArrayList<>(new HashSet<>(affected));
+                    scheduler.execute(() -> publish(checkChunk(unique)));
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Leállítás
+        }
+    }
+
+    int watchedDirectoryCount() {
+        return watchedDirs.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        scheduler.shutdownNow();
+        checkers.shutdownNow();
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                System.err.println("Hiba a fájlfigyelő lezárásakor: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.csucsuy;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Egy csatolt dokumentum (dokumentum_path) ellenőrzött állapota:
+ * létezik-e, mekkora és mikor módosult utoljára.
+ * A DocumentScanner tölti ki a háttérben, a felület csak olvassa.
+ */
+public class DocumentStatus {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final String path;
+    private final boolean exists;
+    private final long size; // bájt; -1, ha nem létezik
+    private final long lastModified; // epoch ms; 0, ha nem létezik
+    private final long checkedAt; // epoch ms
+
+    public DocumentStatus(String path, boolean exists, long size, long lastModified, long checkedAt) {
+        this.path = path;
+        this.exists = exists;
+        this.size = exists ? size : -1;
+        this.lastModified = exists ? lastModified : 0;
+        this.checkedAt = checkedAt;
+    }
+
+    /**
+     * Nem található (vagy nem elérhető) dokumentum.
+     */
+    public static DocumentStatus missing(String path, long checkedAt) {
+        return new DocumentStatus(path, false, -1, 0, checkedAt);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public boolean exists() {
+        return exists;
+    }
+
+    public boolean isMissing() {
+        return !exists;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public long getCheckedAt() {
+        return checkedAt;
+    }
+
+    /**
+     * Ugyanazt a fájl állapotot írja-e le (az ellenőrzés idejétől eltekintve).
+     */
+    public boolean sameStateAs(DocumentStatus other) {
+        return other != null && exists == other.exists && size == other.size
+                && lastModified == other.lastModified;
+    }
+
+    /**
+     * Rövid, olvasható leírás a részletek panelhez.
+     */
+    public String describe() {
+        if (!exists) {
+            return "NEM TALÁLHATÓ (ellenőrizve: " + format(checkedAt) + ")";
+        }
+        return String.format("megvan, %,d bájt, módosítva: %s", size, format(lastModified));
+    }
+
+    private static String format(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()).format(TIME_FORMAT);
+    }
+
+    @Override
+    public String toString() {
+        return path + ": " + describe();
+    }
+}
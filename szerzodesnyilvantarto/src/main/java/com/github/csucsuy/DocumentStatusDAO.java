@@ -0,0 +1,128 @@
+package com.github.csucsuy;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A dokumentumok ellenőrzött állapotának tárolása a document_status táblában.
+ * A tábla elérési út szerint kulcsolt (több szerződés is hivatkozhat ugyanarra
+ * a fájlra), így indításkor a felület a fájlrendszer érintése nélkül
+ * megjelenítheti a legutóbb ismert állapotot.
+ */
+public class DocumentStatusDAO {
+
+    private static final String UPSERT_SQL = "INSERT OR REPLACE INTO document_status"
+            + "(dokumentum_path, letezik, meret, modositva, ellenorizve) VALUES(?, ?, ?, ?, ?)";
+
+    /**
+     * Az összes tárolt állapot, elérési út szerint.
+     */
+    public Map<String, DocumentStatus> loadAll() {
+        Map<String, DocumentStatus> result = new HashMap<>();
+        String sql = "SELECT dokumentum_path, letezik, meret, modositva, ellenorizve FROM document_status";
+        DaoMetrics.Sample sample = ContractDAO.startSample("documentStatusLoad");
+        sample.statement(sql);
+
+        try (PooledConnection conn = sample.acquired(DatabaseManager.reader());
+             ResultSet rs = conn.prepare(sql).executeQuery()) {
+            while (rs.next()) {
+                String path = rs.getString(1);
+                result.put(path, new DocumentStatus(path, rs.getInt(2) != 0, rs.getLong(3),
+                        rs.getLong(4), rs.getLong(5)));
+            }
+            sample.success(result.size());
+        } catch (SQLException e) {
+            sample.failure();
+            System.err.println("Hiba a dokumentum állapotok betöltésekor: " + e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * A szerződésekben előforduló (nem üres) dokumentum elérési utak, ismétlődés nélkül.
+     * @return Az utak, vagy null, ha a lekérdezés nem sikerült (az üres lista azt jelenti,
+     *         hogy nincs hivatkozott dokumentum, erre a hívó törölheti az állapotokat).
+     */
+    public List<String> findDocumentPaths() {
+        List<String> paths = new ArrayList<>();
+        String sql = "SELECT DISTINCT dokumentum_path FROM contracts "
+                + "WHERE dokumentum_path IS NOT NULL AND dokumentum_path <> ''";
+        DaoMetrics.Sample sample = ContractDAO.startSample("findDocumentPaths");
+        sample.statement(sql);
+
+        try (PooledConnection conn = sample.acquired(DatabaseManager.reader());
+             ResultSet rs = conn.prepare(sql).executeQuery()) {
+            while (rs.next()) {
+                paths.add(rs.getString(1));
+            }
+            sample.success(paths.size());
+        } catch (SQLException e) {
+            sample.failure();
+            System.err.println("Hiba a dokumentum elérési utak lekérdezésekor: " + e.getMessage());
+            return null;
+        }
+        return paths;
+    }
+
+    /**
+     * Az állapotok mentése (felülírása) egy tranzakcióban.
+     * @return A mentett sorok száma (hiba esetén 0).
+     */
+    public int saveAll(Collection<DocumentStatus> statuses) {
+        if (statuses.isEmpty()) {
+            return 0;
+        }
+        DaoMetrics.Sample sample = ContractDAO.startSample("documentStatusSave");
+        sample.statement(UPSERT_SQL);
+
+        try (PooledConnection conn = sample.acquired(DatabaseManager.writer())) {
+            conn.getConnection().setAutoCommit(false);
+            PreparedStatement pstmt = conn.prepare(UPSERT_SQL);
+            for (DocumentStatus status : statuses) {
+                pstmt.setString(1, status.getPath());
+                pstmt.setInt(2, status.exists() ? 1 : 0);
+                pstmt.setLong(3, status.getSize());
+                pstmt.setLong(4, status.getLastModified());
+                pstmt.setLong(5, status.getCheckedAt());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            conn.getConnection().commit();
+            conn.getConnection().setAutoCommit(true);
+            sample.success(statuses.size());
+            return statuses.size();
+        } catch (SQLException e) {
+            sample.failure();
+            // A félbehagyott tranzakciót a kapcsolatkészlet visszagörgeti
+            System.err.println("Hiba a dokumentum állapotok mentésekor: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Törli azokat az állapotokat, amelyekre már egyetlen szerződés sem hivatkozik.
+     * @return A törölt sorok száma.
+     */
+    public int deleteOrphans() {
+        String sql = "DELETE FROM document_status WHERE dokumentum_path NOT IN "
+                + "(SELECT dokumentum_path FROM contracts WHERE dokumentum_path IS NOT NULL)";
+        DaoMetrics.Sample sample = ContractDAO.startSample("documentStatusCleanup");
+        sample.statement(sql);
+
+        try (PooledConnection conn = sample.acquired(DatabaseManager.writer())) {
+            int deleted = conn.prepare(sql).executeUpdate();
+            sample.success(deleted);
+            return deleted;
+        } catch (SQLException e) {
+            sample.failure();
+            System.err.println("Hiba a dokumentum állapotok takarításakor: " + e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.github.csucsuy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Kezelt dokumentumtár: a csatolt fájlok másolata az adatbázis mellett,
+ * a tartalom SHA-256 hash-ével elnevezve (tartalom szerinti címzés).
+ *
+ * Ugyanaz a tartalom csak egyszer tárolódik, akárhány szerződés és akárhány
+ * eredeti fájlnév hivatkozik rá. A másolás FileChannel.transferTo-val történik,
+ * így az adat nem megy át a Java heap-en (ahol az operációs rendszer
+ * támogatja, a kernel másol közvetlenül).
+ *
+ * A hivatkozások számát a document_store tábla tartja nyilván; a contracts
+ * táblán lévő triggerek (DatabaseManager.createDocumentStore) ugyanabban a
+ * tranzakcióban növelik/csökkentik, amelyben a szerződés változik, így
+ * bármelyik írási út (DAO, csoportos író, import) konzisztens marad.
+ * A már nem hivatkozott fájlokat a releaseUnreferenced() törli: a
+ * ContractDAO.deleteContract és updateContract után azonnal, a többi írási
+ * út után a következő takarításkor. A változásnapló (contract_history) régi
+ * állapotai ilyenkor is a törölt példány útját őrzik; a részletek egy korábbi
+ * nap állapotánál ezt elérhetetlenként jelzik.
+ */
+public class DocumentStore {
+
+    // A felvett, de még egyetlen szerződéshez sem mentett fájl ennyi ideig
+    // nem törölhető (a felvétel és a szerződés mentése között ne tűnjön el)
+    public static final long DEFAULT_GRACE_MILLIS = 60L * 60 * 1000;
+
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+    // A kiterjesztést megtartjuk, hogy az operációs rendszer a megfelelő programmal nyissa meg
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,10}");
+
+    private static final String FIND_SQL = "SELECT dokumentum_path FROM document_store WHERE hash = ?";
+    private static final String REGISTER_SQL = "INSERT INTO document_store"
+            + "(hash, dokumentum_path, meret, hivatkozas, felveve) VALUES(?, ?, ?, 0, ?) "
+            + "ON CONFLICT(hash) DO UPDATE SET felveve = excluded.felveve";
+    private static final String UNREFERENCED_SQL = "SELECT hash, dokumentum_path FROM document_store "
+            + "WHERE hivatkozas <= 0 AND felveve <= ?";
+    private static final String DELETE_SQL = "DELETE FROM document_store WHERE hash = ? AND hivatkozas <= 0";
+
+    private final Path root;
+    private final GroupCommitWriter.WriterSource writers;
+    private final long graceMillis;
+
+    /**
+     * @param root A tár könyvtára (szükség esetén létrejön).
+     * @param writers Az író kapcsolat forrása (pl. DatabaseManager::writer).
+     * @param graceMillis A még nem hivatkozott, frissen felvett fájlok védett ideje.
+     */
+    public DocumentStore(Path root, GroupCommitWriter.WriterSource writers, long graceMillis) {
+        this.root = root.toAbsolutePath().normalize();
+        this.writers = writers;
+        this.graceMillis = graceMillis;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * A tárban lévő fájlra mutat-e az út (ilyenkor nem kell újra felvenni).
+     */
+    public boolean contains(String path) {
+        if (path == null || path.isEmpty()) {
+            return false;
+        }
+        return Paths.get(path).toAbsolutePath().normalize().startsWith(root);
+    }
+
+    /**
+     * Felvesz egy fájlt a tárba. Ha ugyanez a tartalom már bent van, nem másol,
+     * csak a meglévő példány útját adja vissza.
+     *
+     * A hash számítás és a másolás (fsync-kel együtt) az író kapcsolaton kívül,
+     * egy ideiglenes fájlba történik; az író kapcsolatot csak a keresés, az
+     * átnevezés és a nyilvántartás idejére fogjuk. Így egy nagy vagy lassú
+     * meghajtón lévő fájl nem tartja fel a többi írást. Az átnevezés és a
+     * nyilvántartás ugyanazon kapcsolat alatt történik, ezért közben a
+     * releaseUnreferenced() nem törölheti a példányt.
+     * @param source Az eredeti fájl.
+     * @return A tárbeli példány abszolút útja; ezt kell a szerződésben tárolni.
+     * @throws IOException Ha a fájl nem olvasható / nem másolható, vagy a nyilvántartás nem sikerült.
+     */
+    public String ingest(Path source) throws IOException {
+        String hash = sha256(source);
+        long size = Files.size(source);
+        Path prepared = null; // A már kiírt (fsync-elt) ideiglenes másolat
+        try {
+            while (true) {
+                DaoMetrics.Sample sample = ContractDAO.startSample("documentIngest");
+                sample.statement(FIND_SQL, hash);
+                Path target;
+                try (PooledConnection conn = sample.acquired(writers.borrow())) {
+                    target = find(conn, hash);
+                    if (target == null) {
+                        target = blobPath(hash, source);
+                    }
+                    // Másolni kell, ha új a tartalom, vagy ha a tárbeli példányt kívülről
+                    // törölték / megcsonkították
+                    boolean present = Files.isRegularFile(target) && Files.size(target) == size;
+                    if (present || prepared != null) {
+                        if (!present) {
+                            Files.move(prepared, target, StandardCopyOption.ATOMIC_MOVE,
+                                    StandardCopyOption.REPLACE_EXISTING);
+                            prepared = null;
+                        }
+                        register(conn, hash, target, size);
+                        sample.success(present ? 0 : 1);
+                        return target.toString();
+                    }
+                    sample.success(0);
+                } catch (SQLException e) {
+                    sample.failure();
+                    throw new IOException("A dokumentumtár nyilvántartása nem sikerült: " + e.getMessage(), e);
+                }
+                // Az író kapcsolat nélkül másolunk, utána újra megnézzük a nyilvántartást
+                prepared = copyToTemp(source, target);
+            }
+        } finally {
+            if (prepared != null) {
+                Files.deleteIfExists(prepared);
+            }
+        }
+    }
+
+    private static Path find(PooledConnection conn, String hash) throws SQLException {
+        PreparedStatement find = conn.prepare(FIND_SQL);
+        find.setString(1, hash);
+        try (ResultSet rs = find.executeQuery()) {
+            return rs.next() ? Paths.get(rs.getString(1)) : null;
+        }
+    }
+
+    private static void register(PooledConnection conn, String hash, Path target, long size) throws SQLException {
+        PreparedStatement register = conn.prepare(REGISTER_SQL);
+        register.setString(1, hash);
+        register.setString(2, target.toString());
+        register.setLong(3, size);
+        register.setLong(4, System.currentTimeMillis()); // Meglévőnél is: újra védett időszak
+        register.executeUpdate();
+    }
+
+    /**
+     * Törli azokat a tárbeli fájlokat, amelyekre már egyetlen szerződés sem hivatkozik
+     * (a védett időn túl).
+     * @return A törölt fájlok száma.
+     */
+    public int releaseUnreferenced() {
+        DaoMetrics.Sample sample = ContractDAO.startSample("documentRelease");
+        long cutoff = System.currentTimeMillis() - graceMillis;
+        sample.statement(UNREFERENCED_SQL, cutoff);
+
+        try (PooledConnection conn = sample.acquired(writers.borrow())) {
+            List<String[]> candidates = new ArrayList<>();
+            PreparedStatement select = conn.prepare(UNREFERENCED_SQL);
+            select.setLong(1, cutoff);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    candidates.add(new String[] {rs.getString(1), rs.getString(2)});
+                }
+            }
+
+            int released = 0;
+            PreparedStatement delete = conn.prepare(DELETE_SQL);
+            for (String[] candidate : candidates) {
+                // Az író kapcsolatot fogjuk, így közben nem kaphatott új hivatkozást
+                delete.setString(1, candidate[0]);
+                if (delete.executeUpdate() == 0) {
+                    continue;
+                }
+                try {
+                    Files.deleteIfExists(Paths.get(candidate[1]));
+                    released++;
+                } catch (IOException e) {
+                    System.err.println("A dokumentum nem törölhető a tárból: " + candidate[1]
+                            + " (" + e.getMessage() + ")");
+                }
+            }
+            sample.success(released);
+            return released;
+        } catch (SQLException e) {
+            sample.failure();
+            System.err.println("Hiba a dokumentumtár takarításakor: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * A tárbeli fájl helye: <tár>/<hash első 2 karaktere>/<hash>.<kiterjesztés>.
+     * Az alkönyvtárak miatt egy könyvtárban sem lesz túl sok fájl.
+     */
+    private Path blobPath(String hash, Path source) {
+        String name = source.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String extension = dot >= 0 ? name.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+        String fileName = EXTENSION.matcher(extension).matches() ? hash + "." + extension : hash;
+        return root.resolve(hash.substring(0, 2)).resolve(fileName);
+    }
+
+    /**
+     * Másolás a célkönyvtárbeli ideiglenes fájlba transferTo-val, fsync-kel.
+     * A végleges nevet a hívó adja az atomi átnevezéssel: félkész fájl soha
+     * nem látszik a végleges néven.
+     * @return Az ideiglenes fájl; hiba esetén nem marad meg.
+     */
+    private static Path copyToTemp(Path source, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        boolean done = false;
+        try {
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                long size = in.size();
+                long position = 0;
+                while (position < size) {
+                    position += in.transferTo(position, size - position, out);
+                }
+                out.force(true);
+            }
+            done = true;
+            return temp;
+        } finally {
+            if (!done) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * A fájl tartalmának SHA-256 hash-e, kisbetűs hexadecimális alakban.
+     */
+    static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 nem elérhető", e); // Minden JVM-nek kötelező
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (in.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
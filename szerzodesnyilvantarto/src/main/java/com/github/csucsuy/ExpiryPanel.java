@@ -0,0 +1,164 @@
+package com.github.csucsuy;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A főablak "Lejáró szerződések" panelje.
+ * Megmutatja, mely szerződések járnak le a következő N napban.
+ * A lekérdezés háttérszálon fut (ContractDAO.findExpiringBetween).
+ */
+public class ExpiryPanel extends JPanel {
+
+    private static final int DEFAULT_DAYS = 30;
+    private static final int MAX_DAYS = 3650;
+
+    private final ContractDAO contractDAO;
+    private final Consumer<Contract> openAction; // Dupla kattintáskor hívjuk
+    private final ExpiryTableModel tableModel = new ExpiryTableModel();
+
+    private JSpinner daysSpinner;
+    private JLabel statusLabel;
+    private SwingWorker<List<Contract>, Void> worker; // Az éppen futó lekérdezés
+
+    /**
+     * @param contractDAO A lekérdezéshez használt DAO.
+     * @param openAction Mit tegyünk egy sorra duplán kattintva (pl. szerkesztés).
+     */
+    public ExpiryPanel(ContractDAO contractDAO, Consumer<Contract> openAction) {
+        super(new BorderLayout(5, 5));
+        this.contractDAO = contractDAO;
+        this.openAction = openAction;
+        initComponents();
+    }
+
+    private void initComponents() {
+        // Felső sáv: napok száma és frissítés gomb
+        JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        daysSpinner = new JSpinner(new SpinnerNumberModel(DEFAULT_DAYS, 1, MAX_DAYS, 1));
+        JButton refreshButton = new JButton("Frissítés");
+        statusLabel = new JLabel(" ");
+        topPanel.add(new JLabel("Lejár a következő"));
+        topPanel.add(daysSpinner);
+        topPanel.add(new JLabel("napban"));
+        topPanel.add(refreshButton);
+        topPanel.add(statusLabel);
+        add(topPanel, BorderLayout.NORTH);
+
+        // Táblázat a lejáró szerződésekkel
+        final JTable table = new JTable(tableModel);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.getColumnModel().getColumn(0).setPreferredWidth(90);
+        table.getColumnModel().getColumn(1).setPreferredWidth(200);
+        table.getColumnModel().getColumn(2).setPreferredWidth(150);
+        table.getColumnModel().getColumn(3).setPreferredWidth(60);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        refreshButton.addActionListener(e -> refresh());
+        daysSpinner.addChangeListener(e -> refresh());
+        table.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = table.getSelectedRow();
+                if (e.getClickCount() == 2 && row >= 0) {
+                    openAction.accept(tableModel.getContract(table.convertRowIndexToModel(row)));
+                }
+            }
+        });
+    }
+
+    /**
+     * Újra lekérdezi a lejáró szerződéseket (háttérszálon).
+     * Egy még futó, korábbi lekérdezés eredményét eldobjuk.
+     */
+    public void refresh() {
+        final LocalDate from = LocalDate.now();
+        final LocalDate to = from.plusDays((Integer) daysSpinner.getValue());
+        if (worker != null) {
+            worker.cancel(false);
+        }
+        statusLabel.setText("Betöltés...");
+
+        worker = new SwingWorker<List<Contract>, Void>() {
+            @Override
+            protected List<Contract> doInBackground() {
+                return contractDAO.findExpiringBetween(from, to);
+            }
+
+            @Override
+            protected void done() {
+                if (worker != this) {
+                    return; // Időközben újabb lekérdezés indult
+                }
+                worker = null;
+                try {
+                    List<Contract> contracts = get();
+                    tableModel.setContracts(contracts, from);
+                    statusLabel.setText(contracts.size() + " szerződés jár le " + to + "-ig");
+                } catch (Exception ex) {
+                    statusLabel.setText("Hiba a lekérdezés során: " + ex.getMessage());
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    /**
+     * Táblázat modell: lejárat, név, szerződő fél 1, hátralévő napok.
+     */
+    private static class ExpiryTableModel extends AbstractTableModel {
+
+        private static final String[] COLUMNS = {"Lejárat", "Szerződés neve", "Szerződő fél 1", "Napok"};
+
+        private List<Contract> contracts = new ArrayList<>();
+        private LocalDate today = LocalDate.now();
+
+        void setContracts(List<Contract> contracts, LocalDate today) {
+            this.contracts = contracts;
+            this.today = today;
+            fireTableDataChanged();
+        }
+
+        Contract getContract(int row) {
+            return contracts.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return contracts.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            Contract c = contracts.get(row);
+            switch (column) {
+                case 0:
+                    return c.getVege();
+                case 1:
+                    return c.getSzerzodesNeve();
+                case 2:
+                    return c.getSzerzodoFel1();
+                default:
+                    return ChronoUnit.DAYS.between(today, c.getVege());
+            }
+        }
+    }
+}
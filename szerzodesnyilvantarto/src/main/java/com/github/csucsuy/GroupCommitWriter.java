@@ -0,0 +1,337 @@
+package com.github.csucsuy;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Csoportos véglegesítés (group commit) az egyedi írásokhoz.
+ *
+ * A beküldött írások egy sorba kerülnek; egyetlen író szál az első írás
+ * érkezésétől legfeljebb maxDelayMillis ideig (vagy maxBatch írásig) gyűjti
+ * a továbbiakat, majd mindet egy tranzakcióban, egyetlen commit-tal
+ * (és így egyetlen fsync-kel) véglegesíti. Az írások a beküldés sorrendjében futnak.
+ *
+ * Minden írás saját mentési pontban (SAVEPOINT) fut: ha egy írás hibát dob,
+ * csak az gördül vissza, a csoport többi tagja véglegesül. Egy hívás future-je
+ * csak a commit után teljesül; hiba esetén a ContractDAO-val egyező
+ * eredményt kap (null / false), és egy visszagörgetett beszúrás nem tart meg
+ * kiosztott azonosítót. Módosítást vagy törlést tartalmazó csoport után, a
+ * ContractDAO-hoz hasonlóan, a dokumentumtár felszabadult fájljai is törlődnek.
+ * A tartósság az sqlite.synchronous beállítástól függ (WAL + NORMAL:
+ * áramszünetnél az utolsó commitok elveszhetnek).
+ */
+public class GroupCommitWriter implements AutoCloseable {
+
+    /**
+     * Az író kapcsolat forrása (pl. DatabaseManager::writer).
+     */
+    public interface WriterSource {
+        PooledConnection borrow() throws SQLException;
+    }
+
+    /**
+     * Egy írás a csoport tranzakcióján belül.
+     */
+    interface WriteOperation<T> {
+        T apply(PooledConnection conn) throws SQLException;
+    }
+
+    private final WriterSource writerSource;
+    private final DocumentStore documents; // null esetén nem takarítunk
+    private final long maxDelayNanos;
+    private final int maxBatch;
+    private final BlockingQueue<PendingWrite<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+
+    // A sor végét jelző elem (close())
+    private final PendingWrite<Void> shutdownMarker = new PendingWrite<>("leállítás", null, null, null);
+
+    /**
+     * A dokumentumtár takarítása nélkül (pl. tesztekhez).
+     * @see #GroupCommitWriter(WriterSource, DocumentStore, long, int)
+     */
+    public GroupCommitWriter(WriterSource writerSource, long maxDelayMillis, int maxBatch) {
+        this(writerSource, null, maxDelayMillis, maxBatch);
+    }
+
+    /**
+     * @param writerSource Az író kapcsolat forrása; csak az első commitnál kérünk kapcsolatot.
+     * @param documents A módosítások és törlések után takarítandó dokumentumtár (lehet null).
+     * @param maxDelayMillis Az első írás legfeljebb ennyit vár a csoport többi tagjára.
+     *                       0 esetén csak a már várakozó írások kerülnek egy csoportba.
+     * @param maxBatch Egy tranzakcióba kerülő írások legnagyobb száma.
+     */
+    public GroupCommitWriter(WriterSource writerSource, DocumentStore documents, long maxDelayMillis,
+            int maxBatch) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("A csoport mérete legalább 1 kell legyen: " + maxBatch);
+        }
+        this.writerSource = writerSource;
+        this.documents = documents;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxDelayMillis));
+        this.maxBatch = maxBatch;
+        this.thread = new Thread(this::run, "dao-iro");
+        this.thread.setDaemon(true); // Ne tartsa életben az alkalmazást
+        this.thread.start();
+    }
+
+    // --- Írások ---
+
+    /**
+     * @return A mentett szerződés a generált ID-val, vagy null, ha nem sikerült.
+     */
+    public CompletableFuture<Contract> addContract(Contract contract) {
+        int originalId = contract.getId();
+        PendingWrite<Contract> write = new PendingWrite<>("addContract",
+                conn -> ContractDAO.insert(conn, contract), null, null);
+        write.undo = () -> contract.setId(originalId); // Visszagörgetésnél ne maradjon kiosztott ID
+        return enqueue(write);
+    }
+
+    /**
+     * @return A szerződés, vagy null, ha nem sikerült (vagy nincs ilyen ID).
+     */
+    public CompletableFuture<Contract> updateContract(Contract contract) {
+        PendingWrite<Contract> write = new PendingWrite<>("updateContract",
+                conn -> ContractDAO.update(conn, contract) > 0 ? contract : null, null, null);
+        write.releasesDocuments = true; // A régi dokumentum felszabadulhatott
+        return enqueue(write);
+    }
+
+    /**
+     * @return true, ha a szerződés törölve lett.
+     */
+    public CompletableFuture<Boolean> deleteContract(int id) {
+        PendingWrite<Boolean> write = new PendingWrite<>("deleteContract",
+                conn -> ContractDAO.delete(conn, id) > 0, false, null);
+        write.releasesDocuments = true;
+        return enqueue(write);
+    }
+
+    /**
+     * Önálló feladat az író szálon, a csoportokon kívül (pl. kötegelt mentés,
+     * amely maga kezeli a tranzakcióit). A sorrend a többi írással együtt megmarad.
+     */
+    public <T> CompletableFuture<T> submitStandalone(Supplier<T> task) {
+        return enqueue(new PendingWrite<>("önálló", null, null, task));
+    }
+
+    private <T> CompletableFuture<T> enqueue(PendingWrite<T> write) {
+        if (closed) {
+            write.future.completeExceptionally(new IllegalStateException("Az író sor le van zárva."));
+        } else {
+            queue.add(write);
+        }
+        return write.future;
+    }
+
+    // --- Az író szál ---
+
+    private void run() {
+        List<PendingWrite<?>> batch = new ArrayList<>(Math.min(maxBatch, 1024));
+        PendingWrite<?> carry = null; // A csoportot lezáró, még fel nem dolgozott elem
+        try {
+            while (true) {
+                PendingWrite<?> first = carry != null ? carry : queue.take();
+                carry = null;
+                if (first == shutdownMarker) {
+                    break;
+                }
+                if (first.isStandalone()) {
+                    first.runStandalone();
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite<?> next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    if (next == shutdownMarker || next.isStandalone()) {
+                        carry = next;
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Ami a leállítás után maradt, azt már nem írjuk ki
+        for (PendingWrite<?> write : batch) {
+            write.abandon();
+        }
+        PendingWrite<?> left;
+        while ((left = queue.poll()) != null) {
+            left.abandon();
+        }
+    }
+
+    /**
+     * A csoport írásai egy tranzakcióban, mindegyik a saját mentési pontjában.
+     */
+    private void commit(List<PendingWrite<?>> batch) {
+        DaoMetrics.Sample sample = ContractDAO.startSample("groupCommit");
+        try (PooledConnection conn = sample.acquired(writerSource.borrow())) {
+            Connection connection = conn.getConnection();
+            connection.setAutoCommit(false);
+            for (PendingWrite<?> write : batch) {
+                write.apply(conn, connection);
+            }
+            connection.commit();
+            connection.setAutoCommit(true);
+            conn.parties().committed(conn); // A csoportban létrehozott felek a szótárba
+            sample.success(batch.size());
+        } catch (SQLException e) {
+            sample.failure();
+            // A félbehagyott tranzakciót a kapcsolatkészlet visszagörgeti
+            System.err.println("Hiba a csoportos véglegesítéskor (" + batch.size() + " írás): " + e.getMessage());
+            for (PendingWrite<?> write : batch) {
+                write.fail();
+            }
+            return;
+        }
+        commits.incrementAndGet();
+        writes.addAndGet(batch.size());
+        // Az író kapcsolat már visszakerült a készletbe, a takarítás is azt kéri el
+        if (documents != null && batch.stream().anyMatch(write -> write.releasesDocuments)) {
+            documents.releaseUnreferenced();
+        }
+        for (PendingWrite<?> write : batch) {
+            write.complete();
+        }
+    }
+
+    /**
+     * Lezárja a sort: az addig beküldött írásokat még véglegesíti, az újakat elutasítja.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(shutdownMarker);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            System.err.println("Az író sor nem ürült ki időben.");
+        }
+    }
+
+    // --- Statisztika ---
+
+    /**
+     * A sikeres commitok száma.
+     */
+    public long getCommitCount() {
+        return commits.get();
+    }
+
+    /**
+     * A sikeres commitokban véglegesített írások száma.
+     */
+    public long getWriteCount() {
+        return writes.get();
+    }
+
+    /**
+     * Átlagosan hány írás került egy commitba.
+     */
+    public double getAverageGroupSize() {
+        long c = commits.get();
+        return c == 0 ? 0 : (double) writes.get() / c;
+    }
+
+    /**
+     * Egy beküldött írás és a hozzá tartozó future.
+     */
+    private static final class PendingWrite<T> {
+
+        private final String name;
+        private final WriteOperation<T> operation;
+        private final T failureValue;
+        private final Supplier<T> standaloneTask;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+        private Runnable undo; // Visszagörgetéskor a hívó objektumán végzett változás visszavonása
+        private boolean releasesDocuments; // Módosítás vagy törlés: dokumentum szabadulhatott fel
+
+        PendingWrite(String name, WriteOperation<T> operation, T failureValue, Supplier<T> standaloneTask) {
+            this.name = name;
+            this.operation = operation;
+            this.failureValue = failureValue;
+            this.standaloneTask = standaloneTask;
+        }
+
+        boolean isStandalone() {
+            return standaloneTask != null;
+        }
+
+        void runStandalone() {
+            try {
+                future.complete(standaloneTask.get());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Lefuttatja az írást a saját mentési pontjában. Hibánál csak ezt görgeti vissza.
+         */
+        void apply(PooledConnection conn, Connection connection) throws SQLException {
+            Savepoint savepoint = connection.setSavepoint();
+            try {
+                result = operation.apply(conn);
+                connection.releaseSavepoint(savepoint);
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback(savepoint);
+                connection.releaseSavepoint(savepoint);
+                undo();
+                result = failureValue;
+                System.err.println("Hiba a csoportos írás során (" + name + "): " + e.getMessage());
+            }
+        }
+
+        void complete() {
+            future.complete(result);
+        }
+
+        private void undo() {
+            if (undo != null) {
+                undo.run();
+            }
+        }
+
+        void fail() {
+            undo();
+            future.complete(failureValue);
+        }
+
+        void abandon() {
+            undo();
+            future.completeExceptionally(new IllegalStateException("Az író sor lezárult, az írás elmaradt."));
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.github.csucsuy;
+
+import javax.swing.AbstractListModel;
+import javax.swing.JList;
+import javax.swing.JScrollPane;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lusta (lapozós) listamodell a szerződések JList-jéhez.
+ * Induláskor csak az első lapot tölti be, a további lapokat görgetéskor,
+ * amikor a lista alja közel kerül a látható területhez.
+ *
+ * A lekérdezések háttérszálon (SwingWorker) futnak, az Event Dispatch Thread
+ * sosem vár az adatbázisra. A lapok beérkezésükkor azonnal megjelennek.
+ * A modellt csak az EDT-ről szabad használni.
+ */
+public class LazyContractListModel extends AbstractListModel<Contract> {
+
+    public static final int DEFAULT_PAGE_SIZE = 200;
+
+    /** A "loading" tulajdonság jelzi, hogy fut-e éppen háttérbetöltés. */
+    public static final String LOADING_PROPERTY = "loading";
+
+    // Ennyi sorral a betöltött rész vége előtt kérjük le a következő lapot
+    private static final int PREFETCH_ROWS = 50;
+
+    private final ContractDAO contractDAO;
+    private final int pageSize;
+    private final List<Contract> loaded = new ArrayList<>();
+    private final PropertyChangeSupport changeSupport = new PropertyChangeSupport(this);
+    private boolean fullyLoaded;
+
+    // Ennyi sort szeretnénk betöltve látni; görgetéskor nő
+    private volatile int demand;
+    // Az éppen futó háttérbetöltés (csak az EDT-ről módosítjuk)
+    private PageLoader loader;
+
+    public LazyContractListModel(ContractDAO contractDAO) {
+        this(contractDAO, DEFAULT_PAGE_SIZE);
+    }
+
+    public LazyContractListModel(ContractDAO contractDAO, int pageSize) {
+        this.contractDAO = contractDAO;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public int getSize() {
+        return loaded.size();
+    }
+
+    @Override
+    public Contract getElementAt(int index) {
+        return loaded.get(index);
+    }
+
+    public boolean isFullyLoaded() {
+        return fullyLoaded;
+    }
+
+    public boolean isLoading() {
+        return loader != null;
+    }
+
+    public void addPropertyChangeListener(PropertyChangeListener listener) {
+        changeSupport.addPropertyChangeListener(listener);
+    }
+
+    /**
+     * Eldobja a betöltött elemeket és a háttérben újratölti az első lapot.
+     * Egy még futó (elavult) betöltést leállít, annak eredménye már nem kerül a modellbe.
+     */
+    public void reload() {
+        if (loader != null) {
+            loader.cancel(false);
+            setLoader(null);
+        }
+        int oldSize = loaded.size();
+        loaded.clear();
+        fullyLoaded = false;
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+        demand = pageSize;
+        setLoader(new PageLoader(null, 0));
+    }
+
+    /**
+     * Kér még egy lapot a háttérből (ha van még betöltetlen elem).
+     */
+    public void requestNextPage() {
+        if (fullyLoaded) {
+            return;
+        }
+        demand = Math.max(demand, loaded.size() + pageSize);
+        if (loader == null) {
+            startLoaderAfterLast();
+        }
+    }
+
+    private void startLoaderAfterLast() {
+        if (loaded.isEmpty()) {
+            setLoader(new PageLoader(null, 0));
+        } else {
+            Contract last = loaded.get(loaded.size() - 1);
+            setLoader(new PageLoader(last.getSzerzodesNeve(), last.getId()));
+        }
+    }
+
+    private void setLoader(PageLoader newLoader) {
+        boolean wasLoading = loader != null;
+        loader = newLoader;
+        if (newLoader != null) {
+            newLoader.execute();
+        }
+        changeSupport.firePropertyChange(LOADING_PROPERTY, wasLoading, newLoader != null);
+    }
+
+    /**
+     * A betöltött rész utáni változáskor hívjuk: a futó betöltés lapjai még a
+     * változás előtti állapotot mutathatják, ezért leállítjuk, és az utolsó
+     * betöltött elemtől újraindítjuk. Ha nem fut betöltés, nincs teendő.
+     */
+    private void restartLoader() {
+        if (loader != null) {
+            loader.cancel(false);
+            startLoaderAfterLast(); // A régi betöltés lapjai ezután már nem kerülnek a modellbe
+        }
+    }
+
+    /**
+     * Beszúr egy új szerződést a rendezés szerinti helyére.
+     * Ha a modell még nincs teljesen betöltve és az elem a betöltött rész
+     * után következne, nem szúrjuk be: a megfelelő lappal érkezik majd
+     * (egy éppen futó betöltés ehhez újraindul).
+     * @return Az elem indexe a modellben, vagy -1, ha nem került be.
+     */
+    public int insertSorted(Contract contract) {
+        int pos = indexOf(contract);
+        if (pos >= 0) {
+            return pos; // Már benne van
+        }
+        int insertAt = -(pos + 1);
+        if (insertAt == loaded.size() && !fullyLoaded) {
+            restartLoader(); // A futó betöltés már túlhaladhatott rajta
+            return -1;
+        }
+        loaded.add(insertAt, contract);
+        fireIntervalAdded(this, insertAt, insertAt);
+        return insertAt;
+    }
+
+    /**
+     * Eltávolítja a szerződést a modellből.
+     * @param contract Az eltávolítandó elem (a neve és az ID-ja alapján keressük).
+     * @return Az eltávolított elem korábbi indexe, vagy -1, ha nem volt betöltve.
+     */
+    public int remove(Contract contract) {
+        int pos = indexOf(contract);
+        if (pos < 0) {
+            if (-(pos + 1) == loaded.size()) {
+                restartLoader(); // A futó betöltés egy még nem átadott lapján szerepelhet
+            }
+            return -1;
+        }
+        loaded.remove(pos);
+        fireIntervalRemoved(this, pos, pos);
+        return pos;
+    }
+
+    /**
+     * Egy módosított szerződés cseréje: ha a neve nem változott, helyben frissül,
+     * különben kikerül a régi helyéről és bekerül az újra.
+     * @param original A módosítás előtti állapot (ez alapján találjuk meg).
+     * @param updated A módosított szerződés.
+     * @return Az új elem indexe, vagy -1, ha nem került a betöltött részbe.
+     */
+    public int replace(Contract original, Contract updated) {
+        int pos = indexOf(original);
+        if (pos >= 0 && compareKeys(original, updated) == 0) {
+            loaded.set(pos, updated);
+            fireContentsChanged(this, pos, pos);
+            return pos;
+        }
+        remove(original);
+        return insertSorted(updated);
+    }
+
+    /**
+     * Bináris keresés a betöltött elemek között (név, id) szerint.
+     * @return Az index, ha megvan; különben -(beszúrási pont) - 1.
+     */
+    public int indexOf(Contract contract) {
+        int low = 0;
+        int high = loaded.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareKeys(loaded.get(mid), contract);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Ugyanaz a sorrend, mint az SQL "ORDER BY szerzodes_neve, id".
+     * Az SQLite a szöveget bájtonként (UTF-8) hasonlítja, ami a Unicode
+     * kódpontok sorrendje; a String.compareTo UTF-16 egységeket hasonlít,
+     * ami a BMP feletti karaktereknél eltérhet, ezért kódpontonként haladunk.
+     */
+    static int compareKeys(Contract a, Contract b) {
+        String x = a.getSzerzodesNeve();
+        String y = b.getSzerzodesNeve();
+        int i = 0;
+        int j = 0;
+        while (i < x.length() && j < y.length()) {
+            int cx = x.codePointAt(i);
+            int cy = y.codePointAt(j);
+            if (cx != cy) {
+                return Integer.compare(cx, cy);
+            }
+            i += Character.charCount(cx);
+            j += Character.charCount(cy);
+        }
+        int cmp = Integer.compare(x.length() - i, y.length() - j);
+        return cmp != 0 ? cmp : Integer.compare(a.getId(), b.getId());
+    }
+
+    /**
+     * Görgetéskor betölti a következő lapot, ha a lista alja a közelben van.
+     * @param list A modellt megjelenítő lista.
+     * @param scrollPane A listát tartalmazó görgethető panel.
+     */
+    public void attachTo(final JList<Contract> list, JScrollPane scrollPane) {
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            // Csak akkor, ha a lista éppen ezt a modellt mutatja (nem pl. keresési találatokat)
+            if (list.getModel() == this && !fullyLoaded
+                    && list.getLastVisibleIndex() >= loaded.size() - PREFETCH_ROWS) {
+                requestNextPage();
+            }
+        });
+    }
+
+    /**
+     * Háttérfeladat: addig kéri a lapokat, amíg el nem éri a kívánt sorszámot
+     * (demand), és minden lapot azonnal átad az EDT-nek.
+     * A publish()/process() helyett invokeLater()-t használunk, mert az
+     * sorrendtartó: minden lap a done() előtt bekerül a modellbe.
+     */
+    private class PageLoader extends SwingWorker<Boolean, Void> {
+
+        private String afterName;
+        private int afterId;
+        private int fetched;
+
+        PageLoader(String afterName, int afterId) {
+            this.afterName = afterName;
+            this.afterId = afterId;
+            this.fetched = loaded.size();
+        }
+
+        /**
+         * @return true, ha elfogytak a sorok az adatbázisban.
+         */
+        @Override
+        protected Boolean doInBackground() {
+            while (!isCancelled() && fetched < demand) {
+                List<Contract> page = contractDAO.getContractsPage(afterName, afterId, pageSize);
+                if (!page.isEmpty()) {
+                    SwingUtilities.invokeLater(() -> appendPage(page));
+                    fetched += page.size();
+                    Contract last = page.get(page.size() - 1);
+                    afterName = last.getSzerzodesNeve();
+                    afterId = last.getId();
+                }
+                if (page.size() < pageSize) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void appendPage(List<Contract> page) {
+            if (loader != this) {
+                return; // Elavult betöltés, az eredménye már nem érdekes
+            }
+            int first = loaded.size();
+            loaded.addAll(page);
+            fireIntervalAdded(LazyContractListModel.this, first, loaded.size() - 1);
+        }
+
+        @Override
+        protected void done() {
+            if (loader != this) {
+                return;
+            }
+            try {
+                fullyLoaded = get();
+            } catch (Exception e) {
+                System.err.println("Hiba a szerződések háttérbetöltésekor: " + e.getMessage());
+                fullyLoaded = true; // Ne próbálkozzunk végtelen ciklusban
+            }
+            setLoader(null);
+            // Amíg futottunk, a felhasználó tovább görgethetett
+            if (!fullyLoaded && loaded.size() < demand) {
+                startLoaderAfterLast();
+            }
+        }
+    }
+}
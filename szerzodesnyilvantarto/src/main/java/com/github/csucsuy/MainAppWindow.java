@@ -1,14 +1,24 @@
 package com.github.csucsuy;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Objects;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 /**
  * A fő alkalmazás ablak (JFrame).
@@ -19,23 +29,56 @@ public class MainAppWindow extends JFrame {
 
     // --- GUI Komponensek ---
     private JList<Contract> contractList; // A szerződések listája 
-    private DefaultListModel<Contract> listModel; // A lista modellje
+    private LazyContractListModel listModel; // A lista (lapozós) modellje
+    private DefaultListModel<Contract> searchModel; // Keresési találatok modellje
+    private JTextField searchField; // Keresőmező a lista felett
+    private Timer searchTimer; // Késleltetés gépelés közben (debounce)
+    private SwingWorker<List<Contract>, Void> searchWorker; // Az éppen futó keresés
     private JTextArea detailsArea; // A részletek megjelenítésére 
+    private JTextField historyDateField; // A részletek ezen a napon érvényes állapota (üres = jelenlegi)
+    private SwingWorker<String, Void> historyWorker; // Az éppen futó változásnapló lekérdezés
+    private JTabbedPane centerTabs; // Részletek / Lejáró szerződések / Kimutatások
+    private ExpiryPanel expiryPanel; // A lejáró szerződések listája
+    private ReportPanel reportPanel; // Kimutatások (összesítések)
     private JButton addContractButton;
     private JButton openFileButton;
     private JButton editContractButton; // Módosítás
     private JButton deleteContractButton; // Törlés
+    private JProgressBar loadingBar; // Háttérbetöltés jelzése
+    private JLabel statusLabel; // Betöltött szerződések száma
 
     // --- Adatbázis ---
     private ContractDAO contractDAO;
+    private ContractDAOAsync asyncDAO; // Írások a csoportos véglegesítésen át (GroupCommitWriter)
+    private DocumentScanner documentScanner; // A csatolt dokumentumok háttérbeli ellenőrzése
+    private final ContractHistory contractHistory = new ContractHistory(); // Korábbi állapotok
+
+    // Ennyi ms-ot várunk az utolsó leütés után, mielőtt keresünk
+    private static final int SEARCH_DELAY_MS = 250;
+    // A megjelenített keresési találatok maximális száma
+    private static final int SEARCH_LIMIT = 500;
+    // A részletekben a dokumentum állapot sorának eleje (ez alapján frissítjük helyben)
+    private static final String STATUS_PREFIX = "ÁLLAPOT:\t";
 
     public MainAppWindow() {
-        this.contractDAO = new ContractDAO(); // DAO inicializálása
+        // DAO inicializálása, ID szerinti gyorsítótárral
+        this.contractDAO = new ContractCache(DatabaseManager.getConfig().getCacheSize());
+        this.asyncDAO = new ContractDAOAsync(contractDAO);
+        DatabaseConfig cfg = DatabaseManager.getConfig();
+        this.documentScanner = new DocumentScanner(new DocumentStatusDAO(), cfg.getDocumentScanParallelism(),
+                cfg.getDocumentRescanMinutes(), cfg.getDocumentMaxWatchedDirs());
         
         // Ablak alapbeállításai
         setTitle("Szerződésnyilvántartó");
         setSize(800, 600);
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        // A kilépést a windowClosing végzi, miután a függő írások véglegesültek
+        setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                shutdown();
+            }
+        });
         setLocationRelativeTo(null); // Középre igazítás
 
         // GUI komponensek inicializálása
@@ -46,6 +89,37 @@ public class MainAppWindow extends JFrame {
 
         // Adatok betöltése az adatbázisból a listába
         loadContracts();
+
+        // Dokumentumok ellenőrzése a háttérben; a lista a tárolt állapottal indul
+        documentScanner.start();
+    }
+
+    /**
+     * Kilépés: a sorban várakozó írások még véglegesülnek, a dokumentumfigyelő
+     * leáll. A lezárás akár fél percig is tarthat, ezért háttérszálon fut, az
+     * ablak addig mutatja, hogy mentés zajlik, utána a program kilép.
+     */
+    private void shutdown() {
+        if (!isEnabled()) {
+            return; // A kilépés már folyamatban van
+        }
+        setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        statusLabel.setText("Mentés folyamatban…");
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                documentScanner.close();
+                asyncDAO.close();
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                dispose();
+                System.exit(0);
+            }
+        }.execute();
     }
 
     /**
@@ -53,16 +127,34 @@ public class MainAppWindow extends JFrame {
      */
     private void initComponents() {
         setLayout(new BorderLayout(5, 5)); // Fő elrendezés
+        setJMenuBar(createMenuBar());
 
         // --- 1. Lista (Bal oldal) ---
-        listModel = new DefaultListModel<>();
+        listModel = new LazyContractListModel(contractDAO);
         contractList = new JList<>(listModel);
         contractList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION); // Egyszerre csak egy választható
+        // Fix sormagasság: a JList így nem méri le egyenként az összes elemet
+        contractList.setPrototypeCellValue(new Contract("Minta szerződés neve", null, null, BigDecimal.ZERO,
+                "Minta szerződő fél", null, null));
+        // Hiányzó dokumentumok jelölése (csak a memóriabeli állapotból)
+        contractList.setCellRenderer(new ContractCellRenderer(documentScanner));
         
         // Gördítősáv hozzáadása a listához
         JScrollPane listScrollPane = new JScrollPane(contractList);
+        listModel.attachTo(contractList, listScrollPane); // Görgetéskor további lapok betöltése
         listScrollPane.setPreferredSize(new Dimension(250, 0)); // Szélesség beállítása
-        add(listScrollPane, BorderLayout.WEST);
+        searchModel = new DefaultListModel<>();
+
+        // Keresőmező a lista felett
+        searchField = new JTextField();
+        searchField.setToolTipText("Keresés névben, szerződő felekben, dokumentumban");
+        searchTimer = new Timer(SEARCH_DELAY_MS, e -> runSearch());
+        searchTimer.setRepeats(false);
+
+        JPanel listPanel = new JPanel(new BorderLayout(0, 5));
+        listPanel.add(searchField, BorderLayout.NORTH);
+        listPanel.add(listScrollPane, BorderLayout.CENTER);
+        add(listPanel, BorderLayout.WEST);
 
         // --- 2. Részletek (Közép) ---
         detailsArea = new JTextArea();
@@ -71,7 +163,38 @@ public class MainAppWindow extends JFrame {
         detailsArea.setMargin(new Insets(10, 10, 10, 10));
 
         JScrollPane detailsScrollPane = new JScrollPane(detailsArea);
-        add(detailsScrollPane, BorderLayout.CENTER);
+
+        // Egy korábbi nap állapota a változásnaplóból
+        historyDateField = new JTextField(10);
+        historyDateField.setToolTipText("ÉÉÉÉ-HH-NN; üresen a jelenlegi állapot");
+        JButton historyButton = new JButton("Mutat");
+        ActionListener showHistory = e -> {
+            Contract selected = contractList.getSelectedValue();
+            if (selected != null) {
+                updateDetailsArea(selected);
+            }
+        };
+        historyDateField.addActionListener(showHistory);
+        historyButton.addActionListener(showHistory);
+        JPanel historyPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        historyPanel.add(new JLabel("Állapot ekkor:"));
+        historyPanel.add(historyDateField);
+        historyPanel.add(historyButton);
+        JPanel detailsPanel = new JPanel(new BorderLayout());
+        detailsPanel.add(historyPanel, BorderLayout.NORTH);
+        detailsPanel.add(detailsScrollPane, BorderLayout.CENTER);
+
+        // Lejáró szerződések; dupla kattintásra a szerkesztő nyílik meg
+        expiryPanel = new ExpiryPanel(contractDAO, c ->
+            new ContractEditorWindow(MainAppWindow.this, asyncDAO, c).setVisible(true));
+
+        centerTabs = new JTabbedPane();
+        centerTabs.addTab("Részletek", detailsPanel);
+        centerTabs.addTab("Lejáró szerződések", expiryPanel);
+        reportPanel = new ReportPanel(DatabaseManager.getConfig().isColumnarReportsEnabled()
+                ? new ColumnarReportDAO() : new ContractReportDAO());
+        centerTabs.addTab("Kimutatások", reportPanel);
+        add(centerTabs, BorderLayout.CENTER);
 
         // --- 3. Gombok (Alul) ---
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
@@ -91,14 +214,79 @@ public class MainAppWindow extends JFrame {
         buttonPanel.add(deleteContractButton);
         buttonPanel.add(openFileButton);
 
-        add(buttonPanel, BorderLayout.SOUTH);
+        // Állapotsor: betöltés jelzése és a betöltött elemek száma
+        JPanel statusPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        loadingBar = new JProgressBar();
+        loadingBar.setIndeterminate(true);
+        loadingBar.setVisible(false);
+        statusLabel = new JLabel(" ");
+        statusPanel.add(loadingBar);
+        statusPanel.add(statusLabel);
+
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(statusPanel, BorderLayout.WEST);
+        southPanel.add(buttonPanel, BorderLayout.EAST);
+        add(southPanel, BorderLayout.SOUTH);
     }
 
     /**
      * Hozzáadja az eseménykezelőket a komponensekhez.
      */
     private void addListeners() {
+
+        // Keresés gépelés közben: minden leütés újraindítja az időzítőt,
+        // így csak a gépelés szüneteiben fut lekérdezés
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+        });
+
+        // A lejáró szerződések és a kimutatások fülre váltáskor frissítünk
+        centerTabs.addChangeListener(e -> {
+            if (centerTabs.getSelectedComponent() == expiryPanel) {
+                expiryPanel.refresh();
+            } else if (centerTabs.getSelectedComponent() == reportPanel) {
+                reportPanel.refresh();
+            }
+        });
+
+        // Háttérbetöltés állapotának megjelenítése
+        listModel.addPropertyChangeListener(e -> {
+            if (isSearchActive()) {
+                return; // Keresés közben a találatok számát mutatjuk
+            }
+            boolean loading = listModel.isLoading();
+            loadingBar.setVisible(loading);
+            statusLabel.setText(loading
+                ? "Betöltés... (" + listModel.getSize() + ")"
+                : listModel.getSize() + " szerződés betöltve"
+                    + (listModel.isFullyLoaded() ? "" : " (görgessen a továbbiakért)"));
+        });
         
+        // Megváltozott dokumentum állapotok: a lista és a kiválasztott elem állapot sorának frissítése.
+        // A scanner háttérszálon értesít, ezért az EDT-re tesszük át.
+        // A változásnaplót nem kérdezzük le újra (azt csak a kijelölés és a dátum váltja ki).
+        documentScanner.addListener(changed -> SwingUtilities.invokeLater(() -> {
+            contractList.repaint();
+            Contract selected = contractList.getSelectedValue();
+            if (selected != null) {
+                refreshDocumentStatus(selected);
+                openFileButton.setEnabled(canOpenDocument(selected));
+            }
+        }));
+
         // Lista elem kiválasztásának figyelése 
         contractList.addListSelectionListener(new ListSelectionListener() {
             @Override
@@ -110,14 +298,15 @@ public class MainAppWindow extends JFrame {
                     if (selected != null) {
                         // Részletek megjelenítése 
                         updateDetailsArea(selected);
+                        centerTabs.setSelectedIndex(0);
                         
                         // Gombok aktiválása/deaktiválása
                         editContractButton.setEnabled(true);
                         deleteContractButton.setEnabled(true);
                         
-                        // Fájl megnyitása gomb csak akkor aktív, ha van megadott elérési út
-                        openFileButton.setEnabled(selected.getDokumentumPath() != null && 
-                                                  !selected.getDokumentumPath().isEmpty());
+                        // Fájl megnyitása gomb csak akkor aktív, ha van megadott elérési út,
+                        // és nem tudjuk róla, hogy hiányzik
+                        openFileButton.setEnabled(canOpenDocument(selected));
                     } else {
                         // Ha nincs kiválasztva semmi
                         detailsArea.setText("");
@@ -135,12 +324,12 @@ public class MainAppWindow extends JFrame {
             public void actionPerformed(ActionEvent e) {
                 // Létrehozzuk és láthatóvá tesszük az új szerződés ablakot 
                 // Átadjuk neki a főablakot (this) és a DAO-t
-                ContractEditorWindow editorWindow = new ContractEditorWindow(MainAppWindow.this, contractDAO);
+                ContractEditorWindow editorWindow = new ContractEditorWindow(MainAppWindow.this, asyncDAO);
                 editorWindow.setVisible(true);
                 
                 // A program futása itt megáll, amíg az editorWindow-t
                 // be nem zárják (mivel modális).
-                // A frissítést (loadContracts()) maga az editorWindow
+                // A lista frissítését (contractSaved()) maga az editorWindow
                 // végzi el mentéskor.
             }
         });
@@ -159,31 +348,49 @@ public class MainAppWindow extends JFrame {
                     return;
                 }
 
-                try {
-                    File file = new File(selected.getDokumentumPath());
-
-                    // Ellenőrizzük, hogy a Desktop funkció támogatott-e
-                    if (Desktop.isDesktopSupported()) {
-                        if (file.exists()) {
-                            // Fájl megnyitása az alapértelmezett programmal
-                            Desktop.getDesktop().open(file);
-                        } else {
+                // Ellenőrizzük, hogy a Desktop funkció támogatott-e
+                if (!Desktop.isDesktopSupported()) {
+                    JOptionPane.showMessageDialog(MainAppWindow.this, 
+                        "Az operációs rendszer nem támogatja a fájlok automatikus megnyitását.", 
+                        "Kompatibilitási hiba", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+
+                // A létezés ellenőrzése és a megnyitás háttérszálon fut: egy elérhetetlen
+                // hálózati meghajtó ne fagyassza le a felületet
+                final String path = selected.getDokumentumPath();
+                new SwingWorker<Boolean, Void>() {
+                    @Override
+                    protected Boolean doInBackground() throws IOException {
+                        File file = new File(path);
+                        if (!file.exists()) {
+                            return false;
+                        }
+                        // Fájl megnyitása az alapértelmezett programmal
+                        Desktop.getDesktop().open(file);
+                        return true;
+                    }
+
+                    @Override
+                    protected void done() {
+                        try {
+                            if (get()) {
+                                return;
+                            }
                             JOptionPane.showMessageDialog(MainAppWindow.this, 
-                                "A fájl nem található a megadott helyen:\n" + selected.getDokumentumPath(), 
+                                "A fájl nem található a megadott helyen:\n" + path, 
                                 "Fájl hiba", JOptionPane.ERROR_MESSAGE);
+                        } catch (Exception ex) {
+                            // Hibakezelés, pl. ha nincs jogosultság a fájl megnyitásához
+                            Throwable cause = (ex.getCause() != null) ? ex.getCause() : ex;
+                            JOptionPane.showMessageDialog(MainAppWindow.this, 
+                                "Hiba történt a fájl megnyitása során: " + cause.getMessage(), 
+                                "Megnyitási hiba", JOptionPane.ERROR_MESSAGE);
                         }
-                    } else {
-                        JOptionPane.showMessageDialog(MainAppWindow.this, 
-                            "Az operációs rendszer nem támogatja a fájlok automatikus megnyitását.", 
-                            "Kompatibilitási hiba", JOptionPane.ERROR_MESSAGE);
+                        // A lista jelölése és a részletek is frissüljenek
+                        documentScanner.check(path);
                     }
-
-                } catch (IOException ex) {
-                    // Hibakezelés, pl. ha nincs jogosultság a fájl megnyitásához
-                    JOptionPane.showMessageDialog(MainAppWindow.this, 
-                        "Hiba történt a fájl megnyitása során: " + ex.getMessage(), 
-                        "Megnyitási hiba", JOptionPane.ERROR_MESSAGE);
-                }
+                }.execute();
             }
         });
         
@@ -209,24 +416,44 @@ public class MainAppWindow extends JFrame {
 
                 // Ha a felhasználó az 'Igen'-t választotta
                 if (response == JOptionPane.YES_OPTION) {
-                    try {
-                        // 1. Törlés az adatbázisból a DAO segítségével
-                        contractDAO.deleteContract(selected.getId());
-                        
-                        // 2. A lista frissítése a GUI-n
-                        // A loadContracts() újratölti az adatokat az adatbázisból,
-                        // és mivel a törölt elem már nincs ott, eltűnik a listából.
-                        loadContracts();
-                        
-                        // A detailsArea automatikusan kiürül, mert a
-                        // loadContracts() után a list selection listener lefut
-                        
-                    } catch (Exception ex) {
-                        JOptionPane.showMessageDialog(MainAppWindow.this, 
-                            "Hiba történt a törlés során: " + ex.getMessage(),
-                            "Törlési hiba", 
-                            JOptionPane.ERROR_MESSAGE);
-                    }
+                    deleteContractButton.setEnabled(false);
+
+                    // 1. Törlés az adatbázisból a DAO segítségével, háttérszálon,
+                    // hogy a felület ne fagyjon le a művelet alatt
+                    new SwingWorker<Boolean, Void>() {
+                        @Override
+                        protected Boolean doInBackground() throws Exception {
+                            return asyncDAO.deleteContract(selected.getId()).get();
+                        }
+
+                        @Override
+                        protected void done() {
+                            try {
+                                // A háttérben dobott kivételek itt jelennek meg
+                                if (!get()) {
+                                    JOptionPane.showMessageDialog(MainAppWindow.this, 
+                                        "A szerződést nem sikerült törölni.",
+                                        "Törlési hiba", 
+                                        JOptionPane.ERROR_MESSAGE);
+                                    deleteContractButton.setEnabled(true);
+                                    return;
+                                }
+                            } catch (Exception ex) {
+                                JOptionPane.showMessageDialog(MainAppWindow.this, 
+                                    "Hiba történt a törlés során: " + ex.getMessage(),
+                                    "Törlési hiba", 
+                                    JOptionPane.ERROR_MESSAGE);
+                                deleteContractButton.setEnabled(true);
+                                return;
+                            }
+                            // 2. Csak a törölt elemet vesszük ki a listából, nem töltjük újra.
+                            // A detailsArea automatikusan kiürül, mert a kijelölés
+                            // megszűnik és a list selection listener lefut.
+                            listModel.remove(selected);
+                            searchModel.removeElement(selected);
+                            refreshExpiryPanelIfShown();
+                        }
+                    }.execute();
                 }
             }
         });
@@ -242,21 +469,88 @@ public class MainAppWindow extends JFrame {
                     return; 
                 }
 
-                // Létrehozzuk és láthatóvá tesszük az szerkesztő ablakot
-                // Átadjuk neki a főablakot, a DAO-t, és a KIVÁLASZTOTT szerződést
-                ContractEditorWindow editorWindow = new ContractEditorWindow(MainAppWindow.this, contractDAO, selected);
-                editorWindow.setVisible(true);
+                editContractButton.setEnabled(false);
+
+                // A szerkesztéshez a legfrissebb állapotot kérjük (jellemzően a gyorsítótárból jön),
+                // háttérszálon: gyorsítótár tévesztésnél lekérdezés fut
+                new SwingWorker<Contract, Void>() {
+                    @Override
+                    protected Contract doInBackground() {
+                        return contractDAO.getContractById(selected.getId());
+                    }
 
-                // A lista frissítését az editorWindow végzi, 
-                // miután a mentés (frissítés) sikeres volt.
+                    @Override
+                    protected void done() {
+                        editContractButton.setEnabled(contractList.getSelectedValue() != null);
+                        Contract current;
+                        try {
+                            current = get();
+                        } catch (Exception ex) {
+                            current = null;
+                        }
+                        if (current == null) {
+                            current = selected; // Hiba esetén a listában lévő állapotot szerkesztjük
+                        }
+
+                        // Létrehozzuk és láthatóvá tesszük az szerkesztő ablakot
+                        // Átadjuk neki a főablakot, a DAO-t, és a KIVÁLASZTOTT szerződést
+                        ContractEditorWindow editorWindow =
+                            new ContractEditorWindow(MainAppWindow.this, asyncDAO, current);
+                        editorWindow.setVisible(true);
+
+                        // A lista frissítését az editorWindow végzi,
+                        // miután a mentés (frissítés) sikeres volt.
+                    }
+                }.execute();
             }
         });
     }
 
     /**
      * Frissíti a részletek szövegmezőt a kiválasztott szerződés alapján. 
+     * A változásnaplóból háttérszálon egészül ki, lásd loadHistory().
      */
     private void updateDetailsArea(Contract c) {
+        StringBuilder sb = new StringBuilder(describeContract(c));
+        if (c.getDokumentumPath() != null && !c.getDokumentumPath().isEmpty()) {
+            sb.append(statusLine(c));
+        }
+        
+        detailsArea.setText(sb.toString());
+        detailsArea.setCaretPosition(0); // Görgessen a tetejére
+        loadHistory(c);
+    }
+
+    private String statusLine(Contract c) {
+        DocumentStatus status = documentScanner.getStatus(c.getDokumentumPath());
+        return STATUS_PREFIX + ((status != null) ? status.describe() : "ellenőrzés folyamatban") + "\n";
+    }
+
+    /**
+     * Csak a részletek dokumentum állapot sorát cseréli le (ha látszik), a
+     * változásnaplóból betöltött rész és a görgetési pozíció marad.
+     */
+    private void refreshDocumentStatus(Contract c) {
+        String text = detailsArea.getText();
+        int start = text.indexOf("\n" + STATUS_PREFIX);
+        if (start < 0 || c.getDokumentumPath() == null) {
+            return; // Egy korábbi nap állapota látszik, vagy nincs dokumentum
+        }
+        start++;
+        int end = text.indexOf('\n', start);
+        end = end < 0 ? text.length() : end + 1;
+        String line = statusLine(c);
+        if (!line.equals(text.substring(start, end))) {
+            int caret = detailsArea.getCaretPosition();
+            detailsArea.replaceRange(line, start, end);
+            detailsArea.setCaretPosition(Math.min(caret, detailsArea.getDocument().getLength()));
+        }
+    }
+
+    /**
+     * A szerződés adatai a részletek szövegmezőhöz.
+     */
+    private static String describeContract(Contract c) {
         StringBuilder sb = new StringBuilder();
         sb.append(String.format("ID:\t\t%d\n", c.getId()));
         sb.append(String.format("NÉV*:\t\t%s\n", c.getSzerzodesNeve()));
@@ -267,21 +561,272 @@ public class MainAppWindow extends JFrame {
         sb.append(String.format("ÖSSZEG:\t\t%,.2f Ft\n", c.getOsszeg()));
         sb.append(String.format("SZERZŐDŐ 2:\t%s\n", (c.getSzerzodoFel2() != null) ? c.getSzerzodoFel2() : "N/A"));
         sb.append(String.format("DOKUMENTUM:\t%s\n", (c.getDokumentumPath() != null) ? c.getDokumentumPath() : "N/A"));
-        
-        detailsArea.setText(sb.toString());
-        detailsArea.setCaretPosition(0); // Görgessen a tetejére
+        return sb.toString();
+    }
+
+    /**
+     * Háttérszálon lekérdezi a változásnaplót: dátum nélkül a szerződés változásait
+     * fűzi a részletek alá, dátummal a szerződés aznapi állapotát mutatja.
+     * Ha közben más szerződést választottak ki, az eredményt eldobjuk.
+     */
+    private void loadHistory(final Contract c) {
+        final String dateText = historyDateField.getText().trim();
+        final LocalDate date;
+        try {
+            date = dateText.isEmpty() ? null : LocalDate.parse(dateText);
+        } catch (DateTimeParseException ex) {
+            detailsArea.append("\nÉrvénytelen dátum (ÉÉÉÉ-HH-NN): " + dateText + "\n");
+            return;
+        }
+        if (historyWorker != null) {
+            historyWorker.cancel(false);
+        }
+
+        historyWorker = new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() {
+                if (date == null) {
+                    return describeVersions(contractHistory.findVersions(c.getId(),
+                            ContractHistory.DEFAULT_VERSION_LIMIT));
+                }
+                return describeVersionAt(date, contractHistory.findAsOf(c.getId(), ContractHistory.endOfDay(date)));
+            }
+
+            @Override
+            protected void done() {
+                Contract selected = contractList.getSelectedValue();
+                if (historyWorker != this || selected == null || selected.getId() != c.getId()) {
+                    return; // Időközben újabb lekérdezés indult, vagy más a kijelölés
+                }
+                historyWorker = null;
+                try {
+                    if (date == null) {
+                        detailsArea.append(get());
+                    } else {
+                        detailsArea.setText(get());
+                    }
+                    detailsArea.setCaretPosition(0);
+                } catch (Exception ex) {
+                    detailsArea.append("\nHiba a változásnapló lekérdezésekor: " + ex.getMessage() + "\n");
+                }
+            }
+        };
+        historyWorker.execute();
+    }
+
+    /**
+     * A változások listája (a legújabb elöl), mindegyiknél a megváltozott mezőkkel.
+     */
+    private static String describeVersions(List<ContractVersion> versions) {
+        StringBuilder sb = new StringBuilder("--------------------------------------\n");
+        if (versions.isEmpty()) {
+            return sb.append("VÁLTOZÁSOK:\tnincs naplózott változás\n").toString();
+        }
+        sb.append("VÁLTOZÁSOK:\n");
+        for (int i = 0; i < versions.size(); i++) {
+            ContractVersion version = versions.get(i);
+            sb.append("  ").append(version.describe());
+            if (version.getChange() == ContractVersion.Change.UPDATE && i + 1 < versions.size()) {
+                sb.append(" (").append(changedFields(versions.get(i + 1).getContract(), version.getContract()))
+                        .append(')');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    // Az előző és a következő változat közt eltérő mezők nevei
+    private static String changedFields(Contract before, Contract after) {
+        StringBuilder sb = new StringBuilder();
+        appendIfChanged(sb, "NÉV", before.getSzerzodesNeve(), after.getSzerzodesNeve());
+        appendIfChanged(sb, "SZERZŐDŐ 1", before.getSzerzodoFel1(), after.getSzerzodoFel1());
+        appendIfChanged(sb, "LÉTREJÖTTE", before.getLetrejotte(), after.getLetrejotte());
+        appendIfChanged(sb, "VÉGE", before.getVege(), after.getVege());
+        appendIfChanged(sb, "ÖSSZEG", before.getOsszegFiller(), after.getOsszegFiller());
+        appendIfChanged(sb, "SZERZŐDŐ 2", before.getSzerzodoFel2(), after.getSzerzodoFel2());
+        appendIfChanged(sb, "DOKUMENTUM", before.getDokumentumPath(), after.getDokumentumPath());
+        return sb.length() > 0 ? sb.toString() : "változatlan adatok";
+    }
+
+    private static void appendIfChanged(StringBuilder sb, String field, Object before, Object after) {
+        if (!Objects.equals(before, after)) {
+            sb.append(sb.length() > 0 ? ", " : "").append(field);
+        }
+    }
+
+    /**
+     * A szerződés állapota az adott nap végén, a változásnaplóból.
+     */
+    private static String describeVersionAt(LocalDate date, ContractVersion version) {
+        StringBuilder sb = new StringBuilder(String.format("ÁLLAPOT EKKOR:\t%s\n", date));
+        if (version == null) {
+            return sb.append("Erre a napra nincs bejegyzés a változásnaplóban ")
+                    .append("(a szerződés még nem létezett, vagy a napló indulása előtti nap).\n").toString();
+        }
+        sb.append(String.format("UTOLSÓ VÁLTOZÁS:\t%s\n", version.describe()));
+        if (version.isDeleted()) {
+            sb.append("A szerződés ekkor már törölve volt; a törlés előtti állapot:\n");
+        }
+        sb.append("--------------------------------------\n");
+        sb.append(describeContract(version.getContract()));
+        // A napló a régi utat őrzi, de a tárbeli példányt a hivatkozások megszűnésekor törölhettük
+        String path = version.getContract().getDokumentumPath();
+        if (path != null && !path.isEmpty() && !Files.exists(Paths.get(path))) {
+            sb.append(String.format("ELÉRHETŐ:\t%s\n", DatabaseManager.getDocumentStore().contains(path)
+                    ? "nem (a dokumentumtárból törölve, mert már egy szerződés sem hivatkozik rá)"
+                    : "nem (a fájl nem található)"));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Megnyitható-e a szerződés dokumentuma: van elérési út, és nem ismert, hogy hiányzik.
+     * Nem végez fájlrendszer hívást.
+     */
+    private boolean canOpenDocument(Contract c) {
+        return c.getDokumentumPath() != null && !c.getDokumentumPath().isEmpty()
+            && !documentScanner.isKnownMissing(c.getDokumentumPath());
+    }
+
+    /**
+     * A szerkesztőablak hívja sikeres mentés után. Az adatbázis újraolvasása
+     * helyett csak az érintett elemet szúrja be / cseréli a rendezett listában,
+     * és kijelöli azt.
+     * @param original A módosítás előtti szerződés (új szerződésnél null).
+     * @param saved A mentett szerződés (generált ID-val).
+     */
+    public void contractSaved(Contract original, Contract saved) {
+        int index = (original == null)
+            ? listModel.insertSorted(saved)
+            : listModel.replace(original, saved);
+
+        refreshExpiryPanelIfShown();
+        documentScanner.check(saved.getDokumentumPath()); // Új vagy módosított dokumentum út
+
+        if (isSearchActive()) {
+            // A relevancia sorrend változhatott, a keresést újrafuttatjuk
+            runSearch();
+        } else if (index >= 0) {
+            contractList.setSelectedIndex(index);
+            contractList.ensureIndexIsVisible(index);
+            updateDetailsArea(saved); // Akkor is frissüljön, ha a kijelölés nem változott
+        } else {
+            contractList.clearSelection();
+        }
+    }
+
+    /**
+     * Menüsor: Eszközök / Teljesítmény metrikák.
+     */
+    private JMenuBar createMenuBar() {
+        JMenuBar menuBar = new JMenuBar();
+        JMenu toolsMenu = new JMenu("Eszközök");
+        JMenuItem metricsItem = new JMenuItem("Teljesítmény metrikák...");
+        metricsItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showMetrics();
+            }
+        });
+        toolsMenu.add(metricsItem);
+        menuBar.add(toolsMenu);
+        return menuBar;
+    }
+
+    /**
+     * Megmutatja a DAO műveletek, a kapcsolatkészlet és a gyorsítótár metrikáit
+     * (ugyanez JMX-en is elérhető). A "Nullázás" a DAO metrikákat törli.
+     */
+    private void showMetrics() {
+        StringBuilder text = new StringBuilder(DatabaseManager.getMetrics().getTextSnapshot());
+        text.append(System.lineSeparator()).append(DatabaseManager.getPool().metricsSummary());
+        if (contractDAO instanceof ContractCache) {
+            text.append(System.lineSeparator()).append(((ContractCache) contractDAO).metricsSummary());
+        }
+
+        JTextArea area = new JTextArea(text.toString());
+        area.setEditable(false);
+        area.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        JScrollPane scrollPane = new JScrollPane(area);
+        scrollPane.setPreferredSize(new Dimension(900, 320));
+
+        Object[] options = {"Bezárás", "Nullázás"};
+        int choice = JOptionPane.showOptionDialog(this, scrollPane, "Teljesítmény metrikák",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.PLAIN_MESSAGE, null, options, options[0]);
+        if (choice == 1) {
+            DatabaseManager.getMetrics().reset();
+        }
+    }
+
+    private void refreshExpiryPanelIfShown() {
+        if (centerTabs.getSelectedComponent() == expiryPanel) {
+            expiryPanel.refresh();
+        }
+    }
+
+    private boolean isSearchActive() {
+        return contractList.getModel() == searchModel;
+    }
+
+    /**
+     * Lefuttatja a keresést a keresőmező tartalmával (háttérszálon).
+     * Üres mezőnél visszaáll a teljes, név szerinti listára.
+     * Egy még futó, korábbi keresés eredményét eldobjuk.
+     */
+    private void runSearch() {
+        final String query = searchField.getText();
+        if (searchWorker != null) {
+            searchWorker.cancel(false);
+            searchWorker = null;
+        }
+
+        if (query.trim().isEmpty()) {
+            contractList.setModel(listModel);
+            statusLabel.setText(listModel.getSize() + " szerződés betöltve");
+            return;
+        }
+
+        loadingBar.setVisible(true);
+        searchWorker = new SwingWorker<List<Contract>, Void>() {
+            @Override
+            protected List<Contract> doInBackground() {
+                return contractDAO.search(query, SEARCH_LIMIT);
+            }
+
+            @Override
+            protected void done() {
+                if (searchWorker != this) {
+                    return; // Időközben újabb keresés indult
+                }
+                searchWorker = null;
+                loadingBar.setVisible(listModel.isLoading());
+                List<Contract> results;
+                try {
+                    results = get();
+                } catch (Exception ex) {
+                    statusLabel.setText("Hiba a keresés során: " + ex.getMessage());
+                    return;
+                }
+
+                searchModel.clear();
+                for (Contract c : results) {
+                    searchModel.addElement(c);
+                }
+                contractList.setModel(searchModel);
+                statusLabel.setText(results.size() + " találat"
+                    + (results.size() >= SEARCH_LIMIT ? " (az első " + SEARCH_LIMIT + ")" : ""));
+            }
+        };
+        searchWorker.execute();
     }
 
     /**
      * Betölti (vagy frissíti) a szerződések listáját az adatbázisból.
+     * Csak az első lap töltődik be (háttérszálon), a többi görgetéskor.
+     * Egy még futó, korábbi betöltést leállít.
      */
     public void loadContracts() {
-        listModel.clear(); // Lista kiürítése
-        List<Contract> contracts = contractDAO.getAllContracts();
-        
-        for (Contract c : contracts) {
-            listModel.addElement(c); // Hozzáadás a listamodellhez
-        }
+        listModel.reload();
     }
 
     /**
@@ -290,6 +835,8 @@ public class MainAppWindow extends JFrame {
     public static void main(String[] args) {
         // 1. Adatbázis inicializálása (táblák létrehozása, ha kell)
         DatabaseManager.initializeDatabase();
+        // A változásnapló pillanatképei a háttérben, az indulást nem lassítják
+        DatabaseManager.startHistorySnapshots();
         
         // 2. A GUI futtatása az Event Dispatch Thread-en (EDT)
         // Ez kötelező a Swing alkalmazásoknál!
@@ -0,0 +1,85 @@
+package com.github.csucsuy;
+
+// Egy DAO művelet metrikái egy adott pillanatban (lásd DaoMetrics).
+public class OperationSnapshot {
+
+    private final String name; // A művelet (DAO metódus) neve
+    private final long calls; // Hívások száma
+    private final long errors; // Hibával végződött hívások
+    private final long slowCalls; // A küszöbnél lassabb hívások
+    private final long rows; // Visszaadott / érintett sorok összesen
+    private final double meanMillis;
+    private final double p50Millis;
+    private final double p95Millis;
+    private final double p99Millis;
+    private final double maxMillis;
+    private final double meanAcquireMillis; // Kapcsolatszerzés átlagos ideje
+    private final double p99AcquireMillis; // Kapcsolatszerzés 99. percentilise
+
+    public OperationSnapshot(String name, long calls, long errors, long slowCalls, long rows,
+                             double meanMillis, double p50Millis, double p95Millis, double p99Millis,
+                             double maxMillis, double meanAcquireMillis, double p99AcquireMillis) {
+        this.name = name;
+        this.calls = calls;
+        this.errors = errors;
+        this.slowCalls = slowCalls;
+        this.rows = rows;
+        this.meanMillis = meanMillis;
+        this.p50Millis = p50Millis;
+        this.p95Millis = p95Millis;
+        this.p99Millis = p99Millis;
+        this.maxMillis = maxMillis;
+        this.meanAcquireMillis = meanAcquireMillis;
+        this.p99AcquireMillis = p99AcquireMillis;
+    }
+
+    // --- Getterek ---
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getSlowCalls() {
+        return slowCalls;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public double getMeanMillis() {
+        return meanMillis;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public double getP95Millis() {
+        return p95Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    public double getMeanAcquireMillis() {
+        return meanAcquireMillis;
+    }
+
+    public double getP99AcquireMillis() {
+        return p99AcquireMillis;
+    }
+}
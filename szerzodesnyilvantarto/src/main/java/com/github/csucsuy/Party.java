@@ -0,0 +1,30 @@
+package com.github.csucsuy;
+
+/**
+ * Egy szerződő fél (a parties tábla egy sora).
+ * Változtathatatlan; adatbázisonként azonosítónként egyetlen példány létezik
+ * (lásd PartyDictionary), így a szerződések a nevét sem tárolják külön-külön.
+ */
+public final class Party {
+
+    private final int id;
+    private final String nev;
+
+    Party(int id, String nev) {
+        this.id = id;
+        this.nev = nev;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getNev() {
+        return nev;
+    }
+
+    @Override
+    public String toString() {
+        return nev;
+    }
+}
@@ -0,0 +1,152 @@
+package com.github.csucsuy;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A szerződő felek szótára: azonosító -&gt; Party és név -&gt; azonosító.
+ *
+ * A contracts tábla csak a felek egész azonosítóját tárolja (szótár kódolás).
+ * Olvasáskor a nevet ebből a memóriabeli szótárból vesszük, nem az adatbázisból
+ * soronként: minden szerződés ugyanazt a (közös) String példányt kapja, és a
+ * gyakori felek neve nem olvasódik és nem allokálódik sorról sorra újra.
+ * A szótár kicsi (a felek száma, nem a szerződéseké), hiány esetén a
+ * hívó kapcsolatán töltődik.
+ *
+ * Csak véglegesített (commit-olt) sor kerülhet a szótárba: egy visszagörgetett
+ * tranzakcióban létrehozott fél azonosítója nem létezne (és később másik fél
+ * kaphatná meg). Egy kapcsolat a többiek nem véglegesített sorait nem látja, és
+ * felet csak az idOf hoz létre; így nyitott tranzakcióban (autoCommit = false)
+ * is minden olvasott fél véglegesített, kivéve azokat, amelyeket ugyanez a
+ * kapcsolat hozott létre a tranzakció kezdete óta. Ezeket a kapcsolat tartja
+ * nyilván (PooledConnection.uncommittedParties), és csak a commit után, a
+ * committed() hívásakor kerülnek a szótárba; tranzakción kívül (autoCommit = true)
+ * a nyilvántartás ürül. A tömeges import és a csoportos író így tranzakción
+ * belül is a szótárból dolgozik.
+ * Felet nem törlünk és nem nevezünk át, így a már felvett bejegyzés nem avul el.
+ *
+ * Adatbázisonként (kapcsolatkészletenként) egy példány van, lásd ConnectionPool.getParties().
+ */
+public class PartyDictionary {
+
+    private final Map<Integer, Party> byId = new ConcurrentHashMap<>();
+    private final Map<String, Party> byName = new ConcurrentHashMap<>();
+
+    /**
+     * Az adott azonosítójú fél (egyetlen, közös példány).
+     * @param conn Hiány esetén ezen a kapcsolaton olvassuk be.
+     * @return A fél, vagy null, ha nincs ilyen azonosító.
+     */
+    public Party get(PooledConnection conn, int id) throws SQLException {
+        Party party = byId.get(id);
+        if (party != null) {
+            return party;
+        }
+        PreparedStatement pstmt = conn.prepare(ContractSql.PARTY_BY_ID);
+        pstmt.setInt(1, id);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? remember(conn, new Party(id, rs.getString(1))) : null;
+        }
+    }
+
+    /**
+     * A név szerinti fél azonosítója, ha már létezik (nem hoz létre újat).
+     * @return Az azonosító, vagy null, ha nincs ilyen nevű fél.
+     */
+    public Integer find(PooledConnection conn, String nev) throws SQLException {
+        if (nev == null) {
+            return null;
+        }
+        Party party = byName.get(nev);
+        if (party != null) {
+            return party.getId();
+        }
+        PreparedStatement pstmt = conn.prepare(ContractSql.PARTY_ID);
+        pstmt.setString(1, nev);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            if (!rs.next()) {
+                return null;
+            }
+            return remember(conn, new Party(rs.getInt(1), nev)).getId();
+        }
+    }
+
+    /**
+     * A név szerinti fél azonosítója; ha még nincs ilyen fél, létrehozza.
+     * Író kapcsolaton kell hívni; a hívó tranzakciójának része lesz.
+     * @return Az azonosító, vagy null, ha a név null.
+     */
+    public Integer idOf(PooledConnection conn, String nev) throws SQLException {
+        Integer id = find(conn, nev);
+        if (id != null || nev == null) {
+            return id;
+        }
+        PreparedStatement insert = conn.prepare(ContractSql.PARTY_INSERT);
+        insert.setString(1, nev);
+        insert.executeUpdate();
+        if (conn.getConnection().getAutoCommit()) {
+            return find(conn, nev); // Már véglegesítve: a szótárba is bekerül
+        }
+        PreparedStatement pstmt = conn.prepare(ContractSql.PARTY_ID);
+        pstmt.setString(1, nev);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            int created = rs.getInt(1);
+            conn.uncommittedParties().put(created, nev); // A commit-ig nem kerül a szótárba
+            return created;
+        }
+    }
+
+    /**
+     * A kapcsolat tranzakciójának véglegesítése (commit) után hívandó: az abban
+     * létrehozott felek a szótárba kerülnek. Egy mentési ponttal visszagörgetett
+     * létrehozás nem véglegesült, ezért a felet felvétel előtt újra megkeressük.
+     */
+    public void committed(PooledConnection conn) throws SQLException {
+        Map<Integer, String> created = conn.uncommittedParties();
+        if (created.isEmpty()) {
+            return;
+        }
+        List<Party> parties = new ArrayList<>(created.size());
+        for (Map.Entry<Integer, String> entry : created.entrySet()) {
+            parties.add(new Party(entry.getKey(), entry.getValue()));
+        }
+        created.clear();
+        PreparedStatement pstmt = conn.prepare(ContractSql.PARTY_ID);
+        for (Party party : parties) {
+            pstmt.setString(1, party.getNev());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next() && rs.getInt(1) == party.getId()) {
+                    remember(conn, party);
+                }
+            }
+        }
+    }
+
+    /**
+     * A szótárban lévő felek száma.
+     */
+    public int size() {
+        return byId.size();
+    }
+
+    private Party remember(PooledConnection conn, Party party) throws SQLException {
+        Map<Integer, String> uncommitted = conn.uncommittedParties();
+        if (conn.getConnection().getAutoCommit()) {
+            uncommitted.clear(); // Nincs nyitott tranzakció: amit létrehoztunk, az már véglegesült vagy eltűnt
+        } else if (uncommitted.containsKey(party.getId())) {
+            return party; // Ebben a tranzakcióban jött létre: nem kerül a szótárba
+        }
+        Party existing = byId.putIfAbsent(party.getId(), party);
+        if (existing != null) {
+            return existing;
+        }
+        byName.put(party.getNev(), party);
+        return party;
+    }
+}
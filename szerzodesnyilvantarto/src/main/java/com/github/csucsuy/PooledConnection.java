@@ -0,0 +1,174 @@
+package com.github.csucsuy;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A ConnectionPool által kiadott, hosszú életű adatbázis kapcsolat.
+ * A close() nem zárja le a fizikai kapcsolatot, hanem visszaadja a készletbe.
+ * A kapcsolathoz tartozó PreparedStatement-eket gyorsítótárazza: a ContractSql
+ * jegyzékben lévőket a kapcsolat teljes élettartamára, a többit (pl. a
+ * kimutatások változó lekérdezéseit) egy korlátos LRU gyorsítótárban.
+ */
+public class PooledConnection implements AutoCloseable {
+
+    private final ConnectionPool pool;
+    private final Connection connection;
+    private final boolean readOnly;
+    private final Map<String, PreparedStatement> statementCache;
+    private final PreparedStatement[] registered = new PreparedStatement[REGISTRY.length];
+    // Hányszor fordítottunk le statement-et ezen a kapcsolaton (a metrikák más szálról olvassák)
+    private volatile long preparedCount;
+    // A nyitott tranzakcióban ezen a kapcsolaton létrehozott felek: azonosító -> név (lásd PartyDictionary)
+    private final Map<Integer, String> uncommittedParties = new HashMap<>();
+
+    private static final ContractSql[] REGISTRY = ContractSql.values();
+
+    PooledConnection(ConnectionPool pool, Connection connection, boolean readOnly, final int statementCacheSize) {
+        this.pool = pool;
+        this.connection = connection;
+        this.readOnly = readOnly;
+        // Hozzáférési sorrendű LinkedHashMap: a legrégebben használt statement-et zárjuk le először
+        this.statementCache = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > statementCacheSize) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Visszaadja a gyorsítótárazott PreparedStatement-et az adott SQL-hez,
+     * vagy előkészíti, ha még nincs a gyorsítótárban.
+     * A visszaadott statement-et NEM szabad lezárni, azt a kapcsolat kezeli.
+     * @param sql Az SQL parancs.
+     * @return Paraméterektől megtisztított PreparedStatement.
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement pstmt = statementCache.get(sql);
+        if (pstmt == null) {
+            pstmt = compile(sql);
+            statementCache.put(sql, pstmt);
+        } else {
+            pstmt.clearParameters();
+        }
+        return pstmt;
+    }
+
+    /**
+     * A jegyzékben lévő parancs előkészített példánya ezen a kapcsolaton.
+     * Az első hívás fordítja le, a továbbiak ugyanazt adják vissza.
+     * A visszaadott statement-et NEM szabad lezárni, azt a kapcsolat kezeli.
+     * @param statement A parancs a jegyzékből.
+     * @return Paraméterektől megtisztított PreparedStatement.
+     */
+    public PreparedStatement prepare(ContractSql statement) throws SQLException {
+        PreparedStatement pstmt = registered[statement.ordinal()];
+        if (pstmt == null) {
+            pstmt = compile(statement.sql());
+            registered[statement.ordinal()] = pstmt;
+        } else {
+            pstmt.clearParameters();
+        }
+        return pstmt;
+    }
+
+    private PreparedStatement compile(String sql) throws SQLException {
+        PreparedStatement pstmt = connection.prepareStatement(sql);
+        preparedCount++; // Egyszerre csak a kölcsönző szál ír ide
+        return pstmt;
+    }
+
+    /**
+     * A mögöttes JDBC kapcsolat (pl. tranzakciókezeléshez).
+     * A kapott kapcsolatot NEM szabad lezárni.
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Az adatbázis szerződő feleinek szótára (lásd ConnectionPool.getParties()).
+     */
+    public PartyDictionary parties() {
+        return pool.getParties();
+    }
+
+    // A kapcsolatot egyszerre egy szál használja, ezért elég a sima HashMap
+    Map<Integer, String> uncommittedParties() {
+        return uncommittedParties;
+    }
+
+    /**
+     * Visszaadja a kapcsolatot a készletbe.
+     */
+    @Override
+    public void close() {
+        pool.release(this);
+    }
+
+    /**
+     * Lezárja a gyorsítótárazott statement-eket és a fizikai kapcsolatot.
+     */
+    void closePhysically() {
+        Iterator<PreparedStatement> it = statementCache.values().iterator();
+        while (it.hasNext()) {
+            closeQuietly(it.next());
+            it.remove();
+        }
+        for (int i = 0; i < registered.length; i++) {
+            if (registered[i] != null) {
+                closeQuietly(registered[i]);
+                registered[i] = null;
+            }
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("Hiba a kapcsolat lezárásakor: " + e.getMessage());
+        }
+    }
+
+    int cachedStatementCount() {
+        return statementCache.size();
+    }
+
+    int registeredStatementCount() {
+        int count = 0;
+        for (PreparedStatement pstmt : registered) {
+            if (pstmt != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Az eddig lefordított statement-ek száma. Ha ez nem nő ismételt
+     * hívásoknál, a statement-ek újrahasznosulnak.
+     */
+    long preparedStatementCount() {
+        return preparedCount;
+    }
+
+    private static void closeQuietly(PreparedStatement pstmt) {
+        try {
+            pstmt.close();
+        } catch (SQLException e) {
+            System.err.println("Hiba a statement lezárásakor: " + e.getMessage());
+        }
+    }
+}
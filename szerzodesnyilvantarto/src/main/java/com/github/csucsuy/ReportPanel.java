@@ -0,0 +1,173 @@
+package com.github.csucsuy;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A főablak "Kimutatások" panelje.
+ * Csoportosított összesítések (darab, összeg, min/max) a ContractReportDAO-ból,
+ * valamint az adott napon hatályos szerződések szerződő felenként.
+ * A lekérdezés háttérszálon fut.
+ */
+public class ReportPanel extends JPanel {
+
+    // A csoportosítások mellett a "hatályos ekkor" kimutatás is választható
+    private static final String ACTIVE_AT = "Hatályos szerződések felenként";
+
+    private final ContractReportDAO reportDAO;
+    private final SummaryTableModel tableModel = new SummaryTableModel();
+
+    private JComboBox<Object> reportCombo;
+    private JTextField dateField;
+    private JLabel statusLabel;
+    private SwingWorker<List<ContractSummary>, Void> worker; // Az éppen futó lekérdezés
+
+    public ReportPanel(ContractReportDAO reportDAO) {
+        super(new BorderLayout(5, 5));
+        this.reportDAO = reportDAO;
+        initComponents();
+    }
+
+    private void initComponents() {
+        // Felső sáv: kimutatás típusa, dátum (a hatályos szerződésekhez) és frissítés gomb
+        JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        reportCombo = new JComboBox<>();
+        for (ContractReportDAO.Grouping grouping : ContractReportDAO.Grouping.values()) {
+            reportCombo.addItem(grouping);
+        }
+        reportCombo.addItem(ACTIVE_AT);
+        dateField = new JTextField(LocalDate.now().toString(), 10);
+        dateField.setToolTipText("ÉÉÉÉ-HH-NN");
+        JButton refreshButton = new JButton("Frissítés");
+        statusLabel = new JLabel(" ");
+
+        topPanel.add(reportCombo);
+        topPanel.add(new JLabel("Dátum:"));
+        topPanel.add(dateField);
+        topPanel.add(refreshButton);
+        topPanel.add(statusLabel);
+        add(topPanel, BorderLayout.NORTH);
+
+        JTable table = new JTable(tableModel);
+        table.getColumnModel().getColumn(0).setPreferredWidth(200);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        updateDateField();
+        reportCombo.addActionListener(e -> {
+            updateDateField();
+            refresh();
+        });
+        refreshButton.addActionListener(e -> refresh());
+        dateField.addActionListener(e -> refresh());
+    }
+
+    // A dátum csak a hatályos szerződések kimutatásánál számít
+    private void updateDateField() {
+        dateField.setEnabled(reportCombo.getSelectedItem() == ACTIVE_AT);
+    }
+
+    /**
+     * Újra lekérdezi a kiválasztott kimutatást (háttérszálon).
+     * Egy még futó, korábbi lekérdezés eredményét eldobjuk.
+     */
+    public void refresh() {
+        final Object selected = reportCombo.getSelectedItem();
+        LocalDate parsed = null;
+        if (selected == ACTIVE_AT) { // A többi kimutatásnál a dátummező le van tiltva
+            try {
+                parsed = LocalDate.parse(dateField.getText().trim());
+            } catch (DateTimeParseException ex) {
+                statusLabel.setText("Érvénytelen dátum (ÉÉÉÉ-HH-NN)");
+                return;
+            }
+        }
+        final LocalDate date = parsed;
+        if (worker != null) {
+            worker.cancel(false);
+        }
+        statusLabel.setText("Számítás...");
+        final long start = System.nanoTime();
+
+        worker = new SwingWorker<List<ContractSummary>, Void>() {
+            @Override
+            protected List<ContractSummary> doInBackground() {
+                if (selected == ACTIVE_AT) {
+                    return reportDAO.activeAt(date, true);
+                }
+                return reportDAO.summarize((ContractReportDAO.Grouping) selected);
+            }
+
+            @Override
+            protected void done() {
+                if (worker != this) {
+                    return; // Időközben újabb lekérdezés indult
+                }
+                worker = null;
+                try {
+                    List<ContractSummary> rows = get();
+                    tableModel.setRows(rows);
+                    statusLabel.setText(String.format("%d csoport (%.0f ms)",
+                            rows.size(), (System.nanoTime() - start) / 1e6));
+                } catch (Exception ex) {
+                    statusLabel.setText("Hiba a lekérdezés során: " + ex.getMessage());
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    /**
+     * Táblázat modell: szerződő fél, időszak, darab, összesen, min, max.
+     */
+    private static class SummaryTableModel extends AbstractTableModel {
+
+        private static final String[] COLUMNS = {"Szerződő fél", "Időszak", "Darab", "Összesen (Ft)",
+                "Legkisebb (Ft)", "Legnagyobb (Ft)"};
+
+        private List<ContractSummary> rows = new ArrayList<>();
+
+        void setRows(List<ContractSummary> rows) {
+            this.rows = rows;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            ContractSummary s = rows.get(row);
+            switch (column) {
+                case 0:
+                    return s.getParty() != null ? s.getParty() : "(összes)";
+                case 1:
+                    return s.getPeriod() != null ? s.getPeriod() : "-";
+                case 2:
+                    return s.getCount();
+                case 3:
+                    return String.format("%,.2f", s.getSum());
+                case 4:
+                    return String.format("%,.2f", s.getMin());
+                default:
+                    return String.format("%,.2f", s.getMax());
+            }
+        }
+    }
+}
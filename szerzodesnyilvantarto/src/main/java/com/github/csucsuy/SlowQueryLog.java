@@ -0,0 +1,163 @@
+package com.github.csucsuy;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Lassú lekérdezés napló: a küszöbnél tovább futó DAO utasításokat a kötött
+ * paramétereikkel és az EXPLAIN QUERY PLAN kimenetével egy forgó (rotating)
+ * naplófájlba írja. Így éles környezetben is látszik pl. egy teljes táblás
+ * olvasás (SCAN contracts) vagy egy ideiglenes rendező B-fa (USE TEMP B-TREE).
+ *
+ * A beállítások (adatbazis.properties): slowlog.millis (negatív = kikapcsolva),
+ * slowlog.file (java.util.logging FileHandler minta, %g = sorszám),
+ * slowlog.maxBytes (egy fájl mérete), slowlog.files (megtartott fájlok száma).
+ * A naplófájl csak az első lassú utasításnál jön létre.
+ */
+public class SlowQueryLog {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private final long thresholdNanos;
+    private final String filePattern;
+    private final int maxBytes;
+    private final int fileCount;
+    private boolean handlerOpened;
+    private FileHandler handler;
+
+    /**
+     * @param thresholdMillis E fölötti futási idő kerül a naplóba; negatív érték kikapcsolja.
+     * @param filePattern A naplófájl mintája (pl. lassu-lekerdezesek.%g.log).
+     * @param maxBytes Egy naplófájl legnagyobb mérete, utána új fájl kezdődik.
+     * @param fileCount Ennyi fájlt tartunk meg (a legrégebbi törlődik).
+     */
+    public SlowQueryLog(long thresholdMillis, String filePattern, int maxBytes, int fileCount) {
+        this.thresholdNanos = thresholdMillis < 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.filePattern = filePattern;
+        this.maxBytes = maxBytes;
+        this.fileCount = fileCount;
+    }
+
+    public boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos;
+    }
+
+    /**
+     * Naplóz egy lassú utasítást. A lekérdezési tervet ugyanazon a kapcsolaton
+     * kérjük le, amelyen az utasítás futott (a kapcsolat még a hívóé).
+     * @param operation A DAO művelet neve.
+     * @param elapsedNanos A futási idő.
+     * @param rows A visszaadott / érintett sorok száma.
+     * @param sql Az utasítás.
+     * @param params A kötött paraméterek, sorrendben (lehet null).
+     * @param conn A kapcsolat, amelyen az utasítás futott (lehet null, ekkor nincs terv).
+     */
+    public void log(String operation, long elapsedNanos, long rows, String sql, Object[] params, Connection conn) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(LocalDateTime.now().format(TIMESTAMP)).append(' ').append(operation)
+                .append(String.format(Locale.ROOT, " %.1f ms (%d sor)", elapsedNanos / 1e6, rows)).append('\n');
+        sb.append("  SQL: ").append(sql).append('\n');
+        sb.append("  Paraméterek: ").append(formatParams(params)).append('\n');
+        sb.append("  Lekérdezési terv:\n");
+        if (conn != null) {
+            appendQueryPlan(sb, conn, sql, params);
+        } else {
+            sb.append("    (nem elérhető)\n");
+        }
+        write(sb.toString());
+    }
+
+    static String formatParams(Object[] params) {
+        if (params == null || params.length == 0) {
+            return "-";
+        }
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < params.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            Object p = params[i];
+            if (p instanceof String) {
+                sb.append('\'').append(((String) p).replace("'", "''")).append('\'');
+            } else {
+                sb.append(p);
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Az EXPLAIN QUERY PLAN sorai, a szülő-gyerek kapcsolat szerint behúzva.
+     */
+    private static void appendQueryPlan(StringBuilder sb, Connection conn, String sql, Object[] params) {
+        try (PreparedStatement explain = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            if (params != null) {
+                for (int i = 0; i < params.length; i++) {
+                    explain.setObject(i + 1, params[i]);
+                }
+            }
+            Map<Integer, Integer> depths = new HashMap<>();
+            try (ResultSet rs = explain.executeQuery()) {
+                while (rs.next()) {
+                    int depth = depths.getOrDefault(rs.getInt("parent"), 0) + 1;
+                    depths.put(rs.getInt("id"), depth);
+                    for (int i = 0; i <= depth; i++) {
+                        sb.append("  ");
+                    }
+                    sb.append(rs.getString("detail")).append('\n');
+                }
+            }
+        } catch (SQLException e) {
+            sb.append("    (hiba a terv lekérdezésekor: ").append(e.getMessage()).append(")\n");
+        }
+    }
+
+    private synchronized void write(String entry) {
+        if (!handlerOpened) {
+            handlerOpened = true;
+            try {
+                handler = new FileHandler(filePattern, maxBytes, fileCount, true);
+                handler.setEncoding("UTF-8");
+                handler.setFormatter(new Formatter() {
+                    @Override
+                    public String format(LogRecord record) {
+                        return record.getMessage() + System.lineSeparator();
+                    }
+                });
+            } catch (IOException e) {
+                System.err.println("A lassú lekérdezés napló nem nyitható meg (" + filePattern + "): "
+                        + e.getMessage());
+            }
+        }
+        if (handler != null) {
+            handler.publish(new LogRecord(Level.WARNING, entry));
+            handler.flush();
+        } else {
+            System.err.print(entry);
+        }
+    }
+
+    /**
+     * Lezárja a naplófájlt (ha meg volt nyitva).
+     */
+    public synchronized void close() {
+        if (handler != null) {
+            handler.close();
+            handler = null;
+        }
+        handlerOpened = false;
+    }
+}
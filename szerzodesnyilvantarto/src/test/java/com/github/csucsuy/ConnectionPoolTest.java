@@ -0,0 +1,121 @@
+package com.github.csucsuy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A ConnectionPool tesztjei egy ideiglenes SQLite fájlon.
+ */
+class ConnectionPoolTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Map<String, String> pragmas = new LinkedHashMap<>();
+        pragmas.put("busy_timeout", "100");
+        pragmas.put("journal_mode", "WAL");
+        pragmas.put("synchronous", "NORMAL");
+        pool = new ConnectionPool("jdbc:sqlite:" + tempDir.resolve("teszt.db"), 2, 4, pragmas);
+        try (PooledConnection conn = pool.borrowWriter();
+             Statement stmt = conn.getConnection().createStatement()) {
+            stmt.execute("CREATE TABLE t (x INTEGER)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void connectionIsReusedAfterRelease() throws SQLException {
+        PooledConnection first = pool.borrowReader();
+        first.close();
+        try (PooledConnection second = pool.borrowReader()) {
+            assertSame(first, second);
+        }
+        assertEquals(2, pool.getOpenConnections()); // 1 író + 1 olvasó
+        assertEquals(0, pool.getActiveConnections());
+    }
+
+    @Test
+    void readersAreBoundedAndMetricsAreCounted() throws SQLException {
+        try (PooledConnection a = pool.borrowReader();
+             PooledConnection b = pool.borrowReader()) {
+            assertNotSame(a, b);
+            assertEquals(2, pool.getActiveConnections());
+        }
+        assertEquals(3, pool.getOpenConnections());
+        assertEquals(3, pool.getBorrowCount());
+    }
+
+    @Test
+    void preparedStatementsAreCachedPerConnection() throws SQLException {
+        try (PooledConnection conn = pool.borrowReader()) {
+            PreparedStatement first = conn.prepare("SELECT x FROM t WHERE x = ?");
+            PreparedStatement second = conn.prepare("SELECT x FROM t WHERE x = ?");
+            assertSame(first, second);
+            assertEquals(1, conn.cachedStatementCount());
+        }
+    }
+
+    @Test
+    void readerConnectionsAreReadOnly() throws SQLException {
+        try (PooledConnection conn = pool.borrowReader();
+             Statement stmt = conn.getConnection().createStatement()) {
+            assertThrows(SQLException.class, () -> stmt.execute("INSERT INTO t VALUES (1)"));
+        }
+    }
+
+    @Test
+    void readersAreNotBlockedByOpenWriteTransaction() throws SQLException {
+        try (PooledConnection writer = pool.borrowWriter();
+             Statement insert = writer.getConnection().createStatement()) {
+            writer.getConnection().setAutoCommit(false);
+            insert.execute("INSERT INTO t VALUES (1)");
+
+            // WAL módban az olvasó a legutóbbi véglegesített állapotot látja, nem vár az íróra
+            try (PooledConnection reader = pool.borrowReader();
+                 ResultSet rs = reader.prepare("SELECT COUNT(*) FROM t").executeQuery()) {
+                rs.next();
+                assertEquals(0, rs.getInt(1));
+            }
+            writer.getConnection().commit();
+        }
+    }
+
+    @Test
+    void pragmasAreAppliedOnOpen() throws SQLException {
+        try (PooledConnection conn = pool.borrowReader();
+             ResultSet rs = conn.prepare("PRAGMA journal_mode").executeQuery()) {
+            rs.next();
+            assertEquals("wal", rs.getString(1));
+        }
+    }
+
+    @Test
+    void closedPoolRejectsBorrow() {
+        pool.close();
+        assertEquals(0, pool.getOpenConnections());
+        assertThrows(SQLException.class, () -> pool.borrowWriter());
+    }
+}
@@ -0,0 +1,173 @@
+package com.github.csucsuy;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A ContractCache tesztjei egy memóriabeli csonk DAO-val.
+ */
+class ContractCacheTest {
+
+    /**
+     * Csonk DAO: egy map az adatbázis helyett, számolja a lekérdezéseket.
+     * A lapozó lekérdezés a pageGate-ig várhat (a versenyhelyzet teszthez).
+     */
+    private static class MapDAO extends ContractDAO {
+        final Map<Integer, Contract> rows = new ConcurrentHashMap<>();
+        final AtomicInteger queries = new AtomicInteger();
+        final AtomicInteger nextId = new AtomicInteger();
+        volatile CountDownLatch pageRead;
+        volatile CountDownLatch pageGate;
+
+        @Override
+        public Contract getContractById(int id) {
+            queries.incrementAndGet();
+            Contract row = rows.get(id);
+            return row != null ? copy(row) : null;
+        }
+
+        @Override
+        public List<Contract> getContractsPage(String afterName, int afterId, int limit) {
+            queries.incrementAndGet();
+            List<Contract> page = new ArrayList<>();
+            for (Contract row : rows.values()) {
+                page.add(copy(row)); // Az olvasás pillanatának állapota
+            }
+            if (pageGate != null) {
+                pageRead.countDown();
+                try {
+                    pageGate.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return page;
+        }
+
+        @Override
+        public Contract addContract(Contract contract) {
+            contract.setId(nextId.incrementAndGet());
+            rows.put(contract.getId(), copy(contract));
+            return contract;
+        }
+
+        @Override
+        public Contract updateContract(Contract contract) {
+            if (!rows.containsKey(contract.getId())) {
+                return null;
+            }
+            rows.put(contract.getId(), copy(contract));
+            return contract;
+        }
+
+        @Override
+        public boolean deleteContract(int id) {
+            return rows.remove(id) != null;
+        }
+
+        private static Contract copy(Contract c) {
+            Contract copy = new Contract(c.getSzerzodesNeve(), c.getLetrejotte(), c.getVege(), c.getOsszeg(),
+                    c.getSzerzodoFel1(), c.getSzerzodoFel2(), c.getDokumentumPath());
+            copy.setId(c.getId());
+            return copy;
+        }
+    }
+
+    private final MapDAO dao = new MapDAO();
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedAtCapacity() {
+        ContractCache cache = new ContractCache(2, dao);
+        Contract a = cache.addContract(GroupCommitWriterTest.contract("A"));
+        Contract b = cache.addContract(GroupCommitWriterTest.contract("B"));
+        cache.getContractById(a.getId()); // Az A frissebb, mint a B
+        cache.addContract(GroupCommitWriterTest.contract("C"));
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(0, dao.queries.get());
+        cache.getContractById(a.getId());
+        assertEquals(0, dao.queries.get()); // Bent maradt
+        cache.getContractById(b.getId());
+        assertEquals(1, dao.queries.get()); // Kiesett, az adatbázisból jön
+    }
+
+    @Test
+    void hitsAndMissesAreCounted() {
+        ContractCache cache = new ContractCache(10, dao);
+        Contract a = dao.addContract(GroupCommitWriterTest.contract("A"));
+
+        Contract first = cache.getContractById(a.getId());
+        assertSame(first, cache.getContractById(a.getId()));
+        assertNull(cache.getContractById(99));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, dao.queries.get());
+    }
+
+    @Test
+    void writesGoThroughToTheCache() {
+        ContractCache cache = new ContractCache(10, dao);
+        Contract a = cache.addContract(GroupCommitWriterTest.contract("A"));
+        assertSame(a, cache.getContractById(a.getId()));
+
+        Contract changed = MapDAO.copy(a);
+        changed.setOsszeg(new BigDecimal("2.00"));
+        cache.updateContract(changed);
+        assertSame(changed, cache.getContractById(a.getId()));
+
+        // Sikertelen frissítés: a bejegyzés kikerül
+        Contract missing = GroupCommitWriterTest.contract("X");
+        missing.setId(42);
+        cache.updateContract(missing);
+
+        assertTrue(cache.deleteContract(a.getId()));
+        assertEquals(0, cache.size());
+        assertNull(cache.getContractById(a.getId()));
+        assertFalse(cache.deleteContract(a.getId()));
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    void staleReadDoesNotOverwriteANewerWrite() throws Exception {
+        ContractCache cache = new ContractCache(10, dao);
+        Contract a = cache.addContract(GroupCommitWriterTest.contract("A"));
+        dao.pageRead = new CountDownLatch(1);
+        dao.pageGate = new CountDownLatch(1);
+
+        // A lap még a módosítás előtti állapotot olvassa, de csak utána tér vissza
+        CompletableFuture<List<Contract>> page = CompletableFuture.supplyAsync(
+                () -> cache.getContractsPage(null, 0, 10));
+        assertTrue(dao.pageRead.await(10, TimeUnit.SECONDS));
+        Contract changed = MapDAO.copy(a);
+        changed.setOsszeg(new BigDecimal("5.00"));
+        cache.updateContract(changed);
+        dao.pageGate.countDown();
+
+        assertEquals(new BigDecimal("1.00"), page.get(10, TimeUnit.SECONDS).get(0).getOsszeg());
+        assertSame(changed, cache.getContractById(a.getId()));
+
+        // Írás nélkül a lap eredménye bekerül
+        dao.pageGate = null;
+        cache.clear();
+        int queries = dao.queries.get();
+        cache.getContractsPage(null, 0, 10);
+        assertEquals(new BigDecimal("5.00"), cache.getContractById(a.getId()).getOsszeg());
+        assertEquals(queries + 1, dao.queries.get());
+    }
+}
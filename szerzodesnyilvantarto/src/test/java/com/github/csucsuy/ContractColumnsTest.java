@@ -0,0 +1,167 @@
+package com.github.csucsuy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Az oszlopos pillanatkép tesztjei: ugyanazokat a csoportokat adja, mint a
+ * ContractReportDAO lekérdezései, és a változásfolyamból növekményesen frissül.
+ */
+class ContractColumnsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConnectionPool pool;
+    private ColumnarReportDAO reports;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = GroupCommitWriterTest.createPool(tempDir);
+        try (PooledConnection conn = pool.borrowWriter();
+             Statement stmt = conn.getConnection().createStatement()) {
+            DatabaseManager.createChangeFeed(stmt);
+        }
+        reports = new ColumnarReportDAO(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void summariesMatchTheGroupedQueries() throws SQLException {
+        insert(contract("A", "Alfa Kft.", "2023-03-10", "2024-12-31", "100.00"));
+        insert(contract("B", "Alfa Kft.", "2024-01-05", null, "50.00"));
+        insert(contract("C", "Béta Zrt.", "2024-01-20", "2024-06-30", "200.00"));
+        insert(contract("D", "Béta Zrt.", null, null, "10.00"));
+
+        // Felenként név, azon belül időszak szerint; a létrejötte nélküli időszak elöl
+        assertEquals(List.of("Alfa Kft. 2023: 1 db, 100.00 Ft", "Alfa Kft. 2024: 1 db, 50.00 Ft",
+                        "Béta Zrt.: 1 db, 10.00 Ft", "Béta Zrt. 2024: 1 db, 200.00 Ft"),
+                lines(reports.summarize(ContractReportDAO.Grouping.PARTY_YEAR)));
+        List<ContractSummary> months = reports.summarize(ContractReportDAO.Grouping.MONTH);
+        assertEquals(List.of(": 1 db, 10.00 Ft", " 2023-03: 1 db, 100.00 Ft", " 2024-01: 2 db, 250.00 Ft"),
+                lines(months));
+        assertEquals(new BigDecimal("50.00"), months.get(2).getMin());
+        assertEquals(new BigDecimal("200.00"), months.get(2).getMax());
+        assertEquals(List.of(" 2024: 2 db, 250.00 Ft"), lines(reports.summarize(ContractReportDAO.Grouping.YEAR,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31))));
+
+        // C már lejárt, D-nek nincs létrejötte
+        assertEquals(List.of(" 2024-07-01: 2 db, 150.00 Ft"),
+                lines(reports.activeAt(LocalDate.of(2024, 7, 1), false)));
+        assertEquals(List.of("Alfa Kft. 2030-01-01: 1 db, 50.00 Ft"),
+                lines(reports.activeAt(LocalDate.of(2030, 1, 1), true)));
+        // Üres halmazon is egy összesítő sor, mint az SQL aggregátumnál
+        assertEquals(List.of(" 1990-01-01: 0 db, 0.00 Ft"), lines(reports.activeAt(LocalDate.of(1990, 1, 1), false)));
+    }
+
+    @Test
+    void refreshAppliesOnlyTheChangedContracts() throws SQLException {
+        Contract a = insert(contract("A", "Alfa Kft.", "2024-02-01", null, "100.00"));
+        Contract b = insert(contract("B", "Béta Zrt.", "2024-03-01", null, "200.00"));
+        ContractColumns first = reports.snapshot();
+        assertSame(first, reports.snapshot()); // Nincs változás: ugyanaz a pillanatkép
+        assertEquals(2, first.size());
+
+        a.setOsszeg(new BigDecimal("150.00"));
+        try (PooledConnection conn = pool.borrowWriter()) {
+            ContractDAO.update(conn, a);
+            ContractDAO.delete(conn, b.getId());
+        }
+        insert(contract("C", "Gamma Bt.", "2025-01-01", null, "5.00"));
+
+        ContractColumns second = reports.snapshot();
+        assertNotSame(first, second);
+        assertEquals(2, second.size());
+        assertEquals(List.of("Alfa Kft.: 1 db, 150.00 Ft", "Gamma Bt.: 1 db, 5.00 Ft"),
+                lines(second.summarize(ContractReportDAO.Grouping.PARTY, null, null)));
+        // A régi pillanatkép nem változott
+        assertEquals(List.of("Alfa Kft.: 1 db, 100.00 Ft", "Béta Zrt.: 1 db, 200.00 Ft"),
+                lines(first.summarize(ContractReportDAO.Grouping.PARTY, null, null)));
+
+        // Ha a folyam eleje már törlődött, teljes újratöltés
+        try (PooledConnection conn = pool.borrowWriter();
+             Statement stmt = conn.getConnection().createStatement()) {
+            stmt.execute("DELETE FROM contract_changes");
+        }
+        insert(contract("D", "Alfa Kft.", "2025-02-01", null, "1.00"));
+        ContractColumns third = reports.snapshot();
+        assertEquals(3, third.size());
+        assertEquals(List.of("Alfa Kft. 2024: 1 db, 150.00 Ft", "Alfa Kft. 2025: 1 db, 1.00 Ft",
+                        "Gamma Bt. 2025: 1 db, 5.00 Ft"),
+                lines(third.summarize(ContractReportDAO.Grouping.PARTY_YEAR, null, null)));
+    }
+
+    @Test
+    void everyGroupingMatchesTheSqlReports() throws SQLException {
+        insert(contract("A", "Alfa Kft.", "2023-03-10", "2024-12-31", "100.00"));
+        insert(contract("B", "Alfa Kft.", "2024-01-05", null, "-50.00"));
+        insert(contract("C", "Béta Zrt.", "2024-01-20", "2024-06-30", "200.00"));
+        insert(contract("D", "Béta Zrt.", null, null, "10.00"));
+        insert(contract("E", "Zeta Bt.", "1965-07-01", "2024-01-20", "0.01"));
+        insert(contract("F", "Élet Kft.", "2024-01-31", "2024-01-31", "999999999.99"));
+        insert(contract("G", "Alfa Kft.", "2023-03-10", null, "7.50"));
+        ContractReportDAO sql = new ContractReportDAO(pool);
+
+        for (ContractReportDAO.Grouping grouping : ContractReportDAO.Grouping.values()) {
+            assertEquals(full(sql.summarize(grouping)), full(reports.summarize(grouping)), grouping.name());
+            assertEquals(full(sql.summarize(grouping, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31))),
+                    full(reports.summarize(grouping, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31))),
+                    grouping.name());
+            assertEquals(full(sql.summarize(grouping, null, LocalDate.of(1969, 12, 31))),
+                    full(reports.summarize(grouping, null, LocalDate.of(1969, 12, 31))), grouping.name());
+        }
+        for (LocalDate date : List.of(LocalDate.of(1960, 1, 1), LocalDate.of(2024, 1, 20),
+                LocalDate.of(2024, 1, 31), LocalDate.of(2030, 1, 1))) {
+            for (boolean byParty : new boolean[] {false, true}) {
+                assertEquals(full(sql.activeAt(date, byParty)), full(reports.activeAt(date, byParty)),
+                        date + " " + byParty);
+            }
+        }
+    }
+
+    private Contract insert(Contract contract) throws SQLException {
+        try (PooledConnection conn = pool.borrowWriter()) {
+            return ContractDAO.insert(conn, contract);
+        }
+    }
+
+    private static Contract contract(String name, String party, String created, String end, String amount) {
+        return new Contract(name, created != null ? LocalDate.parse(created) : null,
+                end != null ? LocalDate.parse(end) : null, new BigDecimal(amount), party, null, null);
+    }
+
+    private static List<String> lines(List<ContractSummary> summaries) {
+        List<String> lines = new ArrayList<>();
+        for (ContractSummary summary : summaries) {
+            lines.add(summary.toString());
+        }
+        return lines;
+    }
+
+    // Minden mező, nem csak a megjelenített rész (a legkisebb és legnagyobb összeg is)
+    private static List<String> full(List<ContractSummary> summaries) {
+        List<String> lines = new ArrayList<>();
+        for (ContractSummary summary : summaries) {
+            lines.add(summary + " [" + summary.getMin() + ", " + summary.getMax() + "]");
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.csucsuy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A ContractDAOAsync szálkezelésének tesztjei (csonk DAO-val, az írásokhoz ideiglenes SQLite fájlon).
+ */
+class ContractDAOAsyncTest {
+
+    /**
+     * Csonk DAO: feljegyzi, melyik szálakon hívták.
+     */
+    private static class RecordingDAO extends ContractDAO {
+        final Set<Thread> readThreads = Collections.synchronizedSet(new HashSet<>());
+        final CountDownLatch allReadsStarted;
+
+        RecordingDAO(int reads) {
+            this.allReadsStarted = new CountDownLatch(reads);
+        }
+
+        @Override
+        public Contract getContractById(int id) {
+            readThreads.add(Thread.currentThread());
+            allReadsStarted.countDown();
+            try {
+                // Csak akkor tér vissza, ha az összes olvasás egyszerre fut
+                allReadsStarted.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Contract contract = new Contract();
+            contract.setId(id);
+            return contract;
+        }
+    }
+
+    @Test
+    void readsRunConcurrentlyOnVirtualThreads() throws Exception {
+        int reads = 200;
+        RecordingDAO dao = new RecordingDAO(reads);
+        try (ContractDAOAsync async = new ContractDAOAsync(dao)) {
+            List<CompletableFuture<Contract>> futures = new ArrayList<>();
+            for (int i = 0; i < reads; i++) {
+                futures.add(async.getContractById(i));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(20, TimeUnit.SECONDS);
+            assertEquals(42, futures.get(42).get().getId());
+        }
+        assertEquals(reads, dao.readThreads.size());
+        for (Thread thread : dao.readThreads) {
+            assertTrue(thread.isVirtual(), thread.getName());
+        }
+    }
+
+    @Test
+    void writesAreSerializedInSubmissionOrder(@TempDir Path dir) throws Exception {
+        ConnectionPool pool = GroupCommitWriterTest.createPool(dir);
+        // A kötegelt mentés önálló feladatként fut: a korábban beküldött írásoknak már látszaniuk kell
+        ContractDAO dao = new ContractDAO() {
+            @Override
+            public long addContracts(Iterable<Contract> contracts, int batchSize, ProgressListener listener) {
+                try {
+                    return GroupCommitWriterTest.countRows(pool);
+                } catch (SQLException e) {
+                    return -1;
+                }
+            }
+        };
+        List<CompletableFuture<Contract>> futures = new ArrayList<>();
+        CompletableFuture<Long> standalone;
+        CompletableFuture<Boolean> deleted;
+        try (ContractDAOAsync async = new ContractDAOAsync(dao, new GroupCommitWriter(pool::borrowWriter, 0, 50))) {
+            for (int i = 0; i < 300; i++) {
+                futures.add(async.addContract(GroupCommitWriterTest.contract("Szerződés " + i)));
+            }
+            standalone = async.addContracts(Collections.emptyList(), 1, null);
+            deleted = async.deleteContract(1);
+            deleted.get(20, TimeUnit.SECONDS);
+        } finally {
+            pool.close();
+        }
+        for (int i = 1; i < futures.size(); i++) {
+            assertTrue(futures.get(i - 1).get().getId() < futures.get(i).get().getId());
+        }
+        assertEquals(300, standalone.get());
+        assertTrue(deleted.get());
+    }
+}
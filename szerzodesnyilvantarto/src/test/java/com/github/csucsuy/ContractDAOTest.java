@@ -0,0 +1,192 @@
+package com.github.csucsuy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A ContractDAO tesztjei egy ideiglenes, a DatabaseManager által
+ * létrehozott teljes sémájú adatbázison.
+ */
+class ContractDAOTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConnectionPool pool;
+    private final ContractDAO dao = new ContractDAO();
+
+    @BeforeEach
+    void setUp() {
+        Map<String, String> pragmas = new LinkedHashMap<>();
+        pragmas.put("busy_timeout", "1000");
+        pragmas.put("journal_mode", "WAL");
+        pragmas.put("synchronous", "NORMAL");
+        pool = new ConnectionPool("jdbc:sqlite:" + tempDir.resolve("dao.db"), 2, 16, pragmas);
+        DatabaseManager.usePool(pool);
+        DatabaseManager.initializeDatabase();
+    }
+
+    @AfterEach
+    void tearDown() {
+        DatabaseManager.usePool(null);
+        pool.close();
+    }
+
+    @Test
+    void failedWriteLeavesNoOrphanParty() throws SQLException {
+        // Név nélkül a szerződés írása NOT NULL hibával elbukik, a fél már létrejött volna
+        Contract invalid = GroupCommitWriterTest.contract(null);
+        invalid.setSzerzodoFel1("Árva Kft.");
+        assertNull(dao.addContract(invalid));
+        assertEquals(0, count("SELECT COUNT(*) FROM parties"));
+        assertEquals(0, pool.getParties().size());
+
+        Contract saved = dao.addContract(GroupCommitWriterTest.contract("Bérlet"));
+        assertNotNull(saved);
+        saved.setSzerzodesNeve(null);
+        saved.setSzerzodoFel2("Árva Bt.");
+        assertNull(dao.updateContract(saved));
+        assertEquals(1, count("SELECT COUNT(*) FROM parties"));
+
+        // Nem létező azonosító: a frissítés semmit sem ír, a fél sem marad meg
+        Contract missing = GroupCommitWriterTest.contract("Nincs ilyen");
+        missing.setId(saved.getId() + 1);
+        missing.setSzerzodoFel2("Árva Bt.");
+        assertNull(dao.updateContract(missing));
+        assertEquals(1, count("SELECT COUNT(*) FROM parties"));
+        assertEquals(1, pool.getParties().size()); // Csak az Alfa Kft.
+    }
+
+    @Test
+    void batchImportWritesBackTheGeneratedIds() {
+        List<Contract> first = contracts("Első", 5);
+        assertEquals(5, dao.addContracts(first));
+        // A legnagyobb azonosítók törlése után az új azonosítók nem folytatják a max(id)-t
+        assertTrue(dao.deleteContract(first.get(4).getId()));
+        assertTrue(dao.deleteContract(first.get(3).getId()));
+
+        List<Contract> imported = contracts("Import", 7);
+        assertEquals(7, dao.addContracts(imported, 3, null)); // Három köteg: 3 + 3 + 1
+        Set<Integer> ids = new HashSet<>();
+        for (Contract contract : imported) {
+            Contract stored = dao.getContractById(contract.getId());
+            assertNotNull(stored);
+            assertEquals(contract.getSzerzodesNeve(), stored.getSzerzodesNeve());
+            ids.add(contract.getId());
+        }
+        assertEquals(7, ids.size());
+    }
+
+    @Test
+    void failedBatchKeepsTheCommittedChunks() throws SQLException {
+        List<Contract> contracts = contracts("Import", 5);
+        contracts.get(3).setSzerzodesNeve(null); // NOT NULL hiba a második kötegben
+        assertEquals(2, dao.addContracts(contracts, 2, null));
+        assertEquals(2, count("SELECT COUNT(*) FROM contracts"));
+        assertEquals("Import 0", dao.getContractById(contracts.get(0).getId()).getSzerzodesNeve());
+        assertEquals("Import 1", dao.getContractById(contracts.get(1).getId()).getSzerzodesNeve());
+    }
+
+    @Test
+    void ftsQueryQuotesEveryWordAsPrefix() {
+        assertEquals("\"bérl\"* \"kft\"*", ContractDAO.toFtsQuery("  bérl \t kft  "));
+        // Az idézőjel duplázva, így az FTS operátorok (AND, NEAR, *) szövegként keresődnek
+        assertEquals("\"Kovács\"\"Kis\"* \"AND\"* \"x*\"*", ContractDAO.toFtsQuery("Kovács\"Kis AND x*"));
+        assertEquals("", ContractDAO.toFtsQuery(""));
+        assertEquals("", ContractDAO.toFtsQuery(" \t\n "));
+        assertEquals("", ContractDAO.toFtsQuery(null));
+        assertTrue(dao.search("   ", 10).isEmpty());
+    }
+
+    @Test
+    void searchRanksNameMatchesFirstAndFindsParties() throws SQLException {
+        Contract byPath = new Contract("Keret", null, null, BigDecimal.ONE, "Alfa Kft.", null, "/doc/berlet.pdf");
+        Contract byParty = new Contract("Megbízás", null, null, BigDecimal.ONE, "Alfa Kft.", "Bérlő Bt.", null);
+        Contract byName = GroupCommitWriterTest.contract("Bérleti szerződés");
+        dao.addContracts(List.of(byPath, byParty, byName));
+        dao.addContract(GroupCommitWriterTest.contract("Adásvétel"));
+
+        // Ékezet nélkül, prefixként; a név súlya a legnagyobb, a dokumentumé a legkisebb
+        assertEquals(List.of(byName.getId(), byParty.getId(), byPath.getId()), ids(dao.search("berl", 10)));
+        assertEquals(List.of(byName.getId(), byParty.getId()), ids(dao.search("berl", 2)));
+        // Minden szónak szerepelnie kell, akár különböző oszlopokban
+        assertEquals(List.of(byParty.getId()), ids(dao.search("megb bérlő", 10)));
+
+        // Az index újraépítése a contracts_fts_forras nézetből oldja fel a felek nevét
+        try (PooledConnection conn = pool.borrowWriter();
+             Statement stmt = conn.getConnection().createStatement()) {
+            stmt.execute("INSERT INTO contracts_fts(contracts_fts) VALUES ('rebuild')");
+        }
+        assertEquals(List.of(byParty.getId()), ids(dao.search("bérlő", 10)));
+        assertEquals(4, dao.search("alfa", 10).size());
+    }
+
+    @Test
+    void expiringBetweenIncludesBothBoundsInOrder() {
+        LocalDate from = LocalDate.of(2025, 1, 10);
+        LocalDate to = LocalDate.of(2025, 1, 20);
+        Contract onTo = expiring("Utolsó nap", to);
+        Contract middle = expiring("Közte", from.plusDays(5));
+        Contract onFrom = expiring("Első nap", from);
+        Contract sameDay = expiring("Közte, később felvéve", from.plusDays(5));
+        expiring("Előtte", from.minusDays(1));
+        expiring("Utána", to.plusDays(1));
+        expiring("Határozatlan", null);
+
+        // Lejárat, azon belül azonosító szerint
+        assertEquals(List.of(onFrom.getId(), middle.getId(), sameDay.getId(), onTo.getId()),
+                ids(dao.findExpiringBetween(from, to)));
+        assertEquals(List.of(onFrom.getId()), ids(dao.findExpiringBetween(from, from)));
+        assertTrue(dao.findExpiringBetween(to.plusDays(2), to.plusDays(30)).isEmpty());
+    }
+
+    private Contract expiring(String name, LocalDate vege) {
+        Contract contract = GroupCommitWriterTest.contract(name);
+        contract.setVege(vege);
+        return dao.addContract(contract);
+    }
+
+    private static List<Integer> ids(List<Contract> contracts) {
+        List<Integer> ids = new ArrayList<>();
+        for (Contract contract : contracts) {
+            ids.add(contract.getId());
+        }
+        return ids;
+    }
+
+    private static List<Contract> contracts(String prefix, int count) {
+        List<Contract> contracts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            contracts.add(GroupCommitWriterTest.contract(prefix + " " + i));
+        }
+        return contracts;
+    }
+
+    private long count(String sql) throws SQLException {
+        try (PooledConnection conn = pool.borrowReader();
+             ResultSet rs = conn.getConnection().createStatement().executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.csucsuy;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A ContractExporter kimenetének tesztjei (adatbázis nélkül): a CSV
+ * visszaolvasható a ContractImporter feldolgozójával, a JSONL pedig
+ * helyesen escape-el.
+ */
+class ContractExporterTest {
+
+    @Test
+    void csvExportIsReadBackByTheImporter() throws IOException {
+        List<Contract> contracts = List.of(
+                new Contract("Bérlet; I. ütem", LocalDate.of(2024, 1, 15), LocalDate.of(2025, 12, 31),
+                        new BigDecimal("150000.50"), "Kovács \"Kis\" Kft.", "Béta Bt.", "/doc/a;b.pdf"),
+                new Contract("Több\nsoros \"név\"", null, null, BigDecimal.ZERO, "\"Idézett\" Zrt.", null, null),
+                new Contract("Egyszerű", LocalDate.of(1969, 12, 31), null, new BigDecimal("-1.05"),
+                        "Alfa Kft.", null, "C:\\temp\\x.pdf"));
+        StringWriter out = new StringWriter();
+        ContractExporter exporter = new ContractExporter(out, ContractExporter.Format.CSV);
+        exporter.writeHeader();
+        for (Contract contract : contracts) {
+            exporter.write(contract);
+        }
+
+        String csv = out.toString();
+        int headerEnd = csv.indexOf('\n') + 1;
+        assertTrue(csv.startsWith("szerzodes_neve;letrejotte;vege;osszeg;"));
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(csv.substring(headerEnd));
+        ContractImporter.ParsedChunk parsed = ContractImporter.parseChunk(bytes, 2);
+        assertTrue(parsed.rejected.isEmpty());
+        assertEquals(contracts.size(), parsed.contracts.size());
+        for (int i = 0; i < contracts.size(); i++) {
+            Contract expected = contracts.get(i);
+            Contract actual = parsed.contracts.get(i);
+            assertEquals(expected.getSzerzodesNeve(), actual.getSzerzodesNeve());
+            assertEquals(expected.getLetrejotte(), actual.getLetrejotte());
+            assertEquals(expected.getVege(), actual.getVege());
+            assertEquals(expected.getOsszeg(), actual.getOsszeg());
+            assertEquals(expected.getSzerzodoFel1(), actual.getSzerzodoFel1());
+            assertEquals(expected.getSzerzodoFel2(), actual.getSzerzodoFel2());
+            assertEquals(expected.getDokumentumPath(), actual.getDokumentumPath());
+        }
+    }
+
+    @Test
+    void jsonLinesEscapeSpecialCharacters() throws IOException {
+        Contract contract = new Contract("Idézet \" per \\ sor\nvég\u0001", null, LocalDate.of(2025, 6, 30),
+                new BigDecimal("12.30"), "Alfa Kft.", null, null);
+        contract.setId(42);
+        StringWriter out = new StringWriter();
+        ContractExporter exporter = new ContractExporter(out, ContractExporter.Format.JSONL);
+        exporter.writeHeader(); // JSONL-nél nincs fejléc
+        exporter.write(contract);
+
+        assertEquals("{\"id\":42,\"szerzodes_neve\":\"Idézet \\\" per \\\\ sor\\nvég\\u0001\","
+                + "\"letrejotte\":null,\"vege\":\"2025-06-30\",\"osszeg\":12.30,"
+                + "\"szerzodo_fel_1\":\"Alfa Kft.\",\"szerzodo_fel_2\":null,\"dokumentum_path\":null}\n",
+                out.toString());
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.csucsuy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A változásnapló tesztjei: minden írás a saját tranzakciójában naplózódik,
+ * a napló nem írható át, és egy korábbi időpont állapota visszaállítható
+ * (egy szerződésé és a pillanatképre épülő teljes állományé).
+ */
+class ContractHistoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConnectionPool pool;
+    private ContractHistory history;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = GroupCommitWriterTest.createPool(tempDir);
+        try (PooledConnection conn = pool.borrowWriter();
+             Statement stmt = conn.getConnection().createStatement()) {
+            DatabaseManager.createHistory(stmt);
+        }
+        history = new ContractHistory(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void everyWriteIsJournaledAndEarlierStatesCanBeRead() throws Exception {
+        Contract contract = insert("Bérleti szerződés");
+        long created = pause();
+        contract.setOsszeg(new BigDecimal("250.00"));
+        contract.setSzerzodoFel2("Béta Zrt.");
+        write(conn -> ContractDAO.update(conn, contract));
+        long updated = pause();
+
+        // Visszagörgetett módosítás nem kerül a naplóba
+        try (PooledConnection conn = pool.borrowWriter()) {
+            conn.getConnection().setAutoCommit(false);
+            contract.setOsszeg(new BigDecimal("999.00"));
+            ContractDAO.update(conn, contract);
+            conn.getConnection().rollback();
+            conn.getConnection().setAutoCommit(true);
+        }
+        write(conn -> ContractDAO.delete(conn, contract.getId()));
+
+        List<ContractVersion> versions = history.findVersions(contract.getId(), 10);
+        assertEquals(3, versions.size());
+        assertEquals(ContractVersion.Change.DELETE, versions.get(0).getChange());
+        assertEquals(ContractVersion.Change.UPDATE, versions.get(1).getChange());
+        assertEquals(ContractVersion.Change.INSERT, versions.get(2).getChange());
+
+        assertNull(history.findAsOf(contract.getId(), created - 10_000));
+        ContractVersion original = history.findAsOf(contract.getId(), created);
+        assertEquals(new BigDecimal("1.00"), original.getContract().getOsszeg());
+        assertNull(original.getContract().getSzerzodoFel2());
+        ContractVersion changed = history.findAsOf(contract.getId(), updated);
+        assertEquals(new BigDecimal("250.00"), changed.getContract().getOsszeg());
+        assertEquals("Béta Zrt.", changed.getContract().getSzerzodoFel2());
+        assertEquals("Alfa Kft.", changed.getContract().getSzerzodoFel1());
+        assertTrue(history.findAsOf(contract.getId(), System.currentTimeMillis()).isDeleted());
+
+        // A napló csak bővíthető
+        try (PooledConnection conn = pool.borrowWriter();
+             Statement stmt = conn.getConnection().createStatement()) {
+            assertThrows(SQLException.class, () -> stmt.execute("UPDATE contract_history SET osszeg_filler = 0"));
+            assertThrows(SQLException.class, () -> stmt.execute("DELETE FROM contract_history"));
+        }
+    }
+
+    @Test
+    void fullStateIsReplayedFromTheLatestSnapshot() throws Exception {
+        Contract first = insert("Első");
+        Contract second = insert("Második");
+        long beforeSnapshot = pause();
+
+        assertTrue(history.snapshotIfDue()); // Még nincs pillanatkép
+        assertFalse(history.snapshotIfDue()); // Azóta nem történt elég változás
+        long afterSnapshot = pause();
+
+        write(conn -> ContractDAO.delete(conn, first.getId()));
+        Contract third = insert("Harmadik");
+        second.setSzerzodesNeve("Második (módosított)");
+        write(conn -> ContractDAO.update(conn, second));
+        long now = pause();
+
+        assertEquals(List.of("Első", "Második"), names(history.findAllAsOf(beforeSnapshot)));
+        assertEquals(List.of("Első", "Második"), names(history.findAllAsOf(afterSnapshot)));
+        assertEquals(List.of("Harmadik", "Második (módosított)"), names(history.findAllAsOf(now)));
+        assertEquals(third.getId(), history.findAllAsOf(now).get(0).getId());
+
+        // A pillanatkép sorai nem változások: létrehozás és törlés
+        assertEquals(2, history.findVersions(first.getId(), 10).size());
+        assertEquals(ContractVersion.Change.SNAPSHOT, history.findAsOf(second.getId(), afterSnapshot).getChange());
+    }
+
+    private interface Write {
+        void run(PooledConnection conn) throws SQLException;
+    }
+
+    private void write(Write write) throws SQLException {
+        try (PooledConnection conn = pool.borrowWriter()) {
+            write.run(conn);
+        }
+    }
+
+    private Contract insert(String name) throws SQLException {
+        try (PooledConnection conn = pool.borrowWriter()) {
+            return ContractDAO.insert(conn, GroupCommitWriterTest.contract(name));
+        }
+    }
+
+    // Egy időpont, amely után (és előtt) legalább pár ms telik el: a napló időpontjai ms pontosak
+    private static long pause() throws InterruptedException {
+        Thread.sleep(20);
+        long now = System.currentTimeMillis();
+        Thread.sleep(20);
+        return now;
+    }
+
+    private static List<String> names(List<Contract> contracts) {
+        List<String> names = new ArrayList<>();
+        for (Contract contract : contracts) {
+            names.add(contract.getSzerzodesNeve());
+        }
+        return names;
+    }
+}
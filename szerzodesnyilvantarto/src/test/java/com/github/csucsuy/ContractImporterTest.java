@@ -0,0 +1,135 @@
+package com.github.csucsuy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A ContractImporter sorfeldolgozásának tesztjei (adatbázis nélkül).
+ */
+class ContractImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void parsesValidLine() {
+        Contract c = ContractImporter.parseLine("Bérleti szerződés;2024-01-15;;150000.50;Alfa Kft.;Béta Bt.;/doc/a.pdf");
+        assertEquals("Bérleti szerződés", c.getSzerzodesNeve());
+        assertEquals(LocalDate.of(2024, 1, 15), c.getLetrejotte());
+        assertNull(c.getVege());
+        assertEquals(new BigDecimal("150000.50"), c.getOsszeg());
+        assertEquals("Alfa Kft.", c.getSzerzodoFel1());
+
+        // Az üres második fél és dokumentum hiányzó érték, nem üres szöveg
+        Contract blank = ContractImporter.parseLine("Megbízás;;;1;Alfa Kft.; ;");
+        assertNull(blank.getSzerzodoFel2());
+        assertNull(blank.getDokumentumPath());
+    }
+
+    @Test
+    void splitsQuotedFields() {
+        assertEquals(Arrays.asList("a;b", "c\"d", "", "e\nf"),
+                ContractImporter.splitFields("\"a;b\";\"c\"\"d\";;\"e\nf\""));
+        assertThrows(IllegalArgumentException.class, () -> ContractImporter.splitFields("\"nyitott;x"));
+        // Csak a mező eleji idézőjel nyit
+        assertEquals(Arrays.asList("Kovács \"Kis\" Kft.", "x"),
+                ContractImporter.splitFields("Kovács \"Kis\" Kft.;x"));
+    }
+
+    @Test
+    void rejectsInvalidLines() {
+        assertThrows(IllegalArgumentException.class, () -> ContractImporter.parseLine("csak;két oszlop"));
+        assertThrows(IllegalArgumentException.class, () -> ContractImporter.parseLine(";2024-01-01;;1;Alfa;;"));
+        assertThrows(DateTimeParseException.class, () -> ContractImporter.parseLine("N;2024-13-01;;1;Alfa;;"));
+        assertThrows(ArithmeticException.class, () -> ContractImporter.parseLine("N;;;1.234;Alfa;;"));
+        assertThrows(NumberFormatException.class, () -> ContractImporter.parseLine("N;;;sok;Alfa;;"));
+    }
+
+    @Test
+    void chunkKeepsLineNumbersAcrossQuotedNewlines() {
+        String text = "A;;;1;Alfa;;\r\n"
+                + "\"B\nsortöréssel\";;;2;Béta;;\n"
+                + "\n"
+                + "hibás sor\n"
+                + "C;;;3;Gamma;;";
+        ContractImporter.ParsedChunk chunk = ContractImporter.parseChunk(
+                ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), 2);
+
+        assertEquals(3, chunk.contracts.size());
+        assertEquals("B\nsortöréssel", chunk.contracts.get(1).getSzerzodesNeve());
+        assertEquals(1, chunk.rejected.size());
+        assertEquals(6, chunk.rejected.get(0).lineNumber);
+        assertEquals("hibás sor", chunk.rejected.get(0).line);
+    }
+
+    @Test
+    void strayQuoteRejectsOnlyItsOwnRow() throws Exception {
+        // A mező közbeni idézőjel közönséges karakter; a második sor idézőjele nem zárul
+        // le, utána a korlátnál több idézőjel nélküli sor jön
+        StringBuilder text = new StringBuilder("szerzodes_neve;letrejotte;vege;osszeg;szerzodo_fel_1;szerzodo_fel_2;"
+                + "dokumentum_path\n");
+        text.append("Kovács \"Kis\" Kft. megbízás;;;2;Béta;;\n");
+        text.append("\"Nyitott;;;1;Alfa;;\n");
+        int rows = 0;
+        while (text.length() < 2 * ContractImporter.MAX_QUOTED_LENGTH) {
+            text.append("Sor ").append(++rows).append(";;;3;Gamma;;\n");
+        }
+        text.append("\"Végén nyitott;;;4;Delta;;\nUtolsó;;;5;Epszilon;;");
+
+        List<ContractImporter.ParsedChunk> chunks = produce(text.toString());
+        List<Contract> contracts = new ArrayList<>();
+        List<ContractImporter.RejectedRow> rejected = new ArrayList<>();
+        for (ContractImporter.ParsedChunk chunk : chunks) {
+            contracts.addAll(chunk.contracts);
+            rejected.addAll(chunk.rejected);
+        }
+
+        assertEquals(rows + 2, contracts.size());
+        assertEquals("Kovács \"Kis\" Kft. megbízás", contracts.get(0).getSzerzodesNeve());
+        assertEquals("Utolsó", contracts.get(contracts.size() - 1).getSzerzodesNeve());
+        assertEquals(2, rejected.size());
+        assertEquals(3, rejected.get(0).lineNumber);
+        assertEquals("\"Nyitott;;;1;Alfa;;", rejected.get(0).line);
+        assertEquals(rows + 4, rejected.get(1).lineNumber);
+    }
+
+    // A fájl darabolása és feldolgozása a ChunkProducer-rel, a darabok sorrendjében
+    private List<ContractImporter.ParsedChunk> produce(String text) throws Exception {
+        Path file = tempDir.resolve("import.csv");
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        ExecutorService workers = Executors.newFixedThreadPool(2);
+        BlockingQueue<Future<ContractImporter.ParsedChunk>> results = new LinkedBlockingQueue<>();
+        List<ContractImporter.ParsedChunk> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file)) {
+            new ContractImporter.ChunkProducer(channel, workers, results).run();
+            ContractImporter.ParsedChunk chunk;
+            while ((chunk = results.take().get()) != null) {
+                chunks.add(chunk);
+            }
+        } finally {
+            workers.shutdown();
+        }
+        return chunks;
+    }
+}
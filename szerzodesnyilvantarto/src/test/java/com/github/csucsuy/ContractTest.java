@@ -0,0 +1,41 @@
+package com.github.csucsuy;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A Contract összeg kezelésének tesztjei (fillérben, pontosan).
+ */
+class ContractTest {
+
+    @Test
+    void amountIsStoredInFiller() {
+        Contract contract = new Contract();
+        contract.setOsszeg(new BigDecimal("150000.5"));
+        assertEquals(15000050, contract.getOsszegFiller());
+        assertEquals(new BigDecimal("150000.50"), contract.getOsszeg());
+
+        // A nulla értékű harmadik tizedesjegy nem veszít pontosságot
+        contract.setOsszeg(new BigDecimal("19.990"));
+        assertEquals(1999, contract.getOsszegFiller());
+        contract.setOsszeg(new BigDecimal("-3"));
+        assertEquals(-300, contract.getOsszegFiller());
+        contract.setOsszeg(null);
+        assertEquals(0, contract.getOsszegFiller());
+    }
+
+    @Test
+    void amountWithMoreThanTwoDecimalsIsRejected() {
+        Contract contract = new Contract();
+        contract.setOsszeg(new BigDecimal("12.34"));
+        assertThrows(ArithmeticException.class, () -> contract.setOsszeg(new BigDecimal("1.234")));
+        assertThrows(ArithmeticException.class, () -> contract.setOsszeg(new BigDecimal("0.001")));
+        // Nem fér el 64 biten fillérként
+        assertThrows(ArithmeticException.class, () -> contract.setOsszeg(new BigDecimal("1e17")));
+        assertEquals(1234, contract.getOsszegFiller()); // A hibás érték nem írta felül
+    }
+}
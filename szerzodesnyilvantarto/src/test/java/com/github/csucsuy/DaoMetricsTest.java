@@ -0,0 +1,65 @@
+package com.github.csucsuy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A DaoMetrics számlálóinak és hisztogramjának tesztjei (adatbázis nélkül).
+ */
+class DaoMetricsTest {
+
+    @Test
+    void bucketBoundsCoverEveryValue() {
+        for (long micros = 0; micros < 100000; micros++) {
+            int bucket = DaoMetrics.Histogram.bucketOf(micros);
+            long upper = DaoMetrics.Histogram.bucketUpperMicros(bucket);
+            assertTrue(upper >= micros, "felső határ " + upper + " < " + micros);
+            // Legfeljebb 12,5% kerekítés felfelé
+            assertTrue(upper <= micros + micros / 8, "túl durva vödör " + upper + " ehhez: " + micros);
+            if (bucket > 0) {
+                assertTrue(DaoMetrics.Histogram.bucketUpperMicros(bucket - 1) < micros);
+            }
+        }
+    }
+
+    @Test
+    void percentilesFollowRecordedLatencies() {
+        DaoMetrics.Histogram histogram = new DaoMetrics.Histogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertEquals(50, histogram.percentileMillis(50), 50 * 0.125);
+        assertEquals(99, histogram.percentileMillis(99), 99 * 0.125);
+        assertEquals(100, histogram.maxMillis(), 0.001);
+        assertEquals(50.5, histogram.meanMillis(), 0.001);
+    }
+
+    @Test
+    void countsCallsErrorsRowsAndSlowCalls() {
+        DaoMetrics metrics = new DaoMetrics(0); // Minden hívás lassúnak számít
+        metrics.start("search").success(12);
+        metrics.start("search").success(3);
+        DaoMetrics.Sample failed = metrics.start("addContract");
+        failed.failure();
+        failed.success(1); // Egy mérés csak egyszer számít
+
+        List<OperationSnapshot> ops = metrics.getOperations();
+        assertEquals(2, ops.size());
+        assertEquals("addContract", ops.get(0).getName());
+        assertEquals(1, ops.get(0).getCalls());
+        assertEquals(1, ops.get(0).getErrors());
+        assertEquals(0, ops.get(0).getRows());
+        assertEquals(2, ops.get(1).getCalls());
+        assertEquals(15, ops.get(1).getRows());
+        assertEquals(2, ops.get(1).getSlowCalls());
+        assertEquals(3, metrics.getTotalCalls());
+
+        metrics.reset();
+        assertEquals(0, metrics.getTotalCalls());
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.csucsuy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A sémamigráció tesztjei: egy kiinduló (0-s verziójú) szerkezetű contracts
+ * táblát migrálunk, és ellenőrizzük az átalakított értékeket.
+ */
+class DatabaseManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Connection conn;
+    private Statement stmt;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite:" + tempDir.resolve("regi.db"));
+        stmt = conn.createStatement();
+        // A kiinduló séma: szöveges dátumok, DECIMAL (REAL) összeg, szöveges felek
+        stmt.execute("CREATE TABLE contracts ("
+            + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+            + "szerzodes_neve VARCHAR(255) NOT NULL,"
+            + "letrejotte DATE,"
+            + "vege DATE,"
+            + "osszeg DECIMAL(15, 2),"
+            + "szerzodo_fel_1 VARCHAR(255) NOT NULL,"
+            + "szerzodo_fel_2 VARCHAR(255),"
+            + "dokumentum_path TEXT"
+            + ")");
+        stmt.execute("INSERT INTO contracts VALUES "
+            + "(1, 'Bérlet', '2024-01-15', '2025-12-31', 150000.5, 'Alfa Kft.', 'Béta Bt.', '/doc/a.pdf'),"
+            // 19.99 * 100 lebegőpontosan 1998.999...: kerekíteni kell, nem csonkolni
+            + "(2, 'Megbízás', '1969-12-31', NULL, 19.99, 'Alfa Kft.', '', NULL),"
+            + "(3, 'Keret', NULL, NULL, NULL, ' Béta Bt. ', '  ', NULL),"
+            // Egy korábbi, félbemaradt futásból már epoch nap lehet a mezőben
+            + "(7, 'Vegyes', 19737, '2024-01-15', 0.1, 'Gamma', NULL, NULL)");
+        stmt.execute(DatabaseManager.createPartiesTableSql());
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void migratesBaselineTableToTheCurrentSchema() throws SQLException {
+        DatabaseManager.migrateSchema(conn, stmt);
+
+        assertEquals(List.of(
+                "1|Bérlet|" + day("2024-01-15") + "|" + day("2025-12-31") + "|15000050|Alfa Kft.|Béta Bt.|/doc/a.pdf",
+                "2|Megbízás|-1|null|1999|Alfa Kft.|null|null",
+                "3|Keret|null|null|0|Béta Bt.|null|null",
+                "7|Vegyes|19737|" + day("2024-01-15") + "|10|Gamma|null|null"), rows());
+        assertEquals(List.of("integer"), column("SELECT DISTINCT typeof(letrejotte) FROM contracts "
+                + "WHERE letrejotte IS NOT NULL UNION SELECT DISTINCT typeof(osszeg_filler) FROM contracts"));
+        // Az üres név nem lett fél, a szóközökkel körülvett ugyanaz a fél
+        assertEquals(List.of("Alfa Kft.", "Béta Bt.", "Gamma"), column("SELECT nev FROM parties ORDER BY nev"));
+        assertEquals(List.of("3"), column("PRAGMA user_version"));
+        // Az azonosítók folytatódnak
+        stmt.execute("INSERT INTO contracts(szerzodes_neve, szerzodo_fel_1_id) VALUES('Új', 1)");
+        assertEquals(List.of("8"), column("SELECT MAX(id) FROM contracts"));
+    }
+
+    @Test
+    void rerunningTheMigrationChangesNothing() throws SQLException {
+        DatabaseManager.migrateSchema(conn, stmt);
+        List<String> migrated = rows();
+
+        DatabaseManager.migrateSchema(conn, stmt);
+        assertEquals(migrated, rows());
+        assertEquals(List.of("3"), column("PRAGMA user_version"));
+        assertEquals(List.of("3"), column("SELECT COUNT(*) FROM parties"));
+    }
+
+    private static long day(String date) {
+        return LocalDate.parse(date).toEpochDay();
+    }
+
+    private List<String> rows() throws SQLException {
+        return column("SELECT c.id || '|' || c.szerzodes_neve || '|' || IFNULL(c.letrejotte, 'null') || '|' "
+                + "|| IFNULL(c.vege, 'null') || '|' || c.osszeg_filler || '|' || p1.nev || '|' "
+                + "|| IFNULL(p2.nev, 'null') || '|' || IFNULL(c.dokumentum_path, 'null') "
+                + "FROM contracts c JOIN parties p1 ON p1.id = c.szerzodo_fel_1_id "
+                + "LEFT JOIN parties p2 ON p2.id = c.szerzodo_fel_2_id ORDER BY c.id");
+    }
+
+    private List<String> column(String sql) throws SQLException {
+        List<String> values = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                values.add(rs.getString(1));
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,165 @@
+package com.github.csucsuy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A DocumentScanner tesztjei adatbázis nélkül (memóriabeli DocumentStatusDAO-val):
+ * a teljes ellenőrzés, a mentett változások és a fájlrendszer események kezelése.
+ */
+class DocumentScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * A document_status tábla helyett memóriában tárol.
+     */
+    private static class InMemoryStatusDAO extends DocumentStatusDAO {
+        final Map<String, DocumentStatus> stored = new HashMap<>();
+        final List<String> paths = new ArrayList<>();
+        boolean failing; // A lekérdezés hibáját utánozza (pl. SQLITE_BUSY)
+        int orphanCleanups;
+
+        @Override
+        public synchronized Map<String, DocumentStatus> loadAll() {
+            return new HashMap<>(stored);
+        }
+
+        @Override
+        public synchronized List<String> findDocumentPaths() {
+            return failing ? null : new ArrayList<>(paths);
+        }
+
+        @Override
+        public synchronized int saveAll(Collection<DocumentStatus> statuses) {
+            for (DocumentStatus status : statuses) {
+                stored.put(status.getPath(), status);
+            }
+            return statuses.size();
+        }
+
+        @Override
+        public synchronized int deleteOrphans() {
+            orphanCleanups++;
+            stored.keySet().retainAll(paths);
+            return 0;
+        }
+
+        synchronized DocumentStatus storedStatus(String path) {
+            return stored.get(path);
+        }
+    }
+
+    @Test
+    void inspectReportsFilesMissingPathsAndDirectories() throws IOException {
+        Path file = Files.write(tempDir.resolve("szerzodes.pdf"), new byte[1234]);
+
+        DocumentStatus existing = DocumentScanner.inspect(file.toString());
+        assertTrue(existing.exists());
+        assertEquals(1234, existing.getSize());
+        assertEquals(Files.getLastModifiedTime(file).toMillis(), existing.getLastModified());
+
+        assertTrue(DocumentScanner.inspect(tempDir.resolve("nincs.pdf").toString()).isMissing());
+        // Könyvtár nem nyitható meg dokumentumként
+        assertTrue(DocumentScanner.inspect(tempDir.toString()).isMissing());
+    }
+
+    @Test
+    void scanStoresStatusesAndFollowsFileSystemChanges() throws Exception {
+        Path present = Files.write(tempDir.resolve("megvan.pdf"), new byte[10]);
+        Path later = tempDir.resolve("kesobb.pdf");
+        InMemoryStatusDAO dao = new InMemoryStatusDAO();
+        dao.paths.add(present.toString());
+        dao.paths.add(later.toString());
+        // Korábbi futásból maradt, már nem hivatkozott állapot
+        dao.stored.put("regi.pdf", DocumentStatus.missing("regi.pdf", 0));
+
+        List<DocumentStatus> notified = new ArrayList<>();
+        try (DocumentScanner scanner = new DocumentScanner(dao, 4, 0, 16)) {
+            scanner.addListener(changed -> {
+                synchronized (notified) {
+                    notified.addAll(changed);
+                }
+            });
+            scanner.start();
+
+            waitUntil(() -> scanner.getStatus(later.toString()) != null && dao.storedStatus("regi.pdf") == null);
+            assertTrue(scanner.getStatus(present.toString()).exists());
+            assertTrue(scanner.isKnownMissing(later.toString()));
+            assertTrue(dao.storedStatus(later.toString()).isMissing());
+            assertNull(scanner.getStatus("regi.pdf"));
+            assertEquals(1, scanner.watchedDirectoryCount());
+            synchronized (notified) {
+                assertFalse(notified.isEmpty());
+            }
+
+            // A létrejövő fájlt a könyvtár figyelése (vagy egy célzott ellenőrzés) észleli
+            Files.write(later, new byte[20]);
+            scanner.check(later.toString());
+            // A létrehozás eseménye még az írás előtti, üres fájlt is láthatja; a végén a 20 bájt marad
+            waitUntil(() -> dao.storedStatus(later.toString()).getSize() == 20
+                    && !scanner.isKnownMissing(later.toString()));
+
+            // Törlés után hiányzónak látszik, újraellenőrzés nélkül is
+            Files.delete(present);
+            waitUntil(() -> scanner.isKnownMissing(present.toString()));
+            assertTrue(dao.storedStatus(present.toString()).isMissing());
+        }
+    }
+
+    @Test
+    void failedPathQueryDoesNotPruneStatuses() throws Exception {
+        Path file = Files.write(tempDir.resolve("szerzodes.pdf"), new byte[10]);
+        String removed = tempDir.resolve("torolt.pdf").toString();
+        InMemoryStatusDAO dao = new InMemoryStatusDAO();
+        dao.paths.add(file.toString());
+        dao.paths.add(removed);
+
+        try (DocumentScanner scanner = new DocumentScanner(dao, 2, 0, 16)) {
+            scanner.scanAll();
+            assertTrue(scanner.getStatus(file.toString()).exists());
+            // A már nem hivatkozott út állapota törlődik
+            synchronized (dao) {
+                dao.paths.remove(removed);
+            }
+            scanner.scanAll();
+            assertNull(scanner.getStatus(removed));
+            assertEquals(1, dao.orphanCleanups);
+
+            // Átmeneti adatbázis hiba: a már ismert utak ellenőrződnek, de semmi sem törlődik
+            synchronized (dao) {
+                dao.failing = true;
+            }
+            Files.delete(file);
+            scanner.scanAll();
+            assertTrue(scanner.isKnownMissing(file.toString()));
+            assertTrue(dao.storedStatus(file.toString()).isMissing());
+            assertEquals(1, dao.orphanCleanups);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "A feltétel nem teljesült időben");
+            Thread.sleep(20);
+        }
+    }
+}
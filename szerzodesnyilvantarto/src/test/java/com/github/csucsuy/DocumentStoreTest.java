@@ -0,0 +1,168 @@
+package com.github.csucsuy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A DocumentStore tesztjei: tartalom szerinti elnevezés, deduplikáció és
+ * a contracts triggereire épülő hivatkozásszámlálás.
+ */
+class DocumentStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConnectionPool pool;
+    private DocumentStore store;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = GroupCommitWriterTest.createPool(tempDir);
+        try (PooledConnection conn = pool.borrowWriter();
+             Statement stmt = conn.getConnection().createStatement()) {
+            DatabaseManager.createDocumentStore(stmt);
+        }
+        store = new DocumentStore(tempDir.resolve("tar"), pool::borrowWriter, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void identicalContentIsStoredOnceUnderItsHash() throws Exception {
+        byte[] content = "Bérleti szerződés, 2025".getBytes(StandardCharsets.UTF_8);
+        Path first = Files.write(tempDir.resolve("berleti.PDF"), content);
+        Path copy = Files.write(tempDir.resolve("masolat.pdf"), content);
+        Path other = Files.write(tempDir.resolve("mas.pdf"), "Más tartalom".getBytes(StandardCharsets.UTF_8));
+
+        String stored = store.ingest(first);
+        assertEquals(stored, store.ingest(copy));
+        assertTrue(store.contains(stored));
+        assertFalse(store.contains(first.toString()));
+
+        String hash = DocumentStore.sha256(first);
+        assertEquals(64, hash.length());
+        assertEquals(store.getRoot().resolve(hash.substring(0, 2)).resolve(hash + ".pdf"), Paths.get(stored));
+        assertArrayEquals(content, Files.readAllBytes(Paths.get(stored)));
+
+        store.ingest(other);
+        assertEquals(2, countBlobs());
+
+        // A tárból kívülről törölt példányt a következő felvétel pótolja
+        Files.delete(Paths.get(stored));
+        assertEquals(stored, store.ingest(copy));
+        assertArrayEquals(content, Files.readAllBytes(Paths.get(stored)));
+    }
+
+    @Test
+    void fileIsReleasedWhenTheLastContractIsDeleted() throws Exception {
+        Path source = Files.write(tempDir.resolve("szerzodes.pdf"), new byte[4096]);
+        String stored = store.ingest(source);
+
+        Contract first = GroupCommitWriterTest.contract("Első");
+        first.setDokumentumPath(stored);
+        Contract second = GroupCommitWriterTest.contract("Második");
+        second.setDokumentumPath(stored);
+        try (PooledConnection conn = pool.borrowWriter()) {
+            ContractDAO.insert(conn, first);
+            ContractDAO.insert(conn, second);
+        }
+        assertEquals(2, references(stored));
+
+        try (PooledConnection conn = pool.borrowWriter()) {
+            ContractDAO.delete(conn, first.getId());
+        }
+        assertEquals(0, store.releaseUnreferenced());
+        assertTrue(Files.exists(Paths.get(stored)));
+
+        // A dokumentum cseréje is elengedi a régi hivatkozást
+        second.setDokumentumPath(source.toString());
+        try (PooledConnection conn = pool.borrowWriter()) {
+            ContractDAO.update(conn, second);
+        }
+        assertEquals(0, references(stored));
+        assertEquals(1, store.releaseUnreferenced());
+        assertFalse(Files.exists(Paths.get(stored)));
+        assertEquals(0, countBlobs());
+    }
+
+    @Test
+    void groupCommittedDeleteReleasesTheFile() throws Exception {
+        String stored = store.ingest(Files.write(tempDir.resolve("szerzodes.pdf"), new byte[100]));
+        Contract contract = GroupCommitWriterTest.contract("Egyetlen");
+        contract.setDokumentumPath(stored);
+
+        try (GroupCommitWriter writer = new GroupCommitWriter(pool::borrowWriter, store, 0, 10)) {
+            writer.addContract(contract).get(20, TimeUnit.SECONDS);
+            assertTrue(Files.exists(Paths.get(stored)));
+            // A future a takarítás után teljesül, mint a ContractDAO.deleteContract visszatérése
+            assertTrue(writer.deleteContract(contract.getId()).get(20, TimeUnit.SECONDS));
+            assertFalse(Files.exists(Paths.get(stored)));
+        }
+    }
+
+    @Test
+    void copyRunsWithoutHoldingTheWriter() throws Exception {
+        // Minden kölcsönzéskor feljegyezzük, van-e már kész ideiglenes másolat a tárban
+        List<Long> tempFilesAtBorrow = new ArrayList<>();
+        DocumentStore watched = new DocumentStore(store.getRoot(), () -> {
+            tempFilesAtBorrow.add(countFiles(".tmp"));
+            return pool.borrowWriter();
+        }, 0);
+
+        String stored = watched.ingest(Files.write(tempDir.resolve("nagy.pdf"), new byte[256 * 1024]));
+        // Keresés, majd a kapcsolaton kívül másolás, végül átnevezés és nyilvántartás
+        assertEquals(List.of(0L, 1L), tempFilesAtBorrow);
+        assertEquals(0, countFiles(".tmp"));
+        assertEquals(256 * 1024, Files.size(Paths.get(stored)));
+    }
+
+    private long references(String path) throws SQLException {
+        try (PooledConnection conn = pool.borrowReader();
+             Statement stmt = conn.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT hivatkozas FROM document_store "
+                     + "WHERE dokumentum_path = '" + path.replace("'", "''") + "'")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private long countBlobs() throws Exception {
+        try (Stream<Path> files = Files.walk(store.getRoot())) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    private long countFiles(String suffix) {
+        if (!Files.exists(store.getRoot())) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(store.getRoot())) {
+            return files.filter(p -> p.toString().endsWith(suffix)).count();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
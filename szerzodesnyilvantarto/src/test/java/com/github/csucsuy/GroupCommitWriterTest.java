@@ -0,0 +1,156 @@
+package com.github.csucsuy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A GroupCommitWriter tesztjei egy ideiglenes SQLite fájlon.
+ */
+class GroupCommitWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = createPool(tempDir);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    /**
+     * Kapcsolatkészlet egy új adatbázison, a valódi contracts és parties táblával.
+     */
+    static ConnectionPool createPool(Path dir) throws SQLException {
+        Map<String, String> pragmas = new LinkedHashMap<>();
+        pragmas.put("busy_timeout", "1000");
+        pragmas.put("journal_mode", "WAL");
+        pragmas.put("synchronous", "NORMAL");
+        ConnectionPool pool = new ConnectionPool("jdbc:sqlite:" + dir.resolve("teszt.db"), 2, 8, pragmas);
+        try (PooledConnection conn = pool.borrowWriter();
+             Statement stmt = conn.getConnection().createStatement()) {
+            stmt.execute(DatabaseManager.createPartiesTableSql());
+            stmt.execute(DatabaseManager.createContractsTableSql("contracts"));
+        }
+        return pool;
+    }
+
+    static Contract contract(String name) {
+        return new Contract(name, null, null, BigDecimal.ONE, "Alfa Kft.", null, null);
+    }
+
+    static long countRows(ConnectionPool pool) throws SQLException {
+        try (PooledConnection conn = pool.borrowReader();
+             ResultSet rs = conn.prepare("SELECT COUNT(*) FROM contracts").executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    @Test
+    void burstIsCommittedInFewTransactions() throws Exception {
+        List<CompletableFuture<Contract>> futures = new ArrayList<>();
+        try (GroupCommitWriter writer = new GroupCommitWriter(pool::borrowWriter, 100, 1000)) {
+            for (int i = 0; i < 200; i++) {
+                futures.add(writer.addContract(contract("Szerződés " + i)));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(20, TimeUnit.SECONDS);
+
+            assertEquals(200, writer.getWriteCount());
+            assertTrue(writer.getCommitCount() < 10, "commitok: " + writer.getCommitCount());
+        }
+        // Az azonosítók a beküldés sorrendjében nőnek
+        for (int i = 1; i < futures.size(); i++) {
+            assertEquals(futures.get(i - 1).get().getId() + 1, futures.get(i).get().getId());
+        }
+        assertEquals(200, countRows(pool));
+    }
+
+    @Test
+    void failedWriteRollsBackOnlyItself() throws Exception {
+        CompletableFuture<Contract> first;
+        CompletableFuture<Contract> invalid;
+        CompletableFuture<Contract> last;
+        CompletableFuture<Contract> missing;
+        CompletableFuture<Boolean> missingDelete;
+        try (GroupCommitWriter writer = new GroupCommitWriter(pool::borrowWriter, 100, 1000)) {
+            first = writer.addContract(contract("Első"));
+            Contract noParty = contract("Fél nélkül");
+            noParty.setSzerzodoFel1(null); // NOT NULL megszorítás
+            invalid = writer.addContract(noParty);
+            last = writer.addContract(contract("Utolsó"));
+            Contract unknown = contract("Nincs ilyen");
+            unknown.setId(999);
+            missing = writer.updateContract(unknown);
+            missingDelete = writer.deleteContract(999);
+            last.get(20, TimeUnit.SECONDS);
+            assertEquals(1, writer.getCommitCount());
+        }
+        assertNotNull(first.get());
+        assertNull(invalid.get());
+        assertNotNull(last.get());
+        assertNull(missing.get());
+        assertFalse(missingDelete.get());
+        assertEquals(2, countRows(pool));
+    }
+
+    @Test
+    void failedCommitLeavesNoAssignedId() throws Exception {
+        // Halasztott idegen kulcs: a beszúrás sikerül, csak a commit hiúsul meg
+        try (PooledConnection conn = pool.borrowWriter();
+             Statement stmt = conn.getConnection().createStatement()) {
+            stmt.execute("PRAGMA foreign_keys = ON");
+            stmt.execute("CREATE TABLE hibas(fel INTEGER REFERENCES parties(id) DEFERRABLE INITIALLY DEFERRED)");
+            stmt.execute("CREATE TRIGGER hibas_ai AFTER INSERT ON contracts BEGIN INSERT INTO hibas VALUES(-1); END");
+        }
+        Contract contract = contract("Visszagörgetett");
+        CompletableFuture<Contract> saved;
+        try (GroupCommitWriter writer = new GroupCommitWriter(pool::borrowWriter, 0, 10)) {
+            saved = writer.addContract(contract);
+            assertNull(saved.get(20, TimeUnit.SECONDS));
+            assertEquals(0, writer.getCommitCount());
+        }
+        assertEquals(0, contract.getId());
+        assertEquals(0, countRows(pool));
+    }
+
+    @Test
+    void closeFlushesPendingWritesAndRejectsNewOnes() throws Exception {
+        GroupCommitWriter writer = new GroupCommitWriter(pool::borrowWriter, 1000, 1000);
+        CompletableFuture<Contract> pending = writer.addContract(contract("Függőben"));
+        writer.close();
+
+        assertNotNull(pending.getNow(null));
+        assertEquals(1, countRows(pool));
+        CompletableFuture<Boolean> rejected = writer.deleteContract(1);
+        ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+        assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+}
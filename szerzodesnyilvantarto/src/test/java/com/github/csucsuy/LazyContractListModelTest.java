@@ -0,0 +1,228 @@
+package com.github.csucsuy;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A LazyContractListModel tesztjei egy memóriabeli csonk DAO-val.
+ * A modellt (a valós használathoz hasonlóan) csak az EDT-ről érjük el.
+ */
+class LazyContractListModelTest {
+
+    /**
+     * Csonk DAO: a lapozó lekérdezés ugyanazt a (név, id) sorrendet adja, mint az SQL.
+     */
+    private static class ListDAO extends ContractDAO {
+        final List<Contract> rows = new CopyOnWriteArrayList<>();
+        // Beállítva a következő lekérdezés a lap elkészülte után megvárja a kioldást
+        volatile CountDownLatch hold;
+        final CountDownLatch held = new CountDownLatch(1);
+
+        @Override
+        public List<Contract> getContractsPage(String afterName, int afterId, int limit) {
+            List<Contract> page = page(afterName, afterId, limit);
+            CountDownLatch release = hold;
+            if (release != null) {
+                hold = null;
+                held.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return page;
+        }
+
+        private List<Contract> page(String afterName, int afterId, int limit) {
+            List<Contract> sorted = new ArrayList<>(rows);
+            sorted.sort(LazyContractListModel::compareKeys);
+            Contract cursor = afterName != null ? contract(afterName, afterId) : null;
+            List<Contract> page = new ArrayList<>();
+            for (Contract row : sorted) {
+                if (page.size() < limit && (cursor == null || LazyContractListModel.compareKeys(row, cursor) > 0)) {
+                    page.add(row);
+                }
+            }
+            return page;
+        }
+    }
+
+    private final ListDAO dao = new ListDAO();
+
+    @Test
+    void keysFollowTheDatabaseOrder() {
+        // Kódpont sorrend (mint az SQLite BINARY), nem ábécé: az ékezetes betű a Z után jön
+        assertTrue(LazyContractListModel.compareKeys(contract("Zeta", 1), contract("Élet", 2)) < 0);
+        // BMP feletti karakter: a String.compareTo (UTF-16) itt fordított eredményt adna
+        assertTrue("\uD835\uDD38".compareTo("\uFFFD") < 0);
+        assertTrue(LazyContractListModel.compareKeys(contract("\uFFFD", 1), contract("\uD835\uDD38", 2)) < 0);
+        // Előtag előbb, azonos névnél az id dönt
+        assertTrue(LazyContractListModel.compareKeys(contract("Bér", 9), contract("Bérlet", 1)) < 0);
+        assertTrue(LazyContractListModel.compareKeys(contract("Bér", 1), contract("Bér", 2)) < 0);
+        assertEquals(0, LazyContractListModel.compareKeys(contract("Bér", 3), contract("Bér", 3)));
+    }
+
+    @Test
+    void editsKeepTheLoadedListSorted() throws Exception {
+        dao.rows.add(contract("Alfa", 1));
+        dao.rows.add(contract("Gamma", 2));
+        dao.rows.add(contract("Omega", 3));
+        LazyContractListModel model = load(new LazyContractListModel(dao, 2), 3);
+        assertTrue(onEdt(model::isFullyLoaded));
+
+        // Ékezetes és BMP feletti nevek a kódpont sorrend szerinti helyükre kerülnek
+        assertEquals(3, (int) onEdt(() -> model.insertSorted(contract("Zeta", 4))));
+        assertEquals(4, (int) onEdt(() -> model.insertSorted(contract("Élet", 5))));
+        assertEquals(5, (int) onEdt(() -> model.insertSorted(contract("\uD835\uDD38lma", 6))));
+        assertEquals(1, (int) onEdt(() -> model.insertSorted(contract("Alfa", 7))));
+        assertEquals(1, (int) onEdt(() -> model.insertSorted(contract("Alfa", 7)))); // Már benne van
+        assertEquals(List.of(1, 7, 2, 3, 4, 5, 6), ids(model));
+
+        // Név változása nélkül helyben frissül
+        Contract gamma = onEdt(() -> model.getElementAt(2));
+        Contract changed = contract("Gamma", 2);
+        assertEquals(2, (int) onEdt(() -> model.replace(gamma, changed)));
+        assertSame(changed, onEdt(() -> model.getElementAt(2)));
+
+        // Átnevezés: az elem a régi helyéről az új helyére kerül
+        Contract renamed = contract("Zsazsa", 2);
+        assertEquals(4, (int) onEdt(() -> model.replace(changed, renamed)));
+        assertEquals(List.of(1, 7, 3, 4, 2, 5, 6), ids(model));
+
+        assertEquals(0, (int) onEdt(() -> model.remove(contract("Alfa", 1))));
+        assertEquals(-1, (int) onEdt(() -> model.remove(contract("Alfa", 1))));
+        assertEquals(List.of(7, 3, 4, 2, 5, 6), ids(model));
+    }
+
+    @Test
+    void itemsAfterTheLoadedPartWaitForTheirPage() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            dao.rows.add(contract("Név " + i, i));
+        }
+        LazyContractListModel model = load(new LazyContractListModel(dao, 2), 2);
+        assertFalse(onEdt(model::isFullyLoaded));
+
+        // A betöltött rész után következne: a lappal érkezik majd
+        assertEquals(-1, (int) onEdt(() -> model.insertSorted(contract("Új", 6))));
+        assertEquals(0, (int) onEdt(() -> model.insertSorted(contract("Elő", 7))));
+        // Átnevezés a betöltött részen túlra: kikerül a listából
+        Contract first = onEdt(() -> model.getElementAt(1));
+        assertEquals(-1, (int) onEdt(() -> model.replace(first, contract("Vég", first.getId()))));
+        assertEquals(List.of(7, 2), ids(model));
+    }
+
+    @Test
+    void removalDuringLoadDoesNotComeBack() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            dao.rows.add(contract("Név " + i, i));
+        }
+        LazyContractListModel model = load(new LazyContractListModel(dao, 2), 2);
+        CountDownLatch release = holdNextPage(model);
+
+        // A futó betöltés lapja (3, 4) már elkészült, amikor a 3-ast töröljük
+        Contract deleted = dao.rows.remove(2);
+        assertEquals(-1, (int) onEdt(() -> model.remove(deleted)));
+        release.countDown();
+        assertEquals(List.of(1, 2, 4, 5), ids(await(model, 5)));
+    }
+
+    @Test
+    void insertBehindTheLoaderCursorIsNotLost() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            dao.rows.add(contract("Név " + i, i));
+        }
+        LazyContractListModel model = load(new LazyContractListModel(dao, 2), 2);
+        CountDownLatch release = holdNextPage(model);
+
+        // A betöltött rész (1, 2) és a betöltés kurzora (4) közé esik
+        Contract inserted = contract("Név 3a", 6);
+        dao.rows.add(inserted);
+        assertEquals(-1, (int) onEdt(() -> model.insertSorted(inserted)));
+        release.countDown();
+        assertEquals(List.of(1, 2, 3, 6, 4, 5), ids(await(model, 6)));
+    }
+
+    /**
+     * Elindítja a következő lap betöltését, és megvárja, amíg a lap elkészül;
+     * a betöltés a visszaadott kioldásig nem adja át.
+     */
+    private CountDownLatch holdNextPage(LazyContractListModel model) throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        dao.hold = release;
+        SwingUtilities.invokeAndWait(model::requestNextPage);
+        assertTrue(dao.held.await(10, TimeUnit.SECONDS));
+        return release;
+    }
+
+    /**
+     * Újratölti a modellt, és megvárja, amíg legalább minSize elem betöltődik.
+     */
+    private static LazyContractListModel load(LazyContractListModel model, int minSize) throws Exception {
+        SwingUtilities.invokeAndWait(model::reload);
+        return await(model, minSize);
+    }
+
+    /**
+     * Megvárja, amíg legalább minSize elem betöltődik (szükség esetén görgetést utánozva).
+     */
+    private static LazyContractListModel await(LazyContractListModel model, int minSize) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (onEdt(() -> model.isLoading() || model.getSize() < minSize && !model.isFullyLoaded())) {
+            assertTrue(System.currentTimeMillis() < deadline, "A betöltés nem fejeződött be");
+            SwingUtilities.invokeAndWait(() -> {
+                // Csak ha még kell: a vizsgálat óta a betöltés befejeződhetett
+                if (!model.isLoading() && model.getSize() < minSize && !model.isFullyLoaded()) {
+                    model.requestNextPage(); // Mint görgetéskor
+                }
+            });
+            Thread.sleep(10);
+        }
+        return model;
+    }
+
+    private static <T> T onEdt(Callable<T> task) throws Exception {
+        AtomicReference<T> result = new AtomicReference<>();
+        AtomicReference<Exception> error = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                result.set(task.call());
+            } catch (Exception e) {
+                error.set(e);
+            }
+        });
+        if (error.get() != null) {
+            throw error.get();
+        }
+        return result.get();
+    }
+
+    private static List<Integer> ids(LazyContractListModel model) throws Exception {
+        return onEdt(() -> {
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < model.getSize(); i++) {
+                ids.add(model.getElementAt(i).getId());
+            }
+            return ids;
+        });
+    }
+
+    private static Contract contract(String name, int id) {
+        Contract contract = GroupCommitWriterTest.contract(name);
+        contract.setId(id);
+        return contract;
+    }
+}
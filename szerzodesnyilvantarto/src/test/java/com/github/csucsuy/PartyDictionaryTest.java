@@ -0,0 +1,128 @@
+package com.github.csucsuy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * A szerződő felek szótár kódolásának tesztjei: egy név egyszer tárolódik,
+ * olvasáskor közös példányt kapunk, és visszagörgetett fél nem kerül a szótárba.
+ */
+class PartyDictionaryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = GroupCommitWriterTest.createPool(tempDir);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void partiesAreStoredOnceAndSharedWhenRead() throws SQLException {
+        try (PooledConnection conn = pool.borrowWriter()) {
+            for (int i = 0; i < 10; i++) {
+                Contract contract = GroupCommitWriterTest.contract("Szerződés " + i); // Alfa Kft.
+                contract.setSzerzodoFel2(i % 2 == 0 ? "Béta Zrt." : null);
+                ContractDAO.insert(conn, contract);
+            }
+        }
+        assertEquals(2, count("SELECT COUNT(*) FROM parties"));
+
+        List<Contract> contracts = new ArrayList<>();
+        try (PooledConnection conn = pool.borrowReader();
+             ResultSet rs = conn.prepare(ContractSql.ALL_BY_ID).executeQuery()) {
+            while (rs.next()) {
+                contracts.add(ContractDAO.mapContract(conn, rs));
+            }
+        }
+        assertEquals(10, contracts.size());
+        assertEquals("Alfa Kft.", contracts.get(0).getSzerzodoFel1());
+        assertEquals("Béta Zrt.", contracts.get(0).getSzerzodoFel2());
+        assertNull(contracts.get(1).getSzerzodoFel2());
+        for (Contract contract : contracts) {
+            // Nem csak egyenlő, hanem ugyanaz a példány
+            assertSame(contracts.get(0).getSzerzodoFel1(), contract.getSzerzodoFel1());
+        }
+        assertEquals(2, pool.getParties().size());
+    }
+
+    @Test
+    void partyCreatedInRolledBackTransactionIsNotRemembered() throws SQLException {
+        try (PooledConnection conn = pool.borrowWriter()) {
+            conn.getConnection().setAutoCommit(false);
+            ContractDAO.insert(conn, GroupCommitWriterTest.contract("Visszavont"));
+            conn.getConnection().rollback();
+            conn.getConnection().setAutoCommit(true);
+        }
+        assertEquals(0, pool.getParties().size());
+        assertEquals(0, count("SELECT COUNT(*) FROM parties"));
+
+        // Tranzakción kívül a fél létrejön, és a szótárba is bekerül
+        Contract saved;
+        try (PooledConnection conn = pool.borrowWriter()) {
+            saved = ContractDAO.insert(conn, GroupCommitWriterTest.contract("Megmaradt"));
+        }
+        assertEquals(1, pool.getParties().size());
+        try (PooledConnection conn = pool.borrowReader()) {
+            assertEquals(count("SELECT szerzodo_fel_1_id FROM contracts WHERE id = " + saved.getId()),
+                    conn.parties().find(conn, "Alfa Kft.").longValue());
+        }
+    }
+
+    @Test
+    void committedPartyReadInsideTransactionIsServedFromCache() throws SQLException {
+        try (PooledConnection conn = pool.borrowWriter();
+             Statement stmt = conn.getConnection().createStatement()) {
+            stmt.executeUpdate("INSERT INTO parties(nev) VALUES('Régi Kft.')");
+            conn.getConnection().setAutoCommit(false);
+            Integer id = conn.parties().find(conn, "Régi Kft.");
+            assertEquals(1, pool.getParties().size());
+
+            // A tranzakcióban létrehozott fél a commit-ig nem kerül a szótárba
+            Integer created = conn.parties().idOf(conn, "Új Bt.");
+            assertEquals(1, pool.getParties().size());
+
+            // A véglegesített felet a szótár adja, a sort már nem olvassuk
+            stmt.executeUpdate("DELETE FROM parties WHERE nev = 'Régi Kft.'");
+            assertEquals(id, conn.parties().find(conn, "Régi Kft."));
+            conn.getConnection().rollback();
+            conn.parties().committed(conn); // Nincs mit felvenni: a létrehozás visszavonódott
+            assertEquals(1, pool.getParties().size());
+
+            conn.parties().idOf(conn, "Új Bt.");
+            conn.getConnection().commit();
+            conn.parties().committed(conn);
+            conn.getConnection().setAutoCommit(true);
+            assertEquals(2, pool.getParties().size());
+            assertEquals(created, conn.parties().find(conn, "Új Bt.")); // A visszavont azonosítót újra megkapta
+        }
+    }
+
+    private long count(String sql) throws SQLException {
+        try (PooledConnection conn = pool.borrowReader();
+             ResultSet rs = conn.getConnection().createStatement().executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
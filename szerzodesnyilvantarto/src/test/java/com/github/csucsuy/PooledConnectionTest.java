@@ -0,0 +1,117 @@
+package com.github.csucsuy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A PooledConnection statement jegyzékének és gyorsítótárának tesztjei:
+ * a statement-ek újrahasznosulnak, és nem szivárognak.
+ */
+class PooledConnectionTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = GroupCommitWriterTest.createPool(tempDir); // 2 olvasó, 8 elemű LRU gyorsítótár
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void registeredStatementIsPreparedOnceAndReused() throws SQLException {
+        PreparedStatement first;
+        try (PooledConnection conn = pool.borrowReader()) {
+            first = conn.prepare(ContractSql.BY_ID);
+            first.setInt(1, 1);
+            try (ResultSet rs = first.executeQuery()) {
+                assertFalse(rs.next());
+            }
+        }
+        try (PooledConnection conn = pool.borrowReader()) {
+            for (int i = 0; i < 1000; i++) {
+                PreparedStatement again = conn.prepare(ContractSql.BY_ID);
+                assertSame(first, again);
+                again.setInt(1, i);
+                try (ResultSet rs = again.executeQuery()) {
+                    assertFalse(rs.next());
+                }
+            }
+            assertEquals(1, conn.preparedStatementCount());
+            assertEquals(1, conn.registeredStatementCount());
+            assertEquals(0, conn.cachedStatementCount());
+        }
+    }
+
+    @Test
+    void registeredStatementsAreNotEvictedByAdHocQueries() throws SQLException {
+        try (PooledConnection conn = pool.borrowReader()) {
+            PreparedStatement page = conn.prepare(ContractSql.FIRST_PAGE);
+            for (int i = 0; i < 50; i++) {
+                try (ResultSet rs = conn.prepare("SELECT " + i).executeQuery()) {
+                    assertTrue(rs.next());
+                }
+            }
+            // Az LRU gyorsítótár korlátos marad, a jegyzékbeli statement érintetlen
+            assertEquals(8, conn.cachedStatementCount());
+            assertSame(page, conn.prepare(ContractSql.FIRST_PAGE));
+            assertFalse(page.isClosed());
+            assertEquals(51, conn.preparedStatementCount());
+        }
+    }
+
+    @Test
+    void writesReuseStatementsAndCloseReleasesThemAll() throws Exception {
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        try (GroupCommitWriter writer = new GroupCommitWriter(pool::borrowWriter, 0, 10)) {
+            for (int i = 0; i < 300; i++) {
+                Contract contract = GroupCommitWriterTest.contract("Szerződés " + i);
+                writer.addContract(contract);
+                futures.add(writer.updateContract(contract).thenCompose(c -> writer.deleteContract(c.getId())));
+            }
+            for (CompletableFuture<Boolean> f : futures) {
+                assertTrue(f.get(20, TimeUnit.SECONDS));
+            }
+        }
+
+        List<PreparedStatement> statements = new ArrayList<>();
+        try (PooledConnection conn = pool.borrowWriter()) {
+            // INSERT, LAST_INSERT_ID, UPDATE, DELETE és a fél feloldása (PARTY_ID, PARTY_INSERT):
+            // mindegyik egyszer fordítva, több száz írás után is
+            assertEquals(6, conn.preparedStatementCount());
+            assertEquals(6, conn.registeredStatementCount());
+            for (ContractSql sql : new ContractSql[] {ContractSql.INSERT, ContractSql.LAST_INSERT_ID,
+                    ContractSql.UPDATE, ContractSql.DELETE, ContractSql.PARTY_ID, ContractSql.PARTY_INSERT}) {
+                statements.add(conn.prepare(sql));
+            }
+            assertEquals(6, conn.preparedStatementCount());
+        }
+
+        pool.close();
+        for (PreparedStatement pstmt : statements) {
+            assertTrue(pstmt.isClosed());
+        }
+    }
+}
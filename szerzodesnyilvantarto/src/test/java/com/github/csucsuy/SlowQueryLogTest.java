@@ -0,0 +1,57 @@
+package com.github.csucsuy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A SlowQueryLog tesztjei (memóriabeli SQLite adatbázissal).
+ */
+class SlowQueryLogTest {
+
+    @Test
+    void formatsParams() {
+        assertEquals("-", SlowQueryLog.formatParams(null));
+        assertEquals("['O''Brien', 42, null]", SlowQueryLog.formatParams(new Object[] {"O'Brien", 42, null}));
+    }
+
+    @Test
+    void negativeThresholdDisablesLog() {
+        SlowQueryLog log = new SlowQueryLog(-1, "nem-hasznalt.%g.log", 1024, 1);
+        assertFalse(log.isSlow(TimeUnit.HOURS.toNanos(1)));
+    }
+
+    @Test
+    void writesStatementParamsAndQueryPlan(@TempDir Path dir) throws Exception {
+        SlowQueryLog log = new SlowQueryLog(0, dir.resolve("lassu.%g.log").toString(), 1024 * 1024, 2);
+        assertTrue(log.isSlow(0));
+
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE t(id INTEGER PRIMARY KEY, nev TEXT)");
+            }
+            log.log("keres", TimeUnit.MILLISECONDS.toNanos(750), 3,
+                    "SELECT * FROM t WHERE nev = ? ORDER BY length(nev)", new Object[] {"Alfa"}, conn);
+        } finally {
+            log.close();
+        }
+
+        String content = new String(Files.readAllBytes(dir.resolve("lassu.0.log")), StandardCharsets.UTF_8);
+        assertTrue(content.contains("keres 750.0 ms (3 sor)"), content);
+        assertTrue(content.contains("SQL: SELECT * FROM t WHERE nev = ?"), content);
+        assertTrue(content.contains("Paraméterek: ['Alfa']"), content);
+        assertTrue(content.contains("    SCAN t"), content);
+        assertTrue(content.contains("USE TEMP B-TREE FOR ORDER BY"), content);
+    }
+}